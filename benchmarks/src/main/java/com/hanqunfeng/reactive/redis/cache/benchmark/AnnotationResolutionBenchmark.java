@@ -0,0 +1,60 @@
+package com.hanqunfeng.reactive.redis.cache.benchmark;
+
+import com.hanqunfeng.reactive.redis.cache.aop.ReactiveRedisCacheable;
+import com.hanqunfeng.reactive.redis.cache.operation.CacheOperationSource;
+import com.hanqunfeng.reactive.redis.cache.operation.CacheOperations;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <h1>注解解析</h1>
+ * cached：CacheOperationSource按方法缓存的解析结果
+ * reflective：每次调用都通过反射读取注解和返回值类型，与原来切面中的实现相同
+ * Created by hanqf on 2026/10/17 20:40.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnnotationResolutionBenchmark {
+
+    private ConfigurableApplicationContext context;
+
+    private CacheOperationSource operationSource;
+
+    private JoinPoint joinPoint;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkApplication.start();
+        operationSource = context.getBean(CacheOperationSource.class);
+        joinPoint = MethodJoinPoint.of(new BenchmarkService(), "findById", 1L);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public CacheOperations cached() {
+        return operationSource.getOperations(joinPoint);
+    }
+
+    @Benchmark
+    public void reflective(Blackhole blackhole) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Method targetMethod = AopUtils.getMostSpecificMethod(method, joinPoint.getTarget().getClass());
+        blackhole.consume(targetMethod.getAnnotation(ReactiveRedisCacheable.class));
+        blackhole.consume(targetMethod.getGenericReturnType());
+    }
+}
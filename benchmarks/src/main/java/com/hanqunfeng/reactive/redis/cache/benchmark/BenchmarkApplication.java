@@ -0,0 +1,46 @@
+package com.hanqunfeng.reactive.redis.cache.benchmark;
+
+import com.hanqunfeng.reactive.redis.cache.benchmark.load.LoadTestService;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.redis.RedisReactiveAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+
+/**
+ * <h1>基准测试的spring容器</h1>
+ * 使用进程内的redis替身，不需要启动redis
+ * Created by hanqf on 2026/10/17 20:40.
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration(exclude = {RedisAutoConfiguration.class, RedisReactiveAutoConfiguration.class})
+@Import({BenchmarkService.class, LoadTestService.class})
+public class BenchmarkApplication {
+
+    /**
+     * 启动容器，使用新的redis替身
+     *
+     * @param properties 额外的配置，格式为key=value
+     */
+    public static ConfigurableApplicationContext start(String... properties) {
+        return start(new InMemoryReactiveRedisConnectionFactory(), properties);
+    }
+
+    /**
+     * 启动容器，多个容器使用同一个redis替身时模拟多个节点
+     *
+     * @param properties 额外的配置，格式为key=value
+     */
+    public static ConfigurableApplicationContext start(InMemoryReactiveRedisConnectionFactory connectionFactory, String... properties) {
+        return new SpringApplicationBuilder(BenchmarkApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .properties("spring.main.banner-mode=off", "logging.level.root=WARN")
+                .properties(properties)
+                .initializers(context -> context.getBeanFactory().registerSingleton("redisConnectionFactory", connectionFactory))
+                .run();
+    }
+}
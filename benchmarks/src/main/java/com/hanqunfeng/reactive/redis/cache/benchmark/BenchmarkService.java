@@ -0,0 +1,58 @@
+package com.hanqunfeng.reactive.redis.cache.benchmark;
+
+import com.hanqunfeng.reactive.redis.cache.aop.ReactiveRedisCacheable;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * <h1>基准测试使用的缓存方法</h1>
+ * 方法主体不访问任何外部资源，测量的只是切面的开销
+ * Created by hanqf on 2026/10/17 20:40.
+ */
+@Service
+public class BenchmarkService {
+
+    @ReactiveRedisCacheable(cacheName = "bench", key = "'user_' + #id")
+    public Mono<BenchmarkUser> findById(Long id) {
+        return Mono.fromSupplier(() -> BenchmarkUser.of(id));
+    }
+
+    /**
+     * 不缓存空值，每次调用都未命中
+     */
+    @ReactiveRedisCacheable(cacheName = "bench", key = "'missing_' + #id", cacheNull = false)
+    public Mono<BenchmarkUser> findMissing(Long id) {
+        return Mono.empty();
+    }
+
+    @ReactiveRedisCacheable(cacheName = "bench", key = "'list_' + #size")
+    public Flux<BenchmarkUser> findAll(int size) {
+        return Flux.range(0, size).map(BenchmarkUser::of);
+    }
+
+    @ReactiveRedisCacheable(cacheName = "bench", key = "'missing_list_' + #size", cacheNull = false)
+    public Flux<BenchmarkUser> findAllMissing(int size) {
+        return Flux.empty();
+    }
+
+    @ReactiveRedisCacheable(cacheName = "bench", key = "literal")
+    public Mono<BenchmarkUser> literalKey(BenchmarkUser user) {
+        return Mono.just(user);
+    }
+
+    @ReactiveRedisCacheable(cacheName = "bench", key = "#id")
+    public Mono<BenchmarkUser> parameterKey(Long id, BenchmarkUser user) {
+        return Mono.just(user);
+    }
+
+    @ReactiveRedisCacheable(cacheName = "bench", key = "#user.username")
+    public Mono<BenchmarkUser> propertyKey(BenchmarkUser user) {
+        return Mono.just(user);
+    }
+
+    @ReactiveRedisCacheable(cacheName = "bench", key = "'user_' + #user.id + '_' + #user.username")
+    public Mono<BenchmarkUser> spelKey(BenchmarkUser user) {
+        return Mono.just(user);
+    }
+}
@@ -0,0 +1,64 @@
+package com.hanqunfeng.reactive.redis.cache.benchmark;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <h1>基准测试使用的典型DTO</h1>
+ * 包含嵌套对象、集合、Map和日期，与业务中常见的用户对象相当
+ * Created by hanqf on 2026/10/17 20:40.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BenchmarkUser {
+
+    private Long id;
+
+    private String username;
+
+    private String email;
+
+    private boolean enabled;
+
+    private LocalDateTime createTime;
+
+    private List<Role> roles;
+
+    private Map<String, String> attributes;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Role {
+
+        private Long id;
+
+        private String name;
+
+        private List<String> authorities;
+    }
+
+    public static BenchmarkUser of(long id) {
+        List<Role> roles = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            List<String> authorities = new ArrayList<>();
+            for (int j = 0; j < 5; j++) {
+                authorities.add("authority_" + i + "_" + j);
+            }
+            roles.add(new Role((long) i, "role_" + i, authorities));
+        }
+        Map<String, String> attributes = new LinkedHashMap<>();
+        attributes.put("department", "engineering");
+        attributes.put("location", "beijing");
+        attributes.put("phone", "13800000000");
+        return new BenchmarkUser(id, "user_" + id, "user_" + id + "@example.com", true, LocalDateTime.of(2026, 10, 17, 20, 40), roles, attributes);
+    }
+}
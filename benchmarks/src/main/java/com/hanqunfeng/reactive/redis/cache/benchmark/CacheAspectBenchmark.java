@@ -0,0 +1,86 @@
+package com.hanqunfeng.reactive.redis.cache.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.aop.framework.Advised;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <h1>切面的命中和未命中路径</h1>
+ * 使用进程内的redis替身，测量的是切面、编码和Reactor的开销，不包含网络时间
+ * direct为不经过切面直接调用方法主体，作为基准
+ * Created by hanqf on 2026/10/17 20:40.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheAspectBenchmark {
+
+    /**
+     * Flux的元素数量
+     */
+    @Param({"10", "1000"})
+    public int size;
+
+    /**
+     * 缓存值编码
+     */
+    @Param({"default", "jackson"})
+    public String codec;
+
+    private ConfigurableApplicationContext context;
+
+    private BenchmarkService service;
+
+    private BenchmarkService target;
+
+    @Setup
+    public void setup() throws Exception {
+        context = BenchmarkApplication.start("reactive.redis.cache.codec=" + codec);
+        service = context.getBean(BenchmarkService.class);
+        target = (BenchmarkService) ((Advised) service).getTargetSource().getTarget();
+        //写入命中路径使用的缓存
+        service.findById(1L).block();
+        service.findAll(size).collectList().block();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public BenchmarkUser monoDirect() {
+        return target.findById(1L).block();
+    }
+
+    @Benchmark
+    public BenchmarkUser monoHit() {
+        return service.findById(1L).block();
+    }
+
+    @Benchmark
+    public BenchmarkUser monoMiss() {
+        return service.findMissing(1L).block();
+    }
+
+    @Benchmark
+    public List<BenchmarkUser> fluxDirect() {
+        return target.findAll(size).collectList().block();
+    }
+
+    @Benchmark
+    public List<BenchmarkUser> fluxHit() {
+        return service.findAll(size).collectList().block();
+    }
+
+    @Benchmark
+    public List<BenchmarkUser> fluxMiss() {
+        return service.findAllMissing(size).collectList().block();
+    }
+}
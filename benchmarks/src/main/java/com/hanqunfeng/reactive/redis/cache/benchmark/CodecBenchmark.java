@@ -0,0 +1,76 @@
+package com.hanqunfeng.reactive.redis.cache.benchmark;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.hanqunfeng.reactive.redis.cache.codec.CacheValueCodecResolver;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <h1>缓存值的编码和解码</h1>
+ * single为单个DTO，list为100个DTO组成的list(Flux的缓存值)
+ * Created by hanqf on 2026/10/17 20:40.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark {
+
+    @Param({"default", "jackson", "smile", "cbor"})
+    public String codec;
+
+    @Param({"single", "list"})
+    public String payload;
+
+    private ConfigurableApplicationContext context;
+
+    private CacheValueCodecResolver codecResolver;
+
+    private Object value;
+
+    private JavaType valueType;
+
+    private ByteBuffer encoded;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkApplication.start("reactive.redis.cache.codec=" + codec);
+        codecResolver = context.getBean(CacheValueCodecResolver.class);
+        TypeFactory typeFactory = TypeFactory.defaultInstance();
+        if ("list".equals(payload)) {
+            List<BenchmarkUser> users = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                users.add(BenchmarkUser.of(i));
+            }
+            value = users;
+            valueType = typeFactory.constructCollectionType(List.class, BenchmarkUser.class);
+        } else {
+            value = BenchmarkUser.of(1);
+            valueType = typeFactory.constructType(BenchmarkUser.class);
+        }
+        encoded = codecResolver.encode("bench", value, valueType);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ByteBuffer encode() {
+        return codecResolver.encode("bench", value, valueType);
+    }
+
+    @Benchmark
+    public Object decode() {
+        return codecResolver.decode(encoded.duplicate(), valueType);
+    }
+}
@@ -0,0 +1,47 @@
+package com.hanqunfeng.reactive.redis.cache.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <h1>Flux收集为list的开销</h1>
+ * 未开启流式缓存时，Flux的结果需要collectList后整体缓存，命中时再展开为Flux
+ * passThrough为直接发射元素，collectList为收集后再展开
+ * Created by hanqf on 2026/10/17 20:40.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollectListBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    public int size;
+
+    private Flux<BenchmarkUser> source;
+
+    @Setup
+    public void setup() {
+        BenchmarkUser user = BenchmarkUser.of(1);
+        source = Flux.range(0, size).map(i -> user);
+    }
+
+    @Benchmark
+    public void passThrough(Blackhole blackhole) {
+        source.doOnNext(blackhole::consume).blockLast();
+    }
+
+    @Benchmark
+    public void collectList(Blackhole blackhole) {
+        source.collectList()
+                .flatMapIterable((List<BenchmarkUser> list) -> list)
+                .doOnNext(blackhole::consume)
+                .blockLast();
+    }
+}
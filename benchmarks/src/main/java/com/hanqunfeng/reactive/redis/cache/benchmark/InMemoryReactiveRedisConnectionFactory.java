@@ -0,0 +1,319 @@
+package com.hanqunfeng.reactive.redis.cache.benchmark;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.redis.connection.*;
+import org.springframework.data.redis.core.types.Expiration;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <h1>进程内的redis替身</h1>
+ * 只实现缓存切面用到的命令(GET、SET、MGET、PTTL、EXISTS、DEL、UNLINK、PUBLISH和分布式锁的解锁脚本)，数据保存在ConcurrentHashMap中
+ * 基准测试只关心切面本身的开销，不包含网络和redis服务端的时间，其它命令抛出UnsupportedOperationException
+ * 压力测试时多个容器可以共享同一个实例模拟多个节点，可以设置每个命令的延迟，并统计每个命令的执行次数
+ * Created by hanqf on 2026/10/17 20:40.
+ */
+public class InMemoryReactiveRedisConnectionFactory implements ReactiveRedisConnectionFactory, RedisConnectionFactory {
+
+    private final Map<ByteBuffer, Entry> store = new ConcurrentHashMap<>(1024);
+
+    private final Map<String, LongAdder> commands = new ConcurrentHashMap<>();
+
+    /**
+     * 每个命令的延迟，模拟网络往返时间
+     */
+    private volatile Duration latency = Duration.ZERO;
+
+    private final ReactiveRedisConnection connection = proxy(ReactiveRedisConnection.class, this::connection);
+
+    private final ReactiveStringCommands stringCommands = proxy(ReactiveStringCommands.class, command(this::stringCommands));
+
+    private final ReactiveKeyCommands keyCommands = proxy(ReactiveKeyCommands.class, command(this::keyCommands));
+
+    private final ReactivePubSubCommands pubSubCommands = proxy(ReactivePubSubCommands.class, command(this::pubSubCommands));
+
+    private final ReactiveScriptingCommands scriptingCommands = proxy(ReactiveScriptingCommands.class, command(this::scriptingCommands));
+
+    /**
+     * 清空全部数据和命令的统计
+     */
+    public void flushAll() {
+        store.clear();
+        commands.clear();
+    }
+
+    public void setLatency(Duration latency) {
+        this.latency = latency;
+    }
+
+    /**
+     * 每个命令的执行次数，按命令名称排序
+     */
+    public Map<String, Long> commandCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        commands.forEach((name, count) -> counts.put(name, count.sum()));
+        return counts;
+    }
+
+    public int size() {
+        return store.size();
+    }
+
+    @Override
+    public ReactiveRedisConnection getReactiveConnection() {
+        return connection;
+    }
+
+    @Override
+    public ReactiveRedisClusterConnection getReactiveClusterConnection() {
+        throw new UnsupportedOperationException("cluster is not supported");
+    }
+
+    @Override
+    public RedisConnection getConnection() {
+        throw new UnsupportedOperationException("blocking connection is not supported");
+    }
+
+    @Override
+    public RedisClusterConnection getClusterConnection() {
+        throw new UnsupportedOperationException("cluster is not supported");
+    }
+
+    @Override
+    public boolean getConvertPipelineAndTxResults() {
+        return false;
+    }
+
+    @Override
+    public RedisSentinelConnection getSentinelConnection() {
+        throw new UnsupportedOperationException("sentinel is not supported");
+    }
+
+    @Override
+    public DataAccessException translateExceptionIfPossible(RuntimeException ex) {
+        return null;
+    }
+
+    private Object connection(Method method, Object[] args) {
+        switch (method.getName()) {
+            case "stringCommands":
+                return stringCommands;
+            case "keyCommands":
+                return keyCommands;
+            case "pubSubCommands":
+                return pubSubCommands;
+            case "scriptingCommands":
+                return scriptingCommands;
+            case "closeLater":
+                return Mono.empty();
+            case "close":
+                return null;
+            default:
+                throw unsupported(method);
+        }
+    }
+
+    private Object stringCommands(Method method, Object[] args) {
+        if (method.getName().equals("get") && isKey(args)) {
+            return Mono.justOrEmpty(get((ByteBuffer) args[0]));
+        }
+        if (method.getName().equals("mGet") && args.length == 1 && args[0] instanceof List) {
+            List<ByteBuffer> values = new ArrayList<>();
+            for (Object key : (List<?>) args[0]) {
+                values.add(get((ByteBuffer) key));
+            }
+            return Mono.just(values);
+        }
+        if (method.getName().equals("set") && args.length == 4 && args[2] instanceof Expiration) {
+            Expiration expiration = (Expiration) args[2];
+            RedisStringCommands.SetOption option = (RedisStringCommands.SetOption) args[3];
+            ByteBuffer key = copy((ByteBuffer) args[0]);
+            long expireAt = expiration.isPersistent() ? 0 : System.currentTimeMillis() + expiration.getExpirationTimeInMilliseconds();
+            Entry entry = new Entry(copy((ByteBuffer) args[1]), expireAt);
+            if (option == RedisStringCommands.SetOption.SET_IF_ABSENT) {
+                //与SET NX相同，判断和写入是原子的
+                boolean[] set = {false};
+                store.compute(key, (k, old) -> {
+                    if (old != null && !old.isExpired()) {
+                        return old;
+                    }
+                    set[0] = true;
+                    return entry;
+                });
+                return Mono.just(set[0]);
+            }
+            store.put(key, entry);
+            return Mono.just(true);
+        }
+        throw unsupported(method);
+    }
+
+    private Object keyCommands(Method method, Object[] args) {
+        switch (method.getName()) {
+            case "exists":
+                if (isKey(args)) {
+                    return Mono.just(get((ByteBuffer) args[0]) != null);
+                }
+                break;
+            case "pTtl":
+                if (isKey(args)) {
+                    Entry entry = live((ByteBuffer) args[0]);
+                    return Mono.just(entry == null ? -2L : entry.expireAt == 0 ? -1L : entry.expireAt - System.currentTimeMillis());
+                }
+                break;
+            case "del":
+            case "unlink":
+                if (isKey(args)) {
+                    return Mono.just(store.remove(args[0]) == null ? 0L : 1L);
+                }
+                break;
+            case "mDel":
+            case "mUnlink":
+                if (args.length == 1 && args[0] instanceof List) {
+                    long count = 0;
+                    for (Object key : (List<?>) args[0]) {
+                        count += store.remove(key) == null ? 0 : 1;
+                    }
+                    return Mono.just(count);
+                }
+                break;
+            default:
+        }
+        throw unsupported(method);
+    }
+
+    private Object pubSubCommands(Method method, Object[] args) {
+        if (method.getName().equals("publish") && args.length == 2) {
+            return Mono.just(0L);
+        }
+        throw unsupported(method);
+    }
+
+    /**
+     * 不缓存脚本，EVALSHA返回NOSCRIPT后使用EVAL，只支持ReactiveRedisLock的解锁脚本
+     */
+    private Object scriptingCommands(Method method, Object[] args) {
+        if (method.getName().equals("evalSha")) {
+            return Flux.error(new InvalidDataAccessApiUsageException("NOSCRIPT No matching script"));
+        }
+        if (method.getName().equals("eval") && args.length == 4) {
+            String script = StandardCharsets.UTF_8.decode(((ByteBuffer) args[0]).duplicate()).toString();
+            ByteBuffer[] keysAndArgs = (ByteBuffer[]) args[3];
+            if (script.startsWith("if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1])")) {
+                ByteBuffer token = keysAndArgs[1];
+                boolean[] deleted = {false};
+                store.computeIfPresent(keysAndArgs[0], (k, entry) -> {
+                    if (!entry.isExpired() && entry.value.equals(token)) {
+                        deleted[0] = true;
+                        return null;
+                    }
+                    return entry;
+                });
+                return Flux.just(deleted[0] ? 1L : 0L);
+            }
+        }
+        throw unsupported(method);
+    }
+
+    private ByteBuffer get(ByteBuffer key) {
+        Entry entry = live(key);
+        return entry == null ? null : entry.value.duplicate();
+    }
+
+    private Entry live(ByteBuffer key) {
+        Entry entry = store.get(key);
+        if (entry != null && entry.isExpired()) {
+            store.remove(key, entry);
+            return null;
+        }
+        return entry;
+    }
+
+    private static boolean isKey(Object[] args) {
+        return args != null && args.length == 1 && args[0] instanceof ByteBuffer;
+    }
+
+    private static ByteBuffer copy(ByteBuffer buffer) {
+        ByteBuffer copy = ByteBuffer.allocate(buffer.remaining());
+        copy.put(buffer.duplicate()).flip();
+        return copy;
+    }
+
+    /**
+     * 统计命令的执行次数，设置了延迟时在延迟之后才执行命令
+     */
+    private Handler command(Handler handler) {
+        return (method, args) -> {
+            commands.computeIfAbsent(method.getName().toUpperCase(Locale.ROOT), k -> new LongAdder()).increment();
+            Duration delay = latency;
+            if (delay.isZero()) {
+                return handler.invoke(method, args);
+            }
+            if (Flux.class.isAssignableFrom(method.getReturnType())) {
+                return Mono.delay(delay).thenMany(Flux.defer(() -> (Flux<?>) handler.invoke(method, args)));
+            }
+            return Mono.delay(delay).then(Mono.defer(() -> (Mono<?>) handler.invoke(method, args)));
+        };
+    }
+
+    private static UnsupportedOperationException unsupported(Method method) {
+        return new UnsupportedOperationException(method.getDeclaringClass().getSimpleName() + "." + method.getName() + " is not supported");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        InvocationHandler invocationHandler = (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                switch (method.getName()) {
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    default:
+                        return type.getSimpleName() + "@InMemory";
+                }
+            }
+            return handler.invoke(method, args == null ? new Object[0] : args);
+        };
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, invocationHandler);
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object invoke(Method method, Object[] args);
+    }
+
+    private static class Entry {
+
+        private final ByteBuffer value;
+
+        /**
+         * 过期的时间戳，0表示不过期
+         */
+        private final long expireAt;
+
+        Entry(ByteBuffer value, long expireAt) {
+            this.value = value;
+            this.expireAt = expireAt;
+        }
+
+        boolean isExpired() {
+            return expireAt != 0 && expireAt <= System.currentTimeMillis();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.hanqunfeng.reactive.redis.cache.benchmark;
+
+import com.hanqunfeng.reactive.redis.cache.aop.ExpressionEvaluator;
+import com.hanqunfeng.reactive.redis.cache.operation.CacheOperationSource;
+import com.hanqunfeng.reactive.redis.cache.operation.CacheOperations;
+import org.aspectj.lang.JoinPoint;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.expression.AnnotatedElementKey;
+import org.springframework.expression.EvaluationContext;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <h1>缓存key的生成</h1>
+ * literal：不含EL表达式的key
+ * parameter：#参数名，直接读取参数
+ * property：#参数名.属性，通过缓存的getter读取
+ * spel：字符串拼接，使用编译后的SpEL
+ * legacySpel：每次调用都创建EvaluationContext的原实现(AspectSupportUtils.getKeyValue)，用于对比
+ * Created by hanqf on 2026/10/17 20:40.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeyGenerationBenchmark {
+
+    private ConfigurableApplicationContext context;
+
+    private CacheOperationSource operationSource;
+
+    private final BenchmarkUser user = BenchmarkUser.of(1);
+
+    private Invocation literal;
+
+    private Invocation parameter;
+
+    private Invocation property;
+
+    private Invocation spel;
+
+    /**
+     * 原实现已经标记为废弃，只用于对比
+     */
+    @SuppressWarnings("deprecation")
+    private final ExpressionEvaluator evaluator = new ExpressionEvaluator();
+
+    private Method legacyMethod;
+
+    private AnnotatedElementKey legacyKey;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkApplication.start();
+        operationSource = context.getBean(CacheOperationSource.class);
+        BenchmarkService service = new BenchmarkService();
+        literal = new Invocation(service, "literalKey", user);
+        parameter = new Invocation(service, "parameterKey", 1L, user);
+        property = new Invocation(service, "propertyKey", user);
+        spel = new Invocation(service, "spelKey", user);
+        legacyMethod = MethodJoinPoint.findMethod(BenchmarkService.class, "spelKey");
+        legacyKey = new AnnotatedElementKey(legacyMethod, BenchmarkService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String literal() {
+        return literal.key();
+    }
+
+    @Benchmark
+    public String parameter() {
+        return parameter.key();
+    }
+
+    @Benchmark
+    public String property() {
+        return property.key();
+    }
+
+    @Benchmark
+    public String spel() {
+        return spel.key();
+    }
+
+    @Benchmark
+    public Object legacySpel() {
+        Object[] args = {user};
+        EvaluationContext evaluationContext = evaluator.createEvaluationContext(this, BenchmarkService.class, legacyMethod, args);
+        return evaluator.key("'user_' + #user.id + '_' + #user.username", legacyKey, evaluationContext);
+    }
+
+    private class Invocation {
+
+        private final JoinPoint joinPoint;
+
+        private final CacheOperations operations;
+
+        Invocation(Object target, String methodName, Object... args) {
+            this.joinPoint = MethodJoinPoint.of(target, methodName, args);
+            this.operations = operationSource.getOperations(joinPoint);
+        }
+
+        String key() {
+            return operationSource.createInvocationContext(operations, joinPoint).evaluate(operations.getCacheable().getKey());
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.hanqunfeng.reactive.redis.cache.benchmark;
+
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+
+import java.lang.reflect.Proxy;
+
+/**
+ * <h1>不经过代理直接构造的JoinPoint</h1>
+ * 只支持getTarget、getThis、getArgs和getSignature().getMethod()，用于单独测量注解解析和key生成
+ * Created by hanqf on 2026/10/17 20:40.
+ */
+public final class MethodJoinPoint {
+
+    private MethodJoinPoint() {
+    }
+
+    public static JoinPoint of(Object target, String methodName, Object... args) {
+        java.lang.reflect.Method method = findMethod(target.getClass(), methodName);
+        MethodSignature signature = (MethodSignature) Proxy.newProxyInstance(MethodJoinPoint.class.getClassLoader(), new Class<?>[]{MethodSignature.class},
+                (proxy, m, a) -> {
+                    switch (m.getName()) {
+                        case "getMethod":
+                            return method;
+                        case "getName":
+                            return method.getName();
+                        case "getDeclaringType":
+                            return method.getDeclaringClass();
+                        case "getReturnType":
+                            return method.getReturnType();
+                        default:
+                            throw new UnsupportedOperationException(m.getName());
+                    }
+                });
+        return (JoinPoint) Proxy.newProxyInstance(MethodJoinPoint.class.getClassLoader(), new Class<?>[]{JoinPoint.class},
+                (proxy, m, a) -> {
+                    switch (m.getName()) {
+                        case "getTarget":
+                        case "getThis":
+                            return target;
+                        case "getArgs":
+                            return args;
+                        case "getSignature":
+                            return signature;
+                        default:
+                            throw new UnsupportedOperationException(m.getName());
+                    }
+                });
+    }
+
+    public static java.lang.reflect.Method findMethod(Class<?> type, String methodName) {
+        for (java.lang.reflect.Method method : type.getMethods()) {
+            if (method.getName().equals(methodName)) {
+                return method;
+            }
+        }
+        throw new IllegalArgumentException("No method " + methodName + " in " + type.getName());
+    }
+}
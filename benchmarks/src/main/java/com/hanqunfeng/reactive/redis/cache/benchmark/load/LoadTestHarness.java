@@ -0,0 +1,217 @@
+package com.hanqunfeng.reactive.redis.cache.benchmark.load;
+
+import com.hanqunfeng.reactive.redis.cache.benchmark.BenchmarkApplication;
+import com.hanqunfeng.reactive.redis.cache.benchmark.InMemoryReactiveRedisConnectionFactory;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+
+/**
+ * <h1>并发压力测试</h1>
+ * 多个spring容器共享同一个redis替身模拟多个节点，N个并发订阅同时访问注解方法，统计后端调用次数、redis命令次数、吞吐量和延迟分布
+ * 冷key：不开启distributedLock时每个节点最多调用一次后端，开启时全部节点只调用一次后端
+ * 热key：预热后全部请求都命中缓存，不再调用后端
+ * 任何断言失败时退出码为1
+ * <p>
+ * java -cp target/benchmarks.jar com.hanqunfeng.reactive.redis.cache.benchmark.load.LoadTestHarness --concurrency=2000 --nodes=2
+ * 参数：concurrency 并发订阅数，默认2000；nodes 节点数，默认2；requests 热key的请求总数，默认100000；
+ * fluxSize Flux的元素数量，默认100；backendLatencyMs 后端耗时，默认50；redisLatencyMs redis命令的延迟，默认1
+ * Created by hanqf on 2026/10/17 21:10.
+ */
+public class LoadTestHarness {
+
+    private final int concurrency;
+
+    private final int nodes;
+
+    private final int requests;
+
+    private final int fluxSize;
+
+    private final InMemoryReactiveRedisConnectionFactory connectionFactory = new InMemoryReactiveRedisConnectionFactory();
+
+    private final List<ConfigurableApplicationContext> contexts = new ArrayList<>();
+
+    private final List<LoadTestService> services = new ArrayList<>();
+
+    private final List<String> failures = new ArrayList<>();
+
+    private long nextId = 1;
+
+    LoadTestHarness(Map<String, String> options) {
+        this.concurrency = Integer.parseInt(options.getOrDefault("concurrency", "2000"));
+        this.nodes = Integer.parseInt(options.getOrDefault("nodes", "2"));
+        this.requests = Integer.parseInt(options.getOrDefault("requests", "100000"));
+        this.fluxSize = Integer.parseInt(options.getOrDefault("fluxSize", "100"));
+        LoadTestService.setBackendLatency(Duration.ofMillis(Long.parseLong(options.getOrDefault("backendLatencyMs", "50"))));
+        connectionFactory.setLatency(Duration.ofMillis(Long.parseLong(options.getOrDefault("redisLatencyMs", "1"))));
+    }
+
+    public static void main(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] pair = arg.replaceFirst("^--", "").split("=", 2);
+            options.put(pair[0], pair.length > 1 ? pair[1] : "true");
+        }
+        LoadTestHarness harness = new LoadTestHarness(options);
+        boolean passed;
+        try {
+            passed = harness.run();
+        } finally {
+            harness.close();
+        }
+        System.exit(passed ? 0 : 1);
+    }
+
+    boolean run() {
+        for (int i = 0; i < nodes; i++) {
+            ConfigurableApplicationContext context = BenchmarkApplication.start(connectionFactory);
+            contexts.add(context);
+            services.add(context.getBean(LoadTestService.class));
+        }
+        System.out.printf("concurrency=%d nodes=%d requests=%d fluxSize=%d%n%n", concurrency, nodes, requests, fluxSize);
+
+        long id = nextId++;
+        Result coldMono = coldKey("cold mono", (service, i) -> service.find(id));
+        check(coldMono, coldMono.backendCalls() <= nodes, "cold key => backend called at most once per node");
+
+        long lockedId = nextId++;
+        Result coldMonoLocked = coldKey("cold mono distributedLock", (service, i) -> service.findLocked(lockedId));
+        check(coldMonoLocked, coldMonoLocked.backendCalls() == 1, "cold key with distributedLock => backend called once");
+
+        long fluxId = nextId++;
+        Result coldFlux = coldKey("cold flux", (service, i) -> service.findAll(fluxId, fluxSize).count());
+        check(coldFlux, coldFlux.backendCalls() <= nodes, "cold key => backend called at most once per node");
+
+        long fluxLockedId = nextId++;
+        Result coldFluxLocked = coldKey("cold flux distributedLock", (service, i) -> service.findAllLocked(fluxLockedId, fluxSize).count());
+        check(coldFluxLocked, coldFluxLocked.backendCalls() == 1, "cold key with distributedLock => backend called once");
+
+        long hotId = nextId++;
+        services.get(0).find(hotId).block();
+        Result hotMono = execute("hot mono", requests, (service, i) -> service.find(hotId));
+        check(hotMono, hotMono.backendCalls() == 0, "hot key => backend not called");
+
+        long hotFluxId = nextId++;
+        services.get(0).findAll(hotFluxId, fluxSize).collectList().block();
+        Result hotFlux = execute("hot flux", requests, (service, i) -> service.findAll(hotFluxId, fluxSize).count());
+        check(hotFlux, hotFlux.backendCalls() == 0, "hot key => backend not called");
+
+        if (failures.isEmpty()) {
+            System.out.println("All assertions passed");
+            return true;
+        }
+        failures.forEach(failure -> System.out.println("FAILED: " + failure));
+        return false;
+    }
+
+    /**
+     * concurrency个请求同时访问同一个冷key，请求平均分配到每个节点
+     */
+    private Result coldKey(String name, BiFunction<LoadTestService, Integer, Mono<?>> call) {
+        return execute(name, concurrency, call);
+    }
+
+    /**
+     * 以concurrency的并发执行total个请求，第i个请求由第i % nodes个节点执行
+     */
+    private Result execute(String name, int total, BiFunction<LoadTestService, Integer, Mono<?>> call) {
+        services.forEach(LoadTestService::resetBackendCalls);
+        Map<String, Long> commandsBefore = connectionFactory.commandCounts();
+        Histogram histogram = new ConcurrentHistogram(TimeUnit.MINUTES.toNanos(1), 3);
+        AtomicLong errors = new AtomicLong();
+        long start = System.nanoTime();
+        Flux.range(0, total)
+                .flatMap(i -> Mono.defer(() -> {
+                    long begin = System.nanoTime();
+                    return call.apply(services.get(i % nodes), i)
+                            .doOnTerminate(() -> histogram.recordValue(System.nanoTime() - begin))
+                            .onErrorResume(e -> {
+                                errors.incrementAndGet();
+                                return Mono.empty();
+                            });
+                }), concurrency)
+                .blockLast();
+        long elapsed = System.nanoTime() - start;
+
+        int[] backendCalls = services.stream().mapToInt(LoadTestService::getBackendCalls).toArray();
+        Map<String, Long> commands = new HashMap<>();
+        connectionFactory.commandCounts().forEach((command, count) -> {
+            long delta = count - commandsBefore.getOrDefault(command, 0L);
+            if (delta > 0) {
+                commands.put(command, delta);
+            }
+        });
+        Result result = new Result(name, total, elapsed, histogram, backendCalls, commands, errors.get());
+        result.print();
+        if (result.errors > 0) {
+            failures.add(name + ": " + result.errors + " requests failed");
+        }
+        return result;
+    }
+
+    private void check(Result result, boolean condition, String assertion) {
+        System.out.printf("  %s %s%n%n", condition ? "[OK]" : "[FAILED]", assertion);
+        if (!condition) {
+            failures.add(result.name + ": " + assertion + ", backend calls per node " + java.util.Arrays.toString(result.backendCalls));
+        }
+    }
+
+    void close() {
+        contexts.forEach(ConfigurableApplicationContext::close);
+    }
+
+    private static class Result {
+
+        private final String name;
+
+        private final int total;
+
+        private final long elapsedNanos;
+
+        private final Histogram histogram;
+
+        private final int[] backendCalls;
+
+        private final Map<String, Long> commands;
+
+        private final long errors;
+
+        Result(String name, int total, long elapsedNanos, Histogram histogram, int[] backendCalls, Map<String, Long> commands, long errors) {
+            this.name = name;
+            this.total = total;
+            this.elapsedNanos = elapsedNanos;
+            this.histogram = histogram;
+            this.backendCalls = backendCalls;
+            this.commands = commands;
+            this.errors = errors;
+        }
+
+        int backendCalls() {
+            int sum = 0;
+            for (int calls : backendCalls) {
+                sum += calls;
+            }
+            return sum;
+        }
+
+        void print() {
+            System.out.printf("%s: %d requests in %.1f ms, %.0f ops/s, errors %d%n", name, total, elapsedNanos / 1e6, total * 1e9 / elapsedNanos, errors);
+            System.out.printf("  latency(ms) p50=%.2f p90=%.2f p99=%.2f p99.9=%.2f max=%.2f%n",
+                    histogram.getValueAtPercentile(50) / 1e6, histogram.getValueAtPercentile(90) / 1e6, histogram.getValueAtPercentile(99) / 1e6,
+                    histogram.getValueAtPercentile(99.9) / 1e6, histogram.getMaxValue() / 1e6);
+            System.out.printf("  backend calls per node %s, redis commands %s%n", java.util.Arrays.toString(backendCalls), new java.util.TreeMap<>(commands));
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.hanqunfeng.reactive.redis.cache.benchmark.load;
+
+import com.hanqunfeng.reactive.redis.cache.aop.ReactiveRedisCacheable;
+import com.hanqunfeng.reactive.redis.cache.benchmark.BenchmarkUser;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <h1>压力测试使用的缓存方法</h1>
+ * 方法主体模拟耗时的后端调用，每个节点(容器)分别统计后端调用次数
+ * Created by hanqf on 2026/10/17 21:10.
+ */
+@Service
+public class LoadTestService {
+
+    /**
+     * 后端调用的耗时
+     */
+    private static volatile Duration backendLatency = Duration.ofMillis(50);
+
+    private final AtomicInteger backendCalls = new AtomicInteger();
+
+    public static void setBackendLatency(Duration latency) {
+        backendLatency = latency;
+    }
+
+    public int getBackendCalls() {
+        return backendCalls.get();
+    }
+
+    public void resetBackendCalls() {
+        backendCalls.set(0);
+    }
+
+    @ReactiveRedisCacheable(cacheName = "load", key = "'mono_' + #id")
+    public Mono<BenchmarkUser> find(Long id) {
+        return backend().map(i -> BenchmarkUser.of(id));
+    }
+
+    @ReactiveRedisCacheable(cacheName = "load", key = "'mono_locked_' + #id", distributedLock = true, waitTimeout = 10000L)
+    public Mono<BenchmarkUser> findLocked(Long id) {
+        return backend().map(i -> BenchmarkUser.of(id));
+    }
+
+    @ReactiveRedisCacheable(cacheName = "load", key = "'flux_' + #id + '_' + #size")
+    public Flux<BenchmarkUser> findAll(Long id, int size) {
+        return backend().flatMapMany(i -> Flux.range(0, size).map(BenchmarkUser::of));
+    }
+
+    @ReactiveRedisCacheable(cacheName = "load", key = "'flux_locked_' + #id + '_' + #size", distributedLock = true, waitTimeout = 10000L)
+    public Flux<BenchmarkUser> findAllLocked(Long id, int size) {
+        return backend().flatMapMany(i -> Flux.range(0, size).map(BenchmarkUser::of));
+    }
+
+    private Mono<Integer> backend() {
+        return Mono.fromSupplier(backendCalls::incrementAndGet).delayElement(backendLatency);
+    }
+}
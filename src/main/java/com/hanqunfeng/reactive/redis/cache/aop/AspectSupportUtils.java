@@ -12,7 +12,10 @@ import java.lang.reflect.Method;
 /**
  * <h1>自定义注解支持EL表达式</h1>
  * Created by hanqf on 2020/11/21 19:35.
+ *
+ * @deprecated 切面已经改为启动时解析注解并缓存编译后的表达式(CacheOperationSource)，不再使用该类，只保留给自定义切面兼容和benchmarks对比，将在下一个大版本删除
  */
+@Deprecated
 public class AspectSupportUtils {
 
     private static ExpressionEvaluator evaluator = new ExpressionEvaluator();
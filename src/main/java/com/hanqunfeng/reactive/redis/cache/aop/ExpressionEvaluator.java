@@ -16,9 +16,10 @@ import java.util.concurrent.ConcurrentHashMap;
 /**
  * <h1>ExpressionEvaluator</h1>
  * Created by hanqf on 2020/11/21 19:38.
+ *
+ * @deprecated 只被AspectSupportUtils使用，表达式的解析和缓存已经移到CacheOperationSource，将在下一个大版本删除
  */
-
-
+@Deprecated
 public class ExpressionEvaluator extends CachedExpressionEvaluator {
     private final ParameterNameDiscoverer paramNameDiscoverer = new DefaultParameterNameDiscoverer();
 
@@ -1,26 +1,59 @@
 package com.hanqunfeng.reactive.redis.cache.aop;
 
+import com.fasterxml.jackson.databind.JavaType;
+import com.hanqunfeng.reactive.redis.cache.bloom.CacheBloomFilterManager;
+import com.hanqunfeng.reactive.redis.cache.chunk.CacheValueChunker;
+import com.hanqunfeng.reactive.redis.cache.cluster.RedisClusterSupport;
+import com.hanqunfeng.reactive.redis.cache.codec.CacheValueCodecResolver;
+import com.hanqunfeng.reactive.redis.cache.evict.CacheEvictCoalescer;
+import com.hanqunfeng.reactive.redis.cache.evict.CacheEvictStrategyResolver;
+import com.hanqunfeng.reactive.redis.cache.hotkey.HotKeyDetector;
+import com.hanqunfeng.reactive.redis.cache.layout.HashCacheLayout;
+import com.hanqunfeng.reactive.redis.cache.local.NearCache;
+import com.hanqunfeng.reactive.redis.cache.local.NearCacheManager;
+import com.hanqunfeng.reactive.redis.cache.lock.ReactiveRedisLock;
+import com.hanqunfeng.reactive.redis.cache.metrics.CacheMetrics;
+import com.hanqunfeng.reactive.redis.cache.lock.ReactiveSingleFlight;
+import com.hanqunfeng.reactive.redis.cache.operation.*;
+import com.hanqunfeng.reactive.redis.cache.refresh.ReactiveCacheRefresher;
+import com.hanqunfeng.reactive.redis.cache.ttl.CacheTtlPolicy;
+import com.hanqunfeng.reactive.redis.cache.write.CacheWriteBehind;
+import com.hanqunfeng.reactive.redis.cache.stream.CacheTarget;
+import com.hanqunfeng.reactive.redis.cache.stream.FluxStreamCache;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.tuple.Pair;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
-import org.aspectj.lang.reflect.MethodSignature;
+import org.reactivestreams.Publisher;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
+import reactor.core.Exceptions;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
 
-import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 /**
  * <h1>redis缓存aop</h1>
+ * 所有redis操作均基于ReactiveRedisTemplate，并且都是惰性的Mono/Flux，只有在订阅时才会执行，不会阻塞reactor线程
+ * 注解在方法第一次调用时由CacheOperationSource解析并缓存，之后调用不再需要反射
+ * cacheName开启Flux流式缓存时，Flux的元素边发射边写入redis，不再collectList收集全部元素
  * Created by hanqf on 2020/11/21 16:16.
  */
 
@@ -32,8 +65,75 @@ import java.util.concurrent.atomic.AtomicBoolean;
 @Slf4j
 public class ReactiveRedisCacheAspect {
 
+    /**
+     * 缓存空值的标记，Mono为null或Flux为empty时写入该标记，不经过序列化
+     * json序列化的结果不会以\0开头，所以不会与正常的缓存值冲突
+     */
+    private static final byte[] NULL_VALUE = "\0NULL".getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * 分布式锁key的后缀
+     */
+    private static final String LOCK_SUFFIX = ":lock";
+
+    /**
+     * 未获得分布式锁时轮询缓存的间隔
+     */
+    private static final Duration LOCK_POLL_INTERVAL = Duration.ofMillis(50);
+
+    @Autowired
+    private ReactiveRedisTemplate reactiveRedisTemplate;
+
+    @Autowired
+    private RedisClusterSupport clusterSupport;
+
+    @Autowired
+    private ReactiveSingleFlight singleFlight;
+
+    @Autowired
+    private ReactiveRedisLock redisLock;
+
+    @Autowired
+    private CacheEvictStrategyResolver evictStrategyResolver;
+
+    @Autowired
+    private CacheEvictCoalescer evictCoalescer;
+
+    @Autowired
+    private HashCacheLayout hashLayout;
+
     @Autowired
-    private RedisTemplate redisTemplate;
+    private CacheBloomFilterManager bloomFilterManager;
+
+    @Autowired
+    private HotKeyDetector hotKeyDetector;
+
+    @Autowired
+    private CacheValueChunker chunker;
+
+    @Autowired
+    private NearCacheManager nearCacheManager;
+
+    @Autowired
+    private FluxStreamCache fluxStreamCache;
+
+    @Autowired
+    private CacheValueCodecResolver codecResolver;
+
+    @Autowired
+    private CacheOperationSource operationSource;
+
+    @Autowired
+    private ReactiveCacheRefresher cacheRefresher;
+
+    @Autowired
+    private CacheTtlPolicy ttlPolicy;
+
+    @Autowired
+    private CacheMetrics metrics;
+
+    @Autowired
+    private CacheWriteBehind writeBehind;
 
     @Pointcut("@annotation(com.hanqunfeng.reactive.redis.cache.aop.ReactiveRedisCacheable)")
     public void cacheablePointCut() {
@@ -51,85 +151,442 @@ public class ReactiveRedisCacheAspect {
     public void cachingPointCut() {
     }
 
+    @Pointcut("@annotation(com.hanqunfeng.reactive.redis.cache.aop.ReactiveRedisCacheableBatch)")
+    public void cacheableBatchPointCut() {
+    }
+
+    /**
+     * 执行实际的方法，异常转换为运行时异常，以便在defer中转换为onError信号
+     */
+    private Object proceed(ProceedingJoinPoint proceedingJoinPoint) {
+        try {
+            return proceedingJoinPoint.proceed();
+        } catch (Throwable throwable) {
+            throw Exceptions.propagate(throwable);
+        }
+    }
+
     /**
-     * 根据key获取缓存数据
+     * 使用新的参数执行实际的方法
      */
-    private Object getObjectByKey(String returnTypeName, String redis_key) {
-        Object o = redisTemplate.opsForValue().get(redis_key);
-        log.debug("The key[{}] exists,method body not executed", redis_key);
+    private Object proceed(ProceedingJoinPoint proceedingJoinPoint, Object[] args) {
+        try {
+            return proceedingJoinPoint.proceed(args);
+        } catch (Throwable throwable) {
+            throw Exceptions.propagate(throwable);
+        }
+    }
 
-        if (returnTypeName.equals("Flux")) {
-            return Flux.fromIterable((List) o);
-        } else if (returnTypeName.equals("Mono")) {
-            return Mono.justOrEmpty(o);
-        } else {
-            return o;
+    private ByteBuffer rawKey(String redis_key) {
+        return reactiveRedisTemplate.getSerializationContext().getKeySerializationPair().write(redis_key);
+    }
+
+    /**
+     * 根据key获取缓存的原始数据，返回的Mono为空表示未命中，分块存储时读取全部块
+     */
+    private Mono<ByteBuffer> getRaw(String cacheName, String redis_key) {
+        if (hashLayout.isEnabled(cacheName)) {
+            return hashLayout.get(cacheName, redis_key);
         }
+        Mono<ByteBuffer> get = reactiveRedisTemplate.createMono(connection -> connection.stringCommands().get(rawKey(redis_key)));
+        return get.onErrorResume(FluxStreamCache::isWrongType, e -> Mono.empty())
+                .flatMap(byteBuffer -> chunker.isManifest(byteBuffer) ? chunker.read(cacheName, redis_key, byteBuffer) : Mono.just(byteBuffer));
     }
 
     /**
-     * 缓存list
+     * 反序列化缓存数据，Optional为空表示缓存的是空值(Mono为null或Flux为empty)
      */
-    private void cacheFlux(List list, String redis_key, long timeout, boolean cacheNull, long cacheNullTimeout) {
-        if (list.size() == 0) {
-            if (cacheNull) {
-                if (cacheNullTimeout > 0) {
-                    redisTemplate.opsForValue().set(redis_key, list, cacheNullTimeout, TimeUnit.SECONDS);
-                } else {
-                    if (timeout > 0) {
-                        redisTemplate.opsForValue().set(redis_key, list, timeout, TimeUnit.SECONDS);
-                    } else {
-                        redisTemplate.opsForValue().set(redis_key, list); // 永不过期
-                    }
-                }
+    private Optional<Object> decode(ByteBuffer byteBuffer, JavaType valueType) {
+        if (isNullValue(byteBuffer)) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(codecResolver.decode(byteBuffer, valueType));
+    }
+
+    /**
+     * 是否为缓存的空值，兼容旧版本缓存的空值(空字节)
+     */
+    private static boolean isNullValue(ByteBuffer byteBuffer) {
+        return !byteBuffer.hasRemaining() || byteBuffer.equals(ByteBuffer.wrap(NULL_VALUE));
+    }
+
+    /**
+     * 根据key获取缓存数据，一次GET即可区分是否命中
+     * 返回的Mono为空表示未命中，Optional为空表示缓存的是空值(Mono为null或Flux为empty)
+     */
+    private Mono<Optional<Object>> getValue(String cacheName, String redis_key, JavaType valueType) {
+        return getRaw(cacheName, redis_key).map(byteBuffer -> decode(byteBuffer, valueType));
+    }
+
+    /**
+     * 根据key获取缓存数据，未命中时执行miss加载数据
+     * 开启本地缓存时先查询本地缓存，命中redis后再写入本地缓存
+     * 开启异步写入时等待写入的值也视为命中
+     * 没有开启本地缓存时记录访问次数，热点key命中redis后缓存在本地
+     * shouldRefresh不为空时GET和PTTL同时发送，shouldRefresh对剩余过期时间(毫秒)返回true时执行refresh后台刷新，返回的仍然是缓存值
+     */
+    private Mono<Optional<Object>> lookup(CacheTarget target, NearCache nearCache, long nearCacheTimeout,
+                                          LongPredicate shouldRefresh, Runnable refresh, Supplier<Mono<Optional<Object>>> miss) {
+        String cacheName = target.getCacheName();
+        String method = target.getMethod();
+        String redis_key = target.getRedisKey();
+        if (nearCache != null) {
+            Optional<Object> local = nearCache.get(redis_key, byteBuffer -> decode(byteBuffer, target.getValueType()));
+            if (local != null) {
+                log.debug("The key[{}] exists in near cache,method body not executed", redis_key);
+                recordGet(cacheName, method, local);
+                return Mono.just(local);
             }
+        }
+        boolean hot = nearCache == null && hotKeyDetector.record(cacheName, redis_key);
+        if (hot) {
+            Optional<Object> local = hotKeyDetector.get(cacheName, redis_key, byteBuffer -> decode(byteBuffer, target.getValueType()));
+            if (local != null) {
+                log.debug("The key[{}] exists in hot key cache,method body not executed", redis_key);
+                recordGet(cacheName, method, local);
+                return Mono.just(local);
+            }
+        }
+        if (writeBehind.isEnabled(cacheName)) {
+            Optional<Object> pending = writeBehind.getPending(redis_key);
+            if (pending != null) {
+                log.debug("The key[{}] is waiting to be cached,method body not executed", redis_key);
+                recordGet(cacheName, method, pending);
+                return Mono.just(pending);
+            }
+        }
+        //读取redis之前获取失效代数，读取期间本地缓存失效时不写入读到的旧值
+        long generation = nearCache != null ? nearCache.generation() : hot ? hotKeyDetector.generation(cacheName) : 0;
+        Mono<ByteBuffer> raw = metrics.redis(cacheName, method, CacheMetrics.GET, getRaw(cacheName, redis_key));
+        if (shouldRefresh != null) {
+            Mono<Long> ttl = reactiveRedisTemplate.createMono(connection -> connection.keyCommands().pTtl(rawKey(redis_key)));
+            raw = Mono.zip(raw, ttl).map(tuple -> {
+                long pttl = tuple.getT2();
+                if (pttl >= 0 && !isNullValue(tuple.getT1()) && shouldRefresh.test(pttl)) {
+                    refresh.run();
+                }
+                return tuple.getT1();
+            });
+        }
+        return raw
+                .map(byteBuffer -> {
+                    int weight = byteBuffer.remaining();
+                    metrics.payload(cacheName, method, CacheMetrics.READ, weight);
+                    ByteBuffer rawValue = byteBuffer.duplicate();
+                    Optional<Object> value = decode(byteBuffer, target.getValueType());
+                    if (nearCache != null) {
+                        nearCache.put(redis_key, value, rawValue, nearCacheTimeout, generation);
+                    } else if (hot) {
+                        hotKeyDetector.promote(cacheName, redis_key, value, rawValue, target.getTimeout(), generation);
+                    }
+                    return value;
+                })
+                .doOnNext(o -> {
+                    log.debug("The key[{}] exists,method body not executed", redis_key);
+                    recordGet(cacheName, method, o);
+                })
+                .switchIfEmpty(Mono.defer(() -> {
+                    metrics.miss(cacheName, method);
+                    return miss.get();
+                }));
+    }
+
+    /**
+     * 记录命中，Optional为空时为命中空值
+     */
+    private void recordGet(String cacheName, String method, Optional<Object> value) {
+        if (value.isPresent()) {
+            metrics.hit(cacheName, method);
         } else {
-            if (timeout > 0) {
-                redisTemplate.opsForValue().set(redis_key, list, timeout, TimeUnit.SECONDS);
+            metrics.nullHit(cacheName, method);
+        }
+    }
+
+    /**
+     * 将缓存数据转换为方法的返回值类型，Flux的缓存数据为全部元素组成的list
+     */
+    private static Object unwrap(ReturnKind returnKind, Mono<Optional<Object>> value) {
+        if (returnKind == ReturnKind.FLUX) {
+            return value.flatMapIterable(o -> (List<Object>) o.orElse(Collections.emptyList()));
+        } else {
+            return value.flatMap(Mono::justOrEmpty);
+        }
+    }
+
+    /**
+     * 缓存未命中，执行方法主体，缓存结果后再返回
+     */
+    private Mono<Optional<Object>> load(ProceedingJoinPoint proceedingJoinPoint, ReturnKind returnKind, String cacheName, String method, String redis_key,
+                                        Function<Object, Mono<Void>> cache) {
+        return Mono.defer(() -> {
+            log.debug("The key[{}] does not exist,method body executed", redis_key);
+            //实际执行的方法
+            Object proceed = proceed(proceedingJoinPoint);
+            Mono<Optional<Object>> result;
+            if (returnKind == ReturnKind.FLUX) {
+                result = ((Flux<Object>) proceed).collectList().map(Optional::of);
             } else {
-                redisTemplate.opsForValue().set(redis_key, list); // 永不过期
+                result = ((Mono<Object>) proceed).map(Optional::of).defaultIfEmpty(Optional.empty());
+            }
+            return metrics.load(cacheName, method, result).flatMap(o -> cache.apply(o.orElse(null)).thenReturn(o));
+        });
+    }
+
+    /**
+     * 防止缓存击穿
+     * 同一个jvm内相同key的并发加载会被合并，开启distributedLock时再通过redis锁保证多个节点只有一个执行方法主体
+     */
+    private Mono<Optional<Object>> guardedLoad(CacheTarget target, Mono<Optional<Object>> load, boolean distributedLock, long lockTimeout, long waitTimeout) {
+        String redis_key = target.getRedisKey();
+        JavaType valueType = target.getValueType();
+        return singleFlight.execute(redis_key, () -> {
+            if (!distributedLock) {
+                return load;
+            }
+            String lockKey = redis_key + LOCK_SUFFIX;
+            String token = redisLock.newToken();
+            return redisLock.tryLock(lockKey, token, lockTimeout).flatMap(locked -> {
+                if (locked) {
+                    //获得锁后再检查一次缓存，其它节点可能已经写入
+                    return Mono.usingWhen(Mono.just(token),
+                            t -> getValue(target.getCacheName(), redis_key, valueType).switchIfEmpty(load),
+                            t -> redisLock.unlock(lockKey, t),
+                            (t, e) -> redisLock.unlock(lockKey, t),
+                            t -> redisLock.unlock(lockKey, t));
+                }
+                //未获得锁，等待其它节点写入缓存，超时后直接执行方法主体
+                return metrics.lockWait(target.getCacheName(), target.getMethod(), waitForValue(target.getCacheName(), redis_key, valueType, waitTimeout)).switchIfEmpty(load);
+            });
+        });
+    }
+
+    /**
+     * 后台刷新缓存，开启distributedLock时只有获得锁的节点刷新，未获得锁时放弃本次刷新
+     */
+    private Mono<Optional<Object>> refreshLoad(String redis_key, Mono<Optional<Object>> load, boolean distributedLock, long lockTimeout) {
+        if (!distributedLock) {
+            return load;
+        }
+        String lockKey = redis_key + LOCK_SUFFIX;
+        String token = redisLock.newToken();
+        return redisLock.tryLock(lockKey, token, lockTimeout).flatMap(locked -> {
+            if (!locked) {
+                log.debug("The key[{}] is refreshing by other node", redis_key);
+                return Mono.empty();
             }
+            return Mono.usingWhen(Mono.just(token),
+                    t -> load,
+                    t -> redisLock.unlock(lockKey, t),
+                    (t, e) -> redisLock.unlock(lockKey, t),
+                    t -> redisLock.unlock(lockKey, t));
+        });
+    }
+
+    /**
+     * 轮询等待缓存写入，超时返回空
+     */
+    private Mono<Optional<Object>> waitForValue(String cacheName, String redis_key, JavaType valueType, long waitTimeout) {
+        if (waitTimeout <= 0) {
+            return Mono.empty();
         }
+        log.debug("The key[{}] is locked by other node,waiting for the cache", redis_key);
+        return getValue(cacheName, redis_key, valueType)
+                .repeatWhenEmpty(companion -> companion.delayElements(LOCK_POLL_INTERVAL))
+                .timeout(Duration.ofMillis(waitTimeout), Mono.empty());
+    }
 
-        log.debug("The key[{}] has been cached", redis_key);
+    /**
+     * Flux流式缓存未命中，执行方法主体，元素写入redis的同时发射给下游
+     * 同一个jvm内相同key的并发请求只有一个执行方法主体，其它请求等待其结束后从redis中读取，开启distributedLock时多个节点之间也是如此
+     * 下游取消订阅时不会写入缓存，等待的请求读取不到缓存时会自己执行方法主体
+     */
+    private Flux<Object> streamLoad(ProceedingJoinPoint proceedingJoinPoint, CacheTarget target, boolean distributedLock, long lockTimeout, long waitTimeout) {
+        String redis_key = target.getRedisKey();
+        Supplier<Flux<Object>> load = () -> Flux.defer(() -> {
+            log.debug("The key[{}] does not exist,method body executed", redis_key);
+            return fluxStreamCache.write((Flux<Object>) proceed(proceedingJoinPoint), Collections.singletonList(target), Mono.empty());
+        });
+        Supplier<Flux<Object>> read = () -> fluxStreamCache.read(target.getCacheName(), redis_key, target.getValueType(), load);
+        return singleFlight.executeMany(redis_key, () -> {
+            if (!distributedLock) {
+                return load.get();
+            }
+            String lockKey = redis_key + LOCK_SUFFIX;
+            String token = redisLock.newToken();
+            return redisLock.tryLock(lockKey, token, lockTimeout).flatMapMany(locked -> {
+                if (locked) {
+                    //获得锁后再检查一次缓存，其它节点可能已经写入
+                    return Flux.usingWhen(Mono.just(token),
+                            t -> read.get(),
+                            t -> redisLock.unlock(lockKey, t),
+                            (t, e) -> redisLock.unlock(lockKey, t),
+                            t -> redisLock.unlock(lockKey, t));
+                }
+                //未获得锁，等待其它节点提交缓存，超时后直接执行方法主体
+                return metrics.lockWait(target.getCacheName(), target.getMethod(), waitForKey(redis_key, waitTimeout)).flatMapMany(exists -> exists ? read.get() : load.get());
+            });
+        }, read);
+    }
+
+    /**
+     * 轮询等待缓存key写入，超时返回false
+     */
+    private Mono<Boolean> waitForKey(String redis_key, long waitTimeout) {
+        if (waitTimeout <= 0) {
+            return Mono.just(false);
+        }
+        log.debug("The key[{}] is locked by other node,waiting for the cache", redis_key);
+        return fluxStreamCache.exists(redis_key)
+                .filter(exists -> exists)
+                .repeatWhenEmpty(companion -> companion.delayElements(LOCK_POLL_INTERVAL))
+                .timeout(Duration.ofMillis(waitTimeout), Mono.just(false));
+    }
+
+    /**
+     * 序列化缓存数据，value为null时为空值标记
+     */
+    private ByteBuffer encode(String cacheName, Object value, JavaType valueType) {
+        return value == null ? ByteBuffer.wrap(NULL_VALUE) : codecResolver.encode(cacheName, value, valueType);
+    }
+
+    /**
+     * 写入缓存，timeout为0或负数表示永不过期
+     */
+    private Mono<Boolean> setValue(String cacheName, String redis_key, ByteBuffer rawValue, long timeout) {
+        if (hashLayout.isEnabled(cacheName)) {
+            return hashLayout.set(cacheName, redis_key, rawValue, timeout);
+        }
+        if (StringUtils.hasText(cacheName) && chunker.isEnabled(cacheName)) {
+            return chunker.write(cacheName, redis_key, rawValue, timeout);
+        }
+        Expiration expiration = timeout > 0 ? Expiration.seconds(timeout) : Expiration.persistent(); // 永不过期
+        return reactiveRedisTemplate.createMono(connection -> connection.stringCommands().set(rawKey(redis_key), rawValue, expiration, RedisStringCommands.SetOption.upsert()));
+    }
+
+    /**
+     * 缓存list
+     */
+    private Mono<Void> cacheFlux(List list, CacheTarget target) {
+        if (fluxStreamCache.isEnabled(target.getCacheName())) {
+            return fluxStreamCache.write(list, target);
+        }
+        if (list.size() == 0) {
+            if (!target.isCacheNull()) {
+                return Mono.empty();
+            }
+            return cache(target, null, target.timeout(true));
+        } else {
+            return cache(target, list, target.getTimeout());
+        }
     }
 
     /**
      * 缓存单个对象
      */
-    private void cacheMono(Object obj, String redis_key, long timeout, boolean cacheNull, long cacheNullTimeout) {
+    private Mono<Void> cacheMono(Object obj, CacheTarget target) {
         if (obj == null) {
-            if (cacheNull) {
-                if (cacheNullTimeout > 0) {
-                    redisTemplate.opsForValue().set(redis_key, obj, cacheNullTimeout, TimeUnit.SECONDS);
-                } else {
-                    if (timeout > 0) {
-                        redisTemplate.opsForValue().set(redis_key, obj, timeout, TimeUnit.SECONDS);
-                    } else {
-                        redisTemplate.opsForValue().set(redis_key, obj); // 永不过期
-                    }
-                }
+            if (!target.isCacheNull()) {
+                return Mono.empty();
             }
+            return cache(target, null, target.timeout(true));
         } else {
-            if (timeout > 0) {
-                redisTemplate.opsForValue().set(redis_key, obj, timeout, TimeUnit.SECONDS);
-            } else {
-                redisTemplate.opsForValue().set(redis_key, obj);
+            return cache(target, obj, target.getTimeout());
+        }
+    }
+
+    /**
+     * 写入缓存，开启异步写入时放入队列后直接返回
+     */
+    private Mono<Void> cache(CacheTarget target, Object value, long timeout) {
+        String cacheName = target.getCacheName();
+        String redis_key = target.getRedisKey();
+        Mono<Void> write = Mono.defer(() -> {
+            long generation = nearCacheManager.generation(cacheName);
+            ByteBuffer rawValue = encode(cacheName, value, target.getValueType());
+            ByteBuffer nearValue = rawValue.duplicate();
+            int weight = rawValue.remaining();
+            if (chunker.isTooLarge(cacheName, weight)) {
+                log.debug("The value of key[{}] is too large to cache,bytes[{}]", redis_key, weight);
+                return Mono.empty();
             }
+            long ttl = ttlPolicy.jitter(cacheName, timeout);
+            //hash存储清除时不需要清除策略
+            Mono<Void> afterWrite = StringUtils.hasText(cacheName) && !hashLayout.isEnabled(cacheName) ? evictStrategyResolver.resolve(cacheName).afterWrite(cacheName, redis_key, ttl) : Mono.empty();
+            metrics.payload(cacheName, target.getMethod(), CacheMetrics.WRITE, weight);
+            return metrics.redis(cacheName, target.getMethod(), CacheMetrics.SET, setValue(cacheName, redis_key, rawValue, ttl))
+                    .doOnSuccess(b -> {
+                        log.debug("The key[{}] has been cached", redis_key);
+                        hotKeyDetector.invalidate(cacheName, redis_key);
+                    })
+                    .then(afterWrite)
+                    //非空值写入后加入布隆过滤器，避免之后的请求被误判为不存在
+                    .then(value == null ? Mono.empty() : bloomFilterManager.add(cacheName, target.getKey()))
+                    .then(nearCacheManager.onWrite(cacheName, redis_key, Optional.ofNullable(value), nearValue, ttl, generation));
+        });
+        if (writeBehind.isEnabled(cacheName)) {
+            return Mono.fromRunnable(() -> writeBehind.enqueue(target, value, write));
         }
-        log.debug("The key[{}] has been cached", redis_key);
+        return write;
     }
 
     /**
-     * 返回对象
+     * 根据返回值类型缓存对象
      */
-    private Object returnObject(Object proceed, String returnTypeName, String redis_key, long timeout, boolean cacheNull, long cacheNullTimeout) {
-        if (returnTypeName.equals("Flux")) {
-            return ((Flux) proceed).collectList().doOnSuccess(list -> cacheFlux((List) list, redis_key, timeout, cacheNull, cacheNullTimeout)).flatMapMany(list -> Flux.fromIterable((List) list));
-        } else if (returnTypeName.equals("Mono")) {
-            return ((Mono) proceed).doOnSuccess(obj -> cacheMono(obj, redis_key, timeout, cacheNull, cacheNullTimeout));
+    private Mono<Void> cacheValue(ReturnKind returnKind, Object obj, CacheTarget target) {
+        if (returnKind == ReturnKind.FLUX) {
+            return cacheFlux((List) obj, target);
         } else {
-            return proceed;
+            return cacheMono(obj, target);
+        }
+    }
+
+    /**
+     * Mono成功完成后(包括空值)执行action，action完成后再发射原来的值
+     */
+    private static Mono<Object> thenOnSuccess(Mono<Object> mono, Function<Object, Mono<Void>> action) {
+        return mono.map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(optional -> action.apply(optional.orElse(null)).then(Mono.justOrEmpty(optional)));
+    }
+
+    /**
+     * Flux成功完成后执行action，action完成后再发射原来的元素
+     */
+    private static Flux<Object> thenOnSuccess(Flux<Object> flux, Function<List<Object>, Mono<Void>> action) {
+        return flux.collectList()
+                .flatMap(list -> action.apply(list).thenReturn(list))
+                .flatMapIterable(list -> list);
+    }
+
+    /**
+     * 方法成功执行后先执行after，再将结果写入puts
+     * Flux没有需要写入的缓存或者全部cacheName都开启了流式缓存时，元素直接发射给下游，不会收集全部元素
+     */
+    private Object thenOnSuccess(ReturnKind returnKind, Object proceed, Mono<Void> after, List<Mono<CacheTarget>> puts) {
+        if (returnKind == ReturnKind.MONO) {
+            return thenOnSuccess((Mono<Object>) proceed, obj -> after.then(Flux.mergeSequential(puts).flatMap(target -> cacheValue(returnKind, obj, target)).then()));
+        }
+        Flux<Object> flux = (Flux<Object>) proceed;
+        if (puts.isEmpty()) {
+            return flux.concatWith(after.then(Mono.empty()));
+        }
+        return Flux.mergeSequential(puts).collectList().flatMapMany(targets -> {
+            if (targets.stream().allMatch(target -> fluxStreamCache.isEnabled(target.getCacheName()))) {
+                return fluxStreamCache.write(flux, targets, after);
+            }
+            //存在未开启流式缓存的cacheName，需要收集全部元素后再写入
+            return thenOnSuccess(flux, list -> after.then(Flux.fromIterable(targets).flatMap(target -> cacheValue(returnKind, list, target)).then()));
+        });
+    }
+
+    /**
+     * 在publisher之前先执行before，方法主体在订阅时才会执行
+     */
+    private Object deferAfter(Mono<Void> before, ReturnKind returnKind, ProceedingJoinPoint proceedingJoinPoint, Function<Object, Object> function) {
+        if (returnKind == ReturnKind.FLUX) {
+            return before.thenMany(Flux.defer(() -> (Flux<Object>) function.apply(proceed(proceedingJoinPoint))));
+        } else {
+            return before.then(Mono.defer(() -> (Mono<Object>) function.apply(proceed(proceedingJoinPoint))));
         }
     }
 
@@ -139,107 +596,138 @@ public class ReactiveRedisCacheAspect {
     public Object cacheableAround(ProceedingJoinPoint proceedingJoinPoint) throws Throwable {
         log.debug("ReactiveRedisCacheAspect cacheableAround....");
 
-        MethodSignature methodSignature = (MethodSignature) proceedingJoinPoint.getSignature();
-        Method method = methodSignature.getMethod();
-        String returnTypeName = method.getReturnType().getSimpleName();
-
+        CacheOperations operations = operationSource.getOperations(proceedingJoinPoint);
+        ReturnKind returnKind = operations.getReturnKind();
+        if (!returnKind.isReactive()) {
+            return proceedingJoinPoint.proceed();
+        }
+        CacheInvocationContext invocation = operationSource.createInvocationContext(operations, proceedingJoinPoint);
 
-        ReactiveRedisCacheable annotation = method.getAnnotation(ReactiveRedisCacheable.class);
-        String cacheName = annotation.cacheName();
-        String key = annotation.key();
-        long timeout = annotation.timeout();
-        boolean cacheNull = annotation.cacheNull();
-        long cacheNullTimeout = annotation.cacheNullTimeout();
+        CacheableOperation annotation = operations.getCacheable();
+        long timeout = annotation.getTimeout();
+        boolean cacheNull = annotation.isCacheNull();
+        long cacheNullTimeout = annotation.getCacheNullTimeout();
+        JavaType valueType = operations.getValueType();
 
         //转换EL表达式
-        cacheName = (String) AspectSupportUtils.getKeyValue(proceedingJoinPoint, cacheName);
-        key = (String) AspectSupportUtils.getKeyValue(proceedingJoinPoint, key);
-
-        String redis_key = redisKey(cacheName, key);
+        String cacheName = invocation.evaluate(annotation.getCacheName());
+        String key = invocation.evaluate(annotation.getKey());
+
+        //布隆过滤器判断key一定不存在时直接返回空，与缓存的空值相同
+        if (!bloomFilterManager.mightContain(cacheName, key)) {
+            log.debug("The key[{}] of cacheName[{}] is rejected by bloom filter", key, cacheName);
+            metrics.rejected(cacheName, operations.getMetricName());
+            return returnKind == ReturnKind.FLUX ? Flux.empty() : Mono.empty();
+        }
 
-        boolean hasKey = redisTemplate.hasKey(redis_key);
-        if (hasKey) {
-            return getObjectByKey(returnTypeName, redis_key);
-        } else {
-            // 加锁：防止缓存击穿
-            synchronized (redis_key.intern()) {
-                hasKey = redisTemplate.hasKey(redis_key);
-                if (hasKey) {
-                    return getObjectByKey(returnTypeName, redis_key);
-                } else {
-                    log.debug("The key[{}] does not exist,method body executed", redis_key);
-                    //实际执行的方法
-                    Object proceed = proceedingJoinPoint.proceed();
-                    return returnObject(proceed, returnTypeName, redis_key, timeout, cacheNull, cacheNullTimeout);
-                }
-            }
+        if (returnKind == ReturnKind.FLUX && fluxStreamCache.isEnabled(cacheName)) {
+            return redisKey(cacheName, key).flatMapMany(redis_key -> {
+                CacheTarget target = new CacheTarget(cacheName, redis_key, key, timeout, cacheNull, cacheNullTimeout, valueType, operations.getMetricName());
+                //流式缓存读取时只能区分是否命中
+                AtomicBoolean missed = new AtomicBoolean();
+                return fluxStreamCache.read(cacheName, redis_key, valueType, () -> {
+                            missed.set(true);
+                            metrics.miss(cacheName, target.getMethod());
+                            return streamLoad(proceedingJoinPoint, target, annotation.isDistributedLock(), annotation.getLockTimeout(), annotation.getWaitTimeout());
+                        })
+                        .doOnComplete(() -> {
+                            if (!missed.get()) {
+                                metrics.hit(cacheName, target.getMethod());
+                            }
+                        });
+            });
         }
 
+        NearCache nearCache = nearCacheManager.getNearCache(cacheName, annotation.isNearCache());
+        long nearCacheTimeout = nearCache != null ? nearCacheManager.nearCacheTimeout(cacheName, timeout) : 0;
+
+        LongPredicate shouldRefresh = shouldRefresh(cacheName, annotation);
+
+        //hash存储不会提前刷新，不需要多保存staleWhileRevalidate的时间
+        long storeTimeout = hashLayout.isEnabled(cacheName) ? annotation.getTimeout() : annotation.getStoreTimeout();
+
+        Mono<Optional<Object>> value = redisKey(cacheName, key).flatMap(redis_key -> {
+            //一次GET即可判断是否命中，未命中时才执行方法主体
+            CacheTarget target = new CacheTarget(cacheName, redis_key, key, storeTimeout, cacheNull, cacheNullTimeout, valueType, operations.getMetricName());
+            Mono<Optional<Object>> body = load(proceedingJoinPoint, returnKind, cacheName, target.getMethod(), redis_key, obj -> cacheValue(returnKind, obj, target));
+            //开启XFetch时记录方法主体的执行时间
+            Mono<Optional<Object>> load = ttlPolicy.isEarlyExpirationEnabled(cacheName) ? ttlPolicy.timed(annotation, body) : body;
+            Runnable refresh = () -> cacheRefresher.refresh(redis_key, refreshLoad(redis_key, load, annotation.isDistributedLock(), annotation.getLockTimeout()));
+            return lookup(target, nearCache, nearCacheTimeout, shouldRefresh, refresh,
+                    () -> guardedLoad(target, load, annotation.isDistributedLock(), annotation.getLockTimeout(), annotation.getWaitTimeout()));
+        });
+        return unwrap(returnKind, value);
     }
 
 
+    /**
+     * 命中缓存时是否后台刷新，剩余过期时间小于refreshThreshold，或开启XFetch时按剩余的有效时间(不含staleWhileRevalidate)概率触发
+     * 都没有开启或使用hash存储时返回null，不查询PTTL
+     */
+    private LongPredicate shouldRefresh(String cacheName, CacheableOperation annotation) {
+        if (hashLayout.isEnabled(cacheName)) {
+            return null;
+        }
+        long refreshThreshold = annotation.getRefreshThreshold();
+        boolean earlyExpiration = annotation.getTimeout() > 0 && ttlPolicy.isEarlyExpirationEnabled(cacheName);
+        if (refreshThreshold <= 0 && !earlyExpiration) {
+            return null;
+        }
+        long staleMillis = annotation.getStaleWhileRevalidate() * 1000;
+        return pttl -> pttl < refreshThreshold
+                || (earlyExpiration && ttlPolicy.shouldRecomputeEarly(cacheName, annotation, pttl - staleMillis));
+    }
+
     @Around("cacheEvictPointCut()")
     public Object cacheEvictAround(ProceedingJoinPoint proceedingJoinPoint) throws Throwable {
         log.debug("ReactiveRedisCacheAspect cacheEvictAround....");
 
-        MethodSignature methodSignature = (MethodSignature) proceedingJoinPoint.getSignature();
-        Method method = methodSignature.getMethod();
-        String returnTypeName = method.getReturnType().getSimpleName();
+        CacheOperations operations = operationSource.getOperations(proceedingJoinPoint);
+        ReturnKind returnKind = operations.getReturnKind();
+        if (!returnKind.isReactive()) {
+            return proceedingJoinPoint.proceed();
+        }
+        CacheInvocationContext invocation = operationSource.createInvocationContext(operations, proceedingJoinPoint);
 
-        ReactiveRedisCacheEvict annotation = method.getAnnotation(ReactiveRedisCacheEvict.class);
-        String cacheName = annotation.cacheName();
-        String key = annotation.key();
-        boolean allEntries = annotation.allEntries();
-        boolean beforeInvocation = annotation.beforeInvocation();
-        String[] keys = annotation.keys();
+        CacheEvictOperation annotation = operations.getCacheEvict();
+        boolean beforeInvocation = annotation.isBeforeInvocation();
 
-        //转换EL表达式
-        cacheName = (String) AspectSupportUtils.getKeyValue(proceedingJoinPoint, cacheName);
-        key = (String) AspectSupportUtils.getKeyValue(proceedingJoinPoint, key);
-        getKeys(keys, proceedingJoinPoint);
+        EvictBatch batch = new EvictBatch(operations.getMetricName());
+        cacheEvict(annotation, invocation, batch);
+        Mono<Void> evict = batch.execute();
 
         //执行方法前清除缓存
         if (beforeInvocation) {
-            if (keys.length > 0) {
-                deleteRedisCache(cacheName, keys);
-            } else {
-                deleteRedisCache(cacheName, key, allEntries);
-            }
-
-            //实际执行的方法
-            log.debug("beforeInvocation=[{}],Method body executed", beforeInvocation);
-            Object proceed = proceedingJoinPoint.proceed();
-            return proceed;
+            return deferAfter(evict, returnKind, proceedingJoinPoint, proceed -> {
+                //实际执行的方法
+                log.debug("beforeInvocation=[{}],Method body executed", beforeInvocation);
+                return proceed;
+            });
         } else {//成功执行方法后清除缓存
+            return deferAfter(Mono.empty(), returnKind, proceedingJoinPoint, proceed -> {
+                log.debug("beforeInvocation=[{}],Method body executed", beforeInvocation);
+                return thenOnSuccess(returnKind, proceed, evict, Collections.emptyList());
+            });
+        }
+    }
 
-            //实际执行的方法
-            Object proceed = proceedingJoinPoint.proceed();
-            log.debug("beforeInvocation=[{}],Method body executed", beforeInvocation);
-            final String cacheNameTemp = cacheName;
-            final String keyTemp = key;
-
-            if (returnTypeName.equals("Flux")) {
-                return ((Flux) proceed).collectList().doOnSuccess(list -> {
-                    //清除全部缓存
-                    if (keys != null && keys.length > 0) {
-                        deleteRedisCache(cacheNameTemp, keys);
-                    } else {
-                        deleteRedisCache(cacheNameTemp, keyTemp, allEntries);
-                    }
-                }).flatMapMany(list -> Flux.fromIterable((List) list));
-            } else if (returnTypeName.equals("Mono")) {
-                return ((Mono) proceed).doOnSuccess(obj -> {
-                    //清除全部缓存
-                    if (keys != null && keys.length > 0) {
-                        deleteRedisCache(cacheNameTemp, keys);
-                    } else {
-                        deleteRedisCache(cacheNameTemp, keyTemp, allEntries);
-                    }
-                });
-            } else {
-                return proceed;
-            }
+    /**
+     * 解析清除缓存注解，需要清除的缓存加入到batch中
+     */
+    private void cacheEvict(CacheEvictOperation cacheEvict, CacheInvocationContext invocation, EvictBatch batch) {
+        boolean allEntries = cacheEvict.isAllEntries();
 
+        //转换EL表达式
+        String cacheName = invocation.evaluate(cacheEvict.getCacheName());
+        String key = invocation.evaluate(cacheEvict.getKey());
+        String[] keys = getKeys(cacheEvict.getKeys(), invocation);
+
+        if (keys.length > 0) {
+            batch.addKeys(cacheName, keys);
+        } else if (allEntries) {
+            batch.addClear(cacheName);
+        } else {
+            batch.addKey(cacheName, key);
         }
     }
 
@@ -248,325 +736,476 @@ public class ReactiveRedisCacheAspect {
     public Object cachePutAround(ProceedingJoinPoint proceedingJoinPoint) throws Throwable {
         log.debug("ReactiveRedisCacheAspect cachePutAround....");
 
-        MethodSignature methodSignature = (MethodSignature) proceedingJoinPoint.getSignature();
-        Method method = methodSignature.getMethod();
-        String returnTypeName = method.getReturnType().getSimpleName();
+        CacheOperations operations = operationSource.getOperations(proceedingJoinPoint);
+        ReturnKind returnKind = operations.getReturnKind();
+        if (!returnKind.isReactive()) {
+            return proceedingJoinPoint.proceed();
+        }
+        CacheInvocationContext invocation = operationSource.createInvocationContext(operations, proceedingJoinPoint);
 
-        ReactiveRedisCachePut annotation = method.getAnnotation(ReactiveRedisCachePut.class);
-        String cacheName = annotation.cacheName();
-        String key = annotation.key();
-        long timeout = annotation.timeout();
-        boolean cacheNull = annotation.cacheNull();
-        long cacheNullTimeout = annotation.cacheNullTimeout();
+        EvictBatch before = new EvictBatch(operations.getMetricName());
+        Mono<CacheTarget> put = cachePut(operations.getCachePut(), invocation, before);
 
-        //转换EL表达式
-        cacheName = (String) AspectSupportUtils.getKeyValue(proceedingJoinPoint, cacheName);
-        key = (String) AspectSupportUtils.getKeyValue(proceedingJoinPoint, key);
+        //先删除旧的缓存，再执行方法
+        return deferAfter(before.execute(), returnKind, proceedingJoinPoint,
+                proceed -> thenOnSuccess(returnKind, proceed, Mono.empty(), Collections.singletonList(put)));
+    }
 
-        String redis_key = redisKey(cacheName, key);
+    /**
+     * 解析更新缓存注解，执行方法前需要删除的旧缓存加入到before中，返回执行方法后写入缓存的目标
+     */
+    private Mono<CacheTarget> cachePut(CachePutOperation cachePut, CacheInvocationContext invocation, EvictBatch before) {
+        long timeout = cachePut.getTimeout();
+        boolean cacheNull = cachePut.isCacheNull();
+        long cacheNullTimeout = cachePut.getCacheNullTimeout();
 
-        boolean hasKey = redisTemplate.hasKey(redis_key);
-        if (hasKey) {
-            deleteRedisCache(redis_key, false);
-        }
+        //转换EL表达式
+        String cacheName = invocation.evaluate(cachePut.getCacheName());
+        String key = invocation.evaluate(cachePut.getKey());
 
-        //实际执行的方法
-        Object proceed = proceedingJoinPoint.proceed();
-        return returnObject(proceed, returnTypeName, redis_key, timeout, cacheNull, cacheNullTimeout);
+        before.addKey(cacheName, key);
+        JavaType valueType = invocation.getOperations().getValueType();
+        String method = invocation.getOperations().getMetricName();
+        return redisKey(cacheName, key).map(redis_key -> new CacheTarget(cacheName, redis_key, key, timeout, cacheNull, cacheNullTimeout, valueType, method));
     }
 
-    private boolean isAllKeyHas(List<String> key_list) {
-        AtomicBoolean isAllKeyHas = new AtomicBoolean(true);
-        key_list.forEach(key -> {
-            if (!redisTemplate.hasKey(key)) {
-                isAllKeyHas.set(false);
-            }
-        });
-        return isAllKeyHas.get();
+    /**
+     * 判断全部key是否都存在
+     * ReactiveKeyCommands没有多个key的EXISTS，多个EXISTS并发发送，共享连接上会以pipeline的方式发送
+     */
+    private Mono<Boolean> isAllKeyHas(List<String> cacheName_list, List<String> key_list) {
+        return Flux.range(0, key_list.size())
+                .flatMap(i -> hashLayout.isEnabled(cacheName_list.get(i)) ? hashLayout.exists(cacheName_list.get(i), key_list.get(i)) : reactiveRedisTemplate.hasKey(key_list.get(i)))
+                .all(hasKey -> (Boolean) hasKey);
     }
 
     /**
-     * 缓存多个key
+     * 一次MGET读取全部key，全部命中时返回第一个key的缓存数据，有未命中的key时返回的Mono为空
+     * MGET无法区分不存在的key和旧版本缓存的空字节，这种情况按未命中处理，重新执行方法主体后写入新的空值标记
      */
-    private Object cacheables(ReactiveRedisCacheable[] cacheables, String returnTypeName, ProceedingJoinPoint proceedingJoinPoint) throws Throwable {
-        Map<String, Long> key_map = new HashMap<>();
-        Map<String, Boolean> key_cache_null_map = new HashMap<>();
-        Map<String, Long> key_cache_null_timeout_map = new HashMap<>();
-        List<String> key_list = new ArrayList<>();
-        Arrays.stream(cacheables).forEach(cacheable -> {
-            String cacheName = cacheable.cacheName();
-            String key = cacheable.key();
-            long timeout = cacheable.timeout();
-            boolean cacheNull = cacheable.cacheNull();
-            long cacheNullTimeout = cacheable.cacheNullTimeout();
-
-            //转换EL表达式
-            cacheName = (String) AspectSupportUtils.getKeyValue(proceedingJoinPoint, cacheName);
-            key = (String) AspectSupportUtils.getKeyValue(proceedingJoinPoint, key);
-
-            String redisKey = redisKey(cacheName, key);
-
-            key_map.put(redisKey, timeout);
-            key_cache_null_map.put(redisKey, cacheNull);
-            key_cache_null_timeout_map.put(redisKey, cacheNullTimeout);
-            key_list.add(redisKey);
-        });
+    private Mono<Optional<Object>> multiGetValue(List<String> cacheName_list, List<String> key_list, JavaType valueType) {
+        return multiGetRaw(cacheName_list, key_list).filter(list -> list.stream().allMatch(ReactiveRedisCacheAspect::isPresent))
+                .map(list -> decode(list.get(0), valueType));
+    }
 
 
-        //全部key都有值，则直接返回缓存
-        String redisKey = key_list.get(0);
-        if (isAllKeyHas(key_list)) {
-            return getObjectByKey(returnTypeName, redisKey);
-        } else {
-            // 加锁：防止缓存击穿
-            String redis_key_all = redisKey + "_all";
-            synchronized (redis_key_all.intern()) {
-                if (isAllKeyHas(key_list)) {
-                    return getObjectByKey(returnTypeName, redisKey);
-                }
-                //实际执行的方法
-                Object proceed = proceedingJoinPoint.proceed();
-                log.debug("The key[{}] does not exist,method body executed", key_list.get(0));
-
-                if (returnTypeName.equals("Flux")) {
-                    return ((Flux) proceed).collectList()
-                            .doOnSuccess(list -> key_map.forEach((key, val) -> cacheFlux((List) list, key, val, key_cache_null_map.get(key), key_cache_null_timeout_map.get(key))))
-                            .flatMapMany(list -> Flux.fromIterable((List) list));
-                } else if (returnTypeName.equals("Mono")) {
-                    return ((Mono) proceed)
-                            .doOnSuccess(obj -> key_map.forEach((key, val) -> cacheMono(obj, key, val, key_cache_null_map.get(key), key_cache_null_timeout_map.get(key))));
-                } else {
-                    return proceed;
-                }
-            }
+    /**
+     * MGET读取到块的清单时，并发读取这些key的全部块，有块不存在的key为空的ByteBuffer
+     */
+    private Mono<List<ByteBuffer>> readChunks(List<String> cacheName_list, List<String> key_list, List<ByteBuffer> values) {
+        if (values.stream().noneMatch(chunker::isManifest)) {
+            return Mono.just(values);
         }
+        List<ByteBuffer> resolved = new ArrayList<>(values);
+        return Flux.range(0, values.size())
+                .filter(i -> chunker.isManifest(values.get(i)))
+                .flatMap(i -> chunker.read(cacheName_list.get(i), key_list.get(i), values.get(i))
+                        .defaultIfEmpty(ByteBuffer.allocate(0))
+                        .doOnNext(byteBuffer -> resolved.set(i, byteBuffer)))
+                .then(Mono.just(resolved));
     }
 
     /**
-     * 缓存清除
+     * 读取多个cacheName的key，没有cacheName使用hash存储时一次MGET读取，否则逐个读取
+     * 不存在的key为null或空的ByteBuffer，见isPresent
      */
-    private void cacheEvicts(ReactiveRedisCacheEvict[] cacheEvicts, Map<String, Boolean> map, ProceedingJoinPoint proceedingJoinPoint, List<Pair<String, String[]>> list) {
-        Arrays.stream(cacheEvicts).forEach(cacheEvict -> {
-            String cacheName = cacheEvict.cacheName();
-            String key = cacheEvict.key();
-            boolean allEntries = cacheEvict.allEntries();
-            boolean beforeInvocation = cacheEvict.beforeInvocation();
-            String[] keys = cacheEvict.keys();
+    private Mono<List<ByteBuffer>> multiGetRaw(List<String> cacheName_list, List<String> key_list) {
+        if (cacheName_list.stream().noneMatch(hashLayout::isEnabled)) {
+            List<ByteBuffer> rawKeys = new ArrayList<>(key_list.size());
+            key_list.forEach(key -> rawKeys.add(rawKey(key)));
+            return clusterSupport.mGet(rawKeys).flatMap(values -> readChunks(cacheName_list, key_list, values));
+        }
+        return Flux.range(0, key_list.size())
+                .flatMapSequential(i -> getRaw(cacheName_list.get(i), key_list.get(i)).defaultIfEmpty(ByteBuffer.allocate(0)))
+                .collectList();
+    }
 
+    private static boolean isPresent(ByteBuffer value) {
+        return value != null && value.hasRemaining();
+    }
+
+    /**
+     * 缓存多个key
+     */
+    private Object cacheables(List<CacheableOperation> cacheables, CacheInvocationContext invocation, ProceedingJoinPoint proceedingJoinPoint) {
+        ReturnKind returnKind = invocation.getOperations().getReturnKind();
+        JavaType valueType = invocation.getOperations().getValueType();
+        String method = invocation.getOperations().getMetricName();
+        List<String> cacheName_list = new ArrayList<>();
+        List<String> raw_key_list = new ArrayList<>();
+        List<Mono<String>> key_list = new ArrayList<>();
+        cacheables.forEach(cacheable -> {
             //转换EL表达式
-            cacheName = (String) AspectSupportUtils.getKeyValue(proceedingJoinPoint, cacheName);
-            key = (String) AspectSupportUtils.getKeyValue(proceedingJoinPoint, key);
-            getKeys(keys, proceedingJoinPoint);
-
-            if (beforeInvocation) { //执行方法前清除缓存
-                //清除全部缓存
-                if (keys.length > 0) {
-                    deleteRedisCache(cacheName, keys);
-                } else {
-                    deleteRedisCache(cacheName, key, allEntries);
-                }
-            } else { //成功执行方法后清除缓存，先保存到map中
-                if (keys.length > 0) {
-                    list.add(Pair.of(cacheName, keys));
-                } else {
-                    //清除全部缓存
-                    if (allEntries) {
-                        map.put(cacheName, true);
-                    } else {
-                        map.put(redisKey(cacheName, key), false);
+            String cacheName = invocation.evaluate(cacheable.getCacheName());
+            String key = invocation.evaluate(cacheable.getKey());
+            cacheName_list.add(cacheName);
+            raw_key_list.add(key);
+            key_list.add(redisKey(cacheName, key));
+        });
+
+        //第一个cacheName开启了流式缓存时，从list中分页读取
+        boolean stream = returnKind == ReturnKind.FLUX && fluxStreamCache.isEnabled(cacheName_list.get(0));
+        Flux<Object> value = Flux.mergeSequential(key_list).collectList().flatMapMany(redis_keys -> {
+            String redisKey = redis_keys.get(0);
+            //多个key并发写入，共享连接上的命令会以pipeline的方式发送
+            Mono<Optional<Object>> load = load(proceedingJoinPoint, returnKind, cacheName_list.get(0), method, redisKey, obj -> Flux.range(0, cacheables.size())
+                    .flatMap(i -> cacheValue(returnKind, obj, new CacheTarget(cacheName_list.get(i), redis_keys.get(i), raw_key_list.get(i), cacheables.get(i).getTimeout(), cacheables.get(i).isCacheNull(), cacheables.get(i).getCacheNullTimeout(), valueType, method)))
+                    .then());
+            // 防止缓存击穿，命中和未命中按第一个cacheName记录
+            Supplier<Mono<Optional<Object>>> miss = () -> {
+                metrics.miss(cacheName_list.get(0), method);
+                return singleFlight.execute(redisKey + "_all", () -> load);
+            };
+            //全部key都有值，则直接返回缓存
+            if (stream) {
+                Supplier<Flux<Object>> streamMiss = () -> Flux.from((Publisher<Object>) unwrap(returnKind, miss.get()));
+                return isAllKeyHas(cacheName_list, redis_keys).flatMapMany(has -> {
+                    if (!has) {
+                        return streamMiss.get();
                     }
-                }
+                    metrics.hit(cacheName_list.get(0), method);
+                    return fluxStreamCache.read(cacheName_list.get(0), redisKey, valueType, streamMiss);
+                });
             }
+            Mono<Optional<Object>> hit = metrics.redis(cacheName_list.get(0), method, CacheMetrics.GET, multiGetValue(cacheName_list, redis_keys, valueType))
+                    .doOnNext(o -> recordGet(cacheName_list.get(0), method, o));
+            return (Publisher<Object>) unwrap(returnKind, hit.switchIfEmpty(Mono.defer(miss)));
         });
+        return returnKind == ReturnKind.FLUX ? value : value.next();
     }
 
-    private Object cachePuts(ReactiveRedisCachePut[] cachePuts, String returnTypeName, Object proceed, Map<String, Boolean> map, ProceedingJoinPoint proceedingJoinPoint, List<Pair<String, String[]>> listKeys) {
-        Map<String, Long> key_map = new HashMap<>();
-        Map<String, Boolean> key_cache_null_map = new HashMap<>();
-        Map<String, Long> key_cache_null_timeout_map = new HashMap<>();
-        Arrays.stream(cachePuts).forEach(cachePut -> {
-            String cacheName = cachePut.cacheName();
-            String key = cachePut.key();
-            long timeout = cachePut.timeout();
-            boolean cacheNull = cachePut.cacheNull();
-            long cacheNullTimeout = cachePut.cacheNullTimeout();
-
-            //转换EL表达式
-            cacheName = (String) AspectSupportUtils.getKeyValue(proceedingJoinPoint, cacheName);
-            key = (String) AspectSupportUtils.getKeyValue(proceedingJoinPoint, key);
-
-            String redisKey = redisKey(cacheName, key);
-
-            key_map.put(redisKey, timeout);
-            key_cache_null_map.put(redisKey, cacheNull);
-            key_cache_null_timeout_map.put(redisKey, cacheNullTimeout);
-
-            boolean hasKey = redisTemplate.hasKey(redisKey);
-            if (hasKey) {
-                deleteRedisCache(redisKey, false);
+    /**
+     * 缓存清除
+     * 执行方法前需要清除的缓存加入到before中，执行方法后需要清除的缓存加入到after中
+     */
+    private void cacheEvicts(List<CacheEvictOperation> cacheEvicts, CacheInvocationContext invocation, EvictBatch before, EvictBatch after) {
+        cacheEvicts.forEach(cacheEvict -> {
+            if (cacheEvict.isBeforeInvocation()) { //执行方法前清除缓存
+                cacheEvict(cacheEvict, invocation, before);
+            } else { //成功执行方法后清除缓存
+                cacheEvict(cacheEvict, invocation, after);
             }
         });
-
-        if (returnTypeName.equals("Flux")) {
-            return ((Flux) proceed).collectList()
-                    .doOnSuccess(list -> {
-                        //执行方法后清除缓存
-                        if (listKeys.size() > 0) {
-                            for (Pair<String, String[]> pair : listKeys) {
-                                deleteRedisCache(pair.getLeft(), pair.getRight());
-                            }
-                        } else {
-                            if (map.size() > 0) {
-                                map.forEach((key, val) -> deleteRedisCache(key, val));
-                            }
-                        }
-                        key_map.forEach((key, val) -> cacheFlux((List) list, key, val, key_cache_null_map.get(key), key_cache_null_timeout_map.get(key)));
-                    })
-                    .flatMapMany(list -> Flux.fromIterable((List) list));
-        } else if (returnTypeName.equals("Mono")) {
-            return ((Mono) proceed)
-                    .doOnSuccess(obj -> {
-                        //执行方法后清除缓存
-                        if (listKeys.size() > 0) {
-                            for (Pair<String, String[]> pair : listKeys) {
-                                deleteRedisCache(pair.getLeft(), pair.getRight());
-                            }
-                        } else {
-                            if (map.size() > 0) {
-                                map.forEach((key, val) -> deleteRedisCache(key, val));
-                            }
-                        }
-                        key_map.forEach((key, val) -> cacheMono(obj, key, val, key_cache_null_map.get(key), key_cache_null_timeout_map.get(key)));
-                    });
-        } else {
-            return proceed;
-        }
     }
 
     @Around("cachingPointCut()")
     public Object cachingAround(ProceedingJoinPoint proceedingJoinPoint) throws Throwable {
         log.debug("ReactiveRedisCacheAspect cachingAround....");
 
-        MethodSignature methodSignature = (MethodSignature) proceedingJoinPoint.getSignature();
-        Method method = methodSignature.getMethod();
-        String returnTypeName = method.getReturnType().getSimpleName();
-
-        ReactiveRedisCaching annotation = method.getAnnotation(ReactiveRedisCaching.class);
+        CacheOperations operations = operationSource.getOperations(proceedingJoinPoint);
+        ReturnKind returnKind = operations.getReturnKind();
+        if (!returnKind.isReactive()) {
+            return proceedingJoinPoint.proceed();
+        }
+        CacheInvocationContext invocation = operationSource.createInvocationContext(operations, proceedingJoinPoint);
 
-        ReactiveRedisCacheEvict[] cacheEvicts = annotation.evict();
-        ReactiveRedisCachePut[] cachePuts = annotation.put();
-        ReactiveRedisCacheable[] cacheables = annotation.cacheable();
+        List<CacheEvictOperation> cacheEvicts = operations.getCachingEvicts();
+        List<CachePutOperation> cachePuts = operations.getCachingPuts();
+        List<CacheableOperation> cacheables = operations.getCachingCacheables();
 
         //规则：
         //1.cacheables不能与cacheEvicts或者cachePuts同时存在，因为后者一定会执行方法主体，达不到调用缓存的目的，所以当cacheables存在时，后者即便指定也不执行
         //2.先执行cacheEvicts，再执行cachePuts
 
-        if (cacheables.length > 0) {
-            return cacheables(cacheables, returnTypeName, proceedingJoinPoint);
+        if (!cacheables.isEmpty()) {
+            return cacheables(cacheables, invocation, proceedingJoinPoint);
         } else {
-            Map<String, Boolean> map = new HashMap<>();
-            List<Pair<String, String[]>> listKeys = new ArrayList<>();
-            if (cacheEvicts.length > 0) {
-                cacheEvicts(cacheEvicts, map, proceedingJoinPoint, listKeys);
-            }
+            //执行方法前和执行方法后需要清除的key分别合并为一次UNLINK
+            EvictBatch after = new EvictBatch(operations.getMetricName());
+            EvictBatch before = new EvictBatch(operations.getMetricName());
+            cacheEvicts(cacheEvicts, invocation, before, after);
+
+            List<Mono<CacheTarget>> putList = new ArrayList<>();
+            cachePuts.forEach(cachePut -> putList.add(cachePut(cachePut, invocation, before)));
+
+            return deferAfter(before.execute(), returnKind, proceedingJoinPoint, proceed -> {
+                log.debug("Method body executed");
+                //执行方法后清除缓存，再写入缓存
+                return thenOnSuccess(returnKind, proceed, after.execute(), putList);
+            });
+        }
+    }
 
-            //实际执行的方法
-            Object proceed = proceedingJoinPoint.proceed();
-            log.debug("Method body executed");
+    @Around("cacheableBatchPointCut()")
+    public Object cacheableBatchAround(ProceedingJoinPoint proceedingJoinPoint) throws Throwable {
+        log.debug("ReactiveRedisCacheAspect cacheableBatchAround....");
 
-            if (cachePuts.length > 0) {
-                return cachePuts(cachePuts, returnTypeName, proceed, map, proceedingJoinPoint, listKeys);
-            } else {
-                if (returnTypeName.equals("Flux")) {
-                    return ((Flux) proceed).collectList().doOnSuccess(list -> {
-                        //执行方法后清除缓存
-                        if (listKeys.size() > 0) {
-                            for (Pair<String, String[]> pair : listKeys) {
-                                deleteRedisCache(pair.getLeft(), pair.getRight());
-                            }
-                        } else {
-                            if (map.size() > 0) {
-                                map.forEach((key, val) -> deleteRedisCache(key, val));
-                            }
-                        }
-                    }).flatMapMany(list -> Flux.fromIterable((List) list));
-                } else if (returnTypeName.equals("Mono")) {
-                    return ((Mono) proceed).doOnSuccess(obj -> {
-                        //执行方法后清除缓存
-                        if (listKeys.size() > 0) {
-                            for (Pair<String, String[]> pair : listKeys) {
-                                deleteRedisCache(pair.getLeft(), pair.getRight());
-                            }
-                        } else {
-                            if (map.size() > 0) {
-                                map.forEach((key, val) -> deleteRedisCache(key, val));
-                            }
-                        }
-                    });
+        CacheOperations operations = operationSource.getOperations(proceedingJoinPoint);
+        if (operations.getReturnKind() != ReturnKind.FLUX) {
+            log.warn("ReactiveRedisCacheableBatch requires Flux return type,cache ignored: {}", operations.getTargetMethod());
+            return proceedingJoinPoint.proceed();
+        }
+        CacheInvocationContext invocation = operationSource.createInvocationContext(operations, proceedingJoinPoint);
+        CacheableBatchOperation annotation = operations.getCacheableBatch();
+
+        Collection<?> ids = (Collection<?>) proceedingJoinPoint.getArgs()[annotation.getIdsIndex()];
+        if (ids == null || ids.isEmpty()) {
+            return Flux.defer(() -> (Flux<Object>) proceed(proceedingJoinPoint));
+        }
+
+        //转换EL表达式，key相同的元素只查询一次，保持集合参数的顺序
+        String cacheName = invocation.evaluate(annotation.getCacheName());
+        Map<String, Object> idByKey = new LinkedHashMap<>();
+        for (Object id : ids) {
+            idByKey.putIfAbsent(invocation.evaluate(annotation.getKey(), CacheableBatchOperation.ID_VARIABLE, id), id);
+        }
+        List<String> keys = new ArrayList<>(idByKey.keySet());
+        JavaType elementType = operations.getValueType().getContentType();
+        String method = operations.getMetricName();
+
+        return redisKeys(cacheName, keys).flatMapMany(redis_keys -> metrics.redis(cacheName, method, CacheMetrics.GET,
+                hashLayout.isEnabled(cacheName) ? hashLayout.multiGet(cacheName, redis_keys) : multiGetRaw(Collections.nCopies(redis_keys.size(), cacheName), redis_keys)).flatMapMany(values -> {
+            Map<String, Optional<Object>> hits = new HashMap<>();
+            List<Integer> missing = new ArrayList<>();
+            for (int i = 0; i < keys.size(); i++) {
+                if (isPresent(values.get(i))) {
+                    metrics.payload(cacheName, method, CacheMetrics.READ, values.get(i).remaining());
+                    Optional<Object> value = decode(values.get(i), elementType);
+                    recordGet(cacheName, method, value);
+                    hits.put(keys.get(i), value);
                 } else {
-                    return proceed;
+                    metrics.miss(cacheName, method);
+                    missing.add(i);
                 }
             }
-        }
+            log.debug("ReactiveRedisCacheableBatch cacheName[{}] hits[{}] misses[{}]", cacheName, hits.size(), missing.size());
+            if (missing.isEmpty()) {
+                return Flux.fromIterable(batchResult(keys, hits));
+            }
+            return metrics.load(cacheName, method, loadBatch(proceedingJoinPoint, invocation, annotation, idByKey, keys, missing)).flatMapMany(loaded -> {
+                missing.forEach(i -> hits.put(keys.get(i), loaded.getOrDefault(keys.get(i), Optional.empty())));
+                //未命中的key并发写入，共享连接上的SET以pipeline的方式发送
+                return Flux.fromIterable(missing)
+                        .flatMap(i -> cacheMono(hits.get(keys.get(i)).orElse(null),
+                                new CacheTarget(cacheName, redis_keys.get(i), keys.get(i), annotation.getTimeout(), annotation.isCacheNull(), annotation.getCacheNullTimeout(), elementType, method)))
+                        .thenMany(Flux.fromIterable(batchResult(keys, hits)));
+            });
+        }));
     }
 
-    private void deleteRedisCache(String key, boolean clearAll) {
-        if (clearAll) {
-            Set keys = redisTemplate.keys(key + ":*");
-            if (!keys.isEmpty()) {
-                log.debug("The key[{}:*] has been cleared", key);
-                redisTemplate.delete(keys);
-            } else {
-                log.debug("The key[{}:*] does not exist", key);
-            }
-        } else {
-            if (redisTemplate.hasKey(key)) {
-                log.debug("The key[{}] has been cleared", key);
-                redisTemplate.delete(key);
-            } else {
-                log.debug("The key[{}] does not exist", key);
-            }
+    /**
+     * 使用只包含未命中元素的集合执行方法，返回key与结果的对应关系，结果中没有的key为空值
+     */
+    private Mono<Map<String, Optional<Object>>> loadBatch(ProceedingJoinPoint proceedingJoinPoint, CacheInvocationContext invocation, CacheableBatchOperation annotation,
+                                                         Map<String, Object> idByKey, List<String> keys, List<Integer> missing) {
+        Collection<Object> missingIds = annotation.newIds(missing.size());
+        //resultId计算的结果为字符串，通过集合元素的字符串形式对应到key
+        Map<String, String> keyById = new HashMap<>();
+        for (Integer i : missing) {
+            Object id = idByKey.get(keys.get(i));
+            missingIds.add(id);
+            keyById.put(DefaultConversionService.getSharedInstance().convert(id, String.class), keys.get(i));
         }
+        Object[] args = proceedingJoinPoint.getArgs().clone();
+        args[annotation.getIdsIndex()] = missingIds;
+        return Flux.defer(() -> (Flux<Object>) proceed(proceedingJoinPoint, args))
+                .collect(HashMap<String, Optional<Object>>::new, (map, result) -> {
+                    String key = keyById.get(invocation.evaluate(annotation.getResultId(), CacheableBatchOperation.RESULT_VARIABLE, result));
+                    if (key == null) {
+                        log.debug("ReactiveRedisCacheableBatch result[{}] does not match any id,ignored", result);
+                    } else {
+                        map.putIfAbsent(key, Optional.ofNullable(result));
+                    }
+                })
+                .map(map -> (Map<String, Optional<Object>>) map);
     }
 
-    private void deleteRedisCache(String cacheName, String key, boolean clearAll) {
-        String redisKey;
-        if (clearAll) {
-            redisKey = cacheName;
-        } else {
-            redisKey = redisKey(cacheName, key);
+    /**
+     * 按集合参数的顺序返回结果，缓存的空值不返回
+     */
+    private static List<Object> batchResult(List<String> keys, Map<String, Optional<Object>> values) {
+        List<Object> result = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            Optional<Object> value = values.get(key);
+            if (value != null && value.isPresent()) {
+                result.add(value.get());
+            }
         }
-        deleteRedisCache(redisKey, clearAll);
+        return result;
     }
 
-    private void deleteRedisCache(String cacheName, String[] keys) {
-        try {
-            for (String k : keys) {
-                String redisKey = redisKey(cacheName, k);
-                final Set<String> ks = redisTemplate.keys(redisKey);
-                for (String keyName : ks) {
-                    redisTemplate.delete(keyName);
+    /**
+     * 一次UNLINK删除多个key，keys中为(cacheName, redis_key)
+     * 开启合并清除时与窗口内其它请求的key合并为一次UNLINK，使用hash存储的cacheName按hash分组HDEL
+     */
+    private Mono<Void> deleteKeys(String method, List<Tuple2<String, String>> keys) {
+        if (keys.isEmpty()) {
+            return Mono.empty();
+        }
+        List<String> redis_keys = keys.stream().map(Tuple2::getT2).distinct().collect(Collectors.toList());
+        //正在异步写入的key需要等待写入完成后再删除，否则删除后又会写入旧值
+        Mono<Void> cancel = Mono.when(redis_keys.stream().map(writeBehind::cancel).collect(Collectors.toList()));
+        //多个cacheName的key合并为一次UNLINK，时间指标的cacheName为全部cacheName
+        Map<String, Long> counts = keys.stream().collect(Collectors.groupingBy(Tuple2::getT1, LinkedHashMap::new, Collectors.counting()));
+        List<String> unlink_keys = new ArrayList<>();
+        List<String> chunked_keys = new ArrayList<>();
+        Map<String, Set<String>> hash_keys = new LinkedHashMap<>();
+        Map<String, List<String>> stream_keys = new LinkedHashMap<>();
+        Set<String> deleted = new HashSet<>();
+        keys.forEach(key -> {
+            if (hashLayout.isEnabled(key.getT1())) {
+                hash_keys.computeIfAbsent(key.getT1(), k -> new LinkedHashSet<>()).add(key.getT2());
+            } else if (deleted.add(key.getT2())) {
+                //流式缓存的key不合并UNLINK，旧版本保留一段时间，正在读取的请求可以读完
+                if (StringUtils.hasText(key.getT1()) && fluxStreamCache.isEnabled(key.getT1())) {
+                    stream_keys.computeIfAbsent(key.getT1(), k -> new ArrayList<>()).add(key.getT2());
+                } else {
+                    unlink_keys.add(key.getT2());
+                }
+                if (StringUtils.hasText(key.getT1()) && chunker.isEnabled(key.getT1())) {
+                    chunked_keys.add(key.getT2());
                 }
             }
-        } catch (Exception e) {
-            log.error("批量清除缓存失败！", e);
+        });
+        //分块存储的key先根据清单删除块，再删除清单
+        Mono<Void> delete = Mono.when(chunker.deleteChunks(chunked_keys).then(Mono.when(unlink_keys.isEmpty() ? Mono.empty() : evictCoalescer.unlink(unlink_keys),
+                        Flux.fromIterable(stream_keys.entrySet()).flatMap(entry -> fluxStreamCache.delete(entry.getKey(), entry.getValue())))),
+                Flux.fromIterable(hash_keys.entrySet()).flatMap(entry -> hashLayout.delete(entry.getKey(), entry.getValue())));
+        Mono<Void> unlink = metrics.redis(String.join(",", counts.keySet()), method, CacheMetrics.DELETE, delete);
+        return cancel.then(unlink)
+                .doOnSuccess(v -> {
+                    log.debug("The keys{} have been cleared", redis_keys);
+                    counts.forEach((cacheName, n) -> metrics.evict(cacheName, method, false, n));
+                    keys.forEach(key -> hotKeyDetector.invalidate(key.getT1(), key.getT2()));
+                })
+                .thenMany(Flux.fromIterable(keys).concatMap(key -> nearCacheManager.onEvict(key.getT1(), key.getT2())))
+                .then();
+    }
+
+    private Mono<Void> clearRedisCache(String cacheName, String method) {
+        if (!StringUtils.hasText(cacheName)) {
+            log.warn("allEntries=true requires cacheName,nothing cleared");
+            return Mono.empty();
         }
+        Mono<Void> cancel = writeBehind.cancelAll(cacheName);
+        Mono<Void> clear = evictCoalescer.clear(cacheName, () -> (hashLayout.isEnabled(cacheName)
+                ? hashLayout.clear(cacheName) : evictStrategyResolver.resolve(cacheName).clear(cacheName)).then());
+        return cancel.then(metrics.redis(cacheName, method, CacheMetrics.DELETE, clear))
+                .doOnSuccess(v -> {
+                    metrics.evict(cacheName, method, true, 1);
+                    hotKeyDetector.invalidateAll(cacheName);
+                })
+                .then(nearCacheManager.onClear(cacheName));
+    }
+
+    private Mono<Void> clearRedisCache(String cacheName, String method, String pattern) {
+        //等待写入的key不按通配符匹配，全部删除
+        Mono<Void> cancel = writeBehind.cancelAll(cacheName);
+        Mono<Void> clear = evictCoalescer.clear(Arrays.asList(cacheName, pattern), () -> (hashLayout.isEnabled(cacheName)
+                ? hashLayout.clear(cacheName, pattern) : evictStrategyResolver.resolve(cacheName).clear(cacheName, pattern)).then());
+        return cancel.then(metrics.redis(cacheName, method, CacheMetrics.DELETE, clear))
+                .doOnSuccess(v -> {
+                    metrics.evict(cacheName, method, true, 1);
+                    hotKeyDetector.invalidateAll(cacheName);
+                })
+                .then(nearCacheManager.onClear(cacheName));
     }
 
-    private void getKeys(String[] keys, ProceedingJoinPoint proceedingJoinPoint) {
+    /**
+     * 是否包含通配符
+     */
+    private static boolean isPattern(String key) {
+        return key.indexOf('*') >= 0 || key.indexOf('?') >= 0 || key.indexOf('[') >= 0 || key.indexOf('\\') >= 0;
+    }
+
+    private String[] getKeys(List<CacheExpression> expressions, CacheInvocationContext invocation) {
+        String[] keys = new String[expressions.size()];
         for (int i = 0; i < keys.length; i++) {
-            keys[i] = (String) AspectSupportUtils.getKeyValue(proceedingJoinPoint, keys[i]);
+            keys[i] = invocation.evaluate(expressions.get(i));
         }
+        return keys;
     }
 
     /**
-     * 拼接缓存key
+     * 拼接多个缓存key，cacheName的前缀只获取一次
      */
-    private String redisKey(String cacheName, String key) {
+    private Mono<List<String>> redisKeys(String cacheName, List<String> keys) {
         if (!StringUtils.hasText(cacheName)) {
-            return key;
+            return Mono.just(keys);
+        }
+        if (hashLayout.isEnabled(cacheName)) {
+            List<String> redis_keys = new ArrayList<>(keys.size());
+            keys.forEach(key -> redis_keys.add(cacheName + ":" + key));
+            return Mono.just(redis_keys);
         }
-        return cacheName + ":" + key;
+        return evictStrategyResolver.resolve(cacheName).namespace(cacheName).map(namespace -> {
+            List<String> redis_keys = new ArrayList<>(keys.size());
+            keys.forEach(key -> redis_keys.add(namespace + ":" + key));
+            return redis_keys;
+        });
     }
 
+    /**
+     * 拼接缓存key，cacheName的前缀由清除策略决定，hash存储时前缀固定为cacheName
+     */
+    private Mono<String> redisKey(String cacheName, String key) {
+        if (!StringUtils.hasText(cacheName)) {
+            return Mono.just(key);
+        }
+        if (hashLayout.isEnabled(cacheName)) {
+            return Mono.just(cacheName + ":" + key);
+        }
+        return evictStrategyResolver.resolve(cacheName).namespace(cacheName).map(namespace -> namespace + ":" + key);
+    }
+
+    /**
+     * 同一时机需要清除的缓存
+     * 确定的key合并为一次UNLINK，allEntries和模糊匹配按清除策略执行
+     */
+    private class EvictBatch {
+
+        private final List<Mono<Tuple2<String, String>>> keys = new ArrayList<>();
+
+        private final List<Mono<Void>> clears = new ArrayList<>();
+
+        /**
+         * 指标中的方法名称
+         */
+        private final String method;
+
+        /**
+         * 与原来的keys属性一致，批量清除失败时只记录日志
+         */
+        private boolean ignoreError;
+
+        EvictBatch(String method) {
+            this.method = method;
+        }
+
+        void addKey(String cacheName, String key) {
+            keys.add(redisKey(cacheName, key).map(redis_key -> Tuples.of(cacheName, redis_key)));
+        }
+
+        void addKeys(String cacheName, String[] keyArray) {
+            ignoreError = true;
+            for (String key : keyArray) {
+                if (isPattern(key)) {
+                    clears.add(Mono.defer(() -> clearRedisCache(cacheName, method, key)).onErrorResume(e -> {
+                        log.error("批量清除缓存失败！", e);
+                        return Mono.empty();
+                    }));
+                } else {
+                    addKey(cacheName, key);
+                }
+            }
+        }
+
+        void addClear(String cacheName) {
+            clears.add(Mono.defer(() -> clearRedisCache(cacheName, method)));
+        }
+
+        Mono<Void> execute() {
+            if (keys.isEmpty() && clears.isEmpty()) {
+                return Mono.empty();
+            }
+            Mono<Void> delete = Flux.mergeSequential(keys).collectList().flatMap(list -> deleteKeys(method, list));
+            if (ignoreError) {
+                delete = delete.onErrorResume(e -> {
+                    log.error("批量清除缓存失败！", e);
+                    return Mono.empty();
+                });
+            }
+            return delete.then(Flux.concat(clears).then());
+        }
+    }
 }
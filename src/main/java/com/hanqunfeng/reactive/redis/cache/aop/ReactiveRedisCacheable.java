@@ -41,4 +41,51 @@ public @interface ReactiveRedisCacheable {
      *
     */
     long cacheNullTimeout() default 600L;
+
+    /**
+     * 是否使用redis分布式锁防止缓存击穿，默认 false
+     * 同一个jvm内相同key的并发请求始终会被合并，只有一个请求会执行方法主体
+     * 开启后多个节点之间也只有获得锁的节点会执行方法主体，其它节点等待缓存写入
+     */
+    boolean distributedLock() default false;
+
+    /**
+     * 分布式锁的过期时间，单位毫秒，默认10秒，应大于方法主体的执行时间
+     * distributedLock为true时有效
+     */
+    long lockTimeout() default 10000L;
+
+    /**
+     * 未获得分布式锁时等待缓存写入的最长时间，单位毫秒，默认3秒，超时后直接执行方法主体
+     * distributedLock为true时有效
+     */
+    long waitTimeout() default 3000L;
+
+    /**
+     * 是否开启本地缓存(一级缓存)，默认 false，也可以通过reactive.redis.cache.caches.[cacheName].near-cache.enabled开启
+     * 开启后命中本地缓存时不再访问redis，其它节点写入或清除缓存时会通过redis频道通知本节点删除本地缓存
+     * 本地缓存的数量、淘汰策略和过期时间通过reactive.redis.cache.near-cache配置，过期时间不会超过timeout
+     */
+    boolean nearCache() default false;
+
+    /**
+     * 提前刷新的比例，取值0~1，默认0不开启，timeout为0或负数时无效
+     * 命中缓存时剩余的过期时间小于timeout*refreshAhead，直接返回缓存值，同时在后台重新执行方法主体刷新缓存
+     * 缓存的空值不会提前刷新
+     */
+    double refreshAhead() default 0;
+
+    /**
+     * 缓存过期后仍然可以返回旧值的时间，单位秒，默认0不开启，timeout为0或负数时无效
+     * 开启后redis中缓存的过期时间为timeout+staleWhileRevalidate，超过timeout后命中时直接返回旧值，同时在后台重新执行方法主体刷新缓存
+     * 后台刷新在同一个jvm内相同key只会执行一次，开启distributedLock时多个节点也只有获得锁的节点会刷新
+     */
+    long staleWhileRevalidate() default 0;
+
+    /**
+     * 是否预热缓存，默认 false，只支持没有参数的方法
+     * 开启后应用启动完成和按reactive.redis.cache.warm-up.cron定时预热时会调用该方法，未命中缓存时执行方法主体并写入缓存
+     * 有参数的方法通过注册CacheWarmer预热
+     */
+    boolean warmUp() default false;
 }
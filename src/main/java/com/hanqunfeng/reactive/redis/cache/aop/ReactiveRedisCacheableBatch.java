@@ -0,0 +1,60 @@
+package com.hanqunfeng.reactive.redis.cache.aop;
+
+import java.lang.annotation.*;
+
+/**
+ * <h1>redis批量查询缓存注解</h1>
+ * 集合参数中的每个元素单独缓存，一次MGET读取全部元素的缓存，只用未命中的元素调用方法，结果按集合参数的顺序返回
+ * 方法返回值必须是Flux，如：
+ * <pre>
+ * &#64;ReactiveRedisCacheableBatch(cacheName = "sys-user", ids = "#ids", key = "'id_' + #id", resultId = "#result.id")
+ * public Flux&lt;SysUser&gt; findByIds(List&lt;Long&gt; ids)
+ * </pre>
+ * Created by hanqf on 2026/10/17 18:20.
+ */
+
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ReactiveRedisCacheableBatch {
+
+    /**
+     * 集合参数，只能是#参数名称、#p0或#a0，参数类型可以是Collection、List或Set
+     * 未命中时使用只包含未命中元素的集合调用方法
+     */
+    String ids();
+
+    /**
+     * 每个元素的缓存key，key为cacheName+":"+key
+     * 支持EL表达式，#id为集合中的元素，默认为元素本身
+     */
+    String key() default "#id";
+
+    /**
+     * 返回结果中每个元素对应的集合元素，用于将结果与集合元素对应
+     * 支持EL表达式，#result为返回的元素，如：#result.id
+     */
+    String resultId();
+
+    /**
+     * 缓存key分组，会做为缓存key的前缀+":"
+     * 支持EL表达式
+     */
+    String cacheName() default "";
+
+    /**
+     * 缓存过期时间，单位秒，默认24小时，0或负数表示不过期
+     */
+    long timeout() default 24 * 3600L;
+
+    /**
+     * 是否缓存空值，默认 true
+     * 方法返回的结果中没有对应的元素时缓存空值，之后查询该元素不再调用方法
+     */
+    boolean cacheNull() default true;
+
+    /**
+     * 缓存空值过期时间，单位秒，默认10分钟，0或负数时使用 timeout 的设置时间
+     */
+    long cacheNullTimeout() default 600L;
+}
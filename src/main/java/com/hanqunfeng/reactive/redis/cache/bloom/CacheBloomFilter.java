@@ -0,0 +1,156 @@
+package com.hanqunfeng.reactive.redis.cache.bloom;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <h1>本地布隆过滤器</h1>
+ * redis位图的本地副本，判断key是否可能存在时不访问redis
+ * 位的顺序与redis的SETBIT一致，offset为0的位是第一个字节的最高位，可以直接与redis中的位图互相转换
+ * 使用FNV-1a 64位hash(再经过murmur3的fmix64混合)的高低32位做双重hash，不同节点计算的offset相同
+ * 位图最多Integer.MAX_VALUE位(256MB)
+ * Created by hanqf on 2026/10/17 23:50.
+ */
+public class CacheBloomFilter {
+
+    private final long numBits;
+
+    private final int numHashes;
+
+    private final AtomicLongArray bits;
+
+    /**
+     * 是否已经从redis加载或重建过，没有加载时不能判断key不存在
+     */
+    private volatile boolean ready;
+
+    public CacheBloomFilter(long expectedInsertions, double falsePositiveProbability) {
+        long n = Math.max(1, expectedInsertions);
+        double p = falsePositiveProbability > 0 && falsePositiveProbability < 1 ? falsePositiveProbability : 0.01;
+        this.numBits = Math.min(Integer.MAX_VALUE, Math.max(64, (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2)))));
+        this.numHashes = Math.max(1, (int) Math.round((double) numBits / n * Math.log(2)));
+        this.bits = new AtomicLongArray(words(numBits));
+    }
+
+    public long getNumBits() {
+        return numBits;
+    }
+
+    public int getNumHashes() {
+        return numHashes;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * key在位图中的offset
+     */
+    public long[] offsets(String key) {
+        long hash = fnv1a64(key.getBytes(StandardCharsets.UTF_8));
+        int hash1 = (int) hash;
+        int hash2 = (int) (hash >>> 32);
+        long[] offsets = new long[numHashes];
+        for (int i = 0; i < numHashes; i++) {
+            int combined = hash1 + (i + 1) * hash2;
+            offsets[i] = (combined & Integer.MAX_VALUE) % numBits;
+        }
+        return offsets;
+    }
+
+    /**
+     * key是否可能存在，没有加载时始终返回true
+     */
+    public boolean mightContain(String key) {
+        if (!ready) {
+            return true;
+        }
+        AtomicLongArray current = bits;
+        for (long offset : offsets(key)) {
+            if ((current.get((int) (offset >>> 6)) & mask(offset)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 设置offsets对应的位
+     */
+    public void put(long[] offsets) {
+        AtomicLongArray current = bits;
+        for (long offset : offsets) {
+            int index = (int) (offset >>> 6);
+            long mask = mask(offset);
+            long word;
+            do {
+                word = current.get(index);
+            } while ((word & mask) == 0 && !current.compareAndSet(index, word, word | mask));
+        }
+    }
+
+    /**
+     * 将redis中的位图合并(按位或)到本地位图，不会丢失本地已经put但还没有写入redis的位
+     * 重建后需要删除的位只能通过新的CacheBloomFilter加载
+     */
+    public void load(byte[] bitmap) {
+        AtomicLongArray current = bits;
+        int length = (int) Math.min(bitmap.length, (numBits + 7) / 8);
+        long word = 0;
+        for (int i = 0; i < length; i++) {
+            word |= (bitmap[i] & 0xFFL) << (56 - ((i & 7) << 3));
+            if ((i & 7) == 7 || i == length - 1) {
+                if (word != 0) {
+                    current.accumulateAndGet(i >>> 3, word, (x, y) -> x | y);
+                }
+                word = 0;
+            }
+        }
+        this.ready = true;
+    }
+
+    /**
+     * 重建完成后标记为已加载
+     */
+    void markReady() {
+        this.ready = true;
+    }
+
+    /**
+     * 转换为redis的位图
+     */
+    public byte[] toBitmap() {
+        AtomicLongArray current = bits;
+        byte[] bitmap = new byte[(int) ((numBits + 7) / 8)];
+        for (int i = 0; i < bitmap.length; i++) {
+            bitmap[i] = (byte) (current.get(i >>> 3) >>> (56 - ((i & 7) << 3)));
+        }
+        return bitmap;
+    }
+
+    /**
+     * 每个long的最高位对应offset最小的位，与redis位图的字节顺序一致
+     */
+    private static long mask(long offset) {
+        return 1L << (63 - (offset & 63));
+    }
+
+    private static int words(long numBits) {
+        return (int) ((numBits + 63) >>> 6);
+    }
+
+    private static long fnv1a64(byte[] bytes) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : bytes) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,325 @@
+package com.hanqunfeng.reactive.redis.cache.bloom;
+
+import com.hanqunfeng.reactive.redis.cache.cluster.RedisClusterSupport;
+import com.hanqunfeng.reactive.redis.cache.config.ReactiveRedisCacheProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.ReactiveRedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisElementReader;
+import org.springframework.data.redis.serializer.RedisElementWriter;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * <h1>布隆过滤器管理</h1>
+ * 按cacheName创建布隆过滤器，位图保存在redis中，每个节点保存一份本地副本，判断key是否存在时只读取本地副本
+ * redis中没有位图时过滤器不生效，需要先通过rebuild写入全部存在的key，之后写入缓存的非空值会自动add，也可以手动add
+ * 位图只能由rebuild创建，add只在位图已经存在时SETBIT，避免没有重建时写入的部分位图被加载后误判存在的key不存在
+ * 定时加载时合并到本地副本，其它节点重建后加载到新的本地副本再替换
+ * 新增key和重建时通过redis频道通知其它节点，同时按syncInterval定时从redis重新加载，补偿频道断开期间丢失的通知
+ * 消息格式：节点id|a|cacheName|key1\nkey2 新增key；节点id|r|cacheName 重新加载
+ * redis key为reactive-redis-cache:bloom:cacheName:位数:hash数，修改预计数量或误判率后使用新的位图，需要重建
+ * Created by hanqf on 2026/10/17 23:50.
+ */
+@Component
+@Slf4j
+public class CacheBloomFilterManager implements SmartInitializingSingleton, DisposableBean {
+
+    private static final String KEY_PREFIX = "reactive-redis-cache:bloom:";
+
+    private static final String TYPE_ADD = "a";
+
+    private static final String TYPE_RELOAD = "r";
+
+    /**
+     * 位图存在时才SETBIT，KEYS[1]位图，ARGV为位的偏移量，返回1表示已写入，0表示位图不存在
+     */
+    private static final RedisScript<Long> ADD_SCRIPT = RedisScript.of(
+            "if redis.call('exists', KEYS[1]) == 0 then return 0 end " +
+                    "for i = 1, #ARGV do redis.call('setbit', KEYS[1], ARGV[i], 1) end " +
+                    "return 1", Long.class);
+
+    private static final RedisElementWriter<Object> ARGS_WRITER = element -> ByteBuffer.wrap(element.toString().getBytes(StandardCharsets.UTF_8));
+
+    private static final RedisElementReader<Long> LONG_READER = RedisElementReader.from(new GenericToStringSerializer<>(Long.class));
+
+    /**
+     * 当前节点的id，用于忽略自己发布的消息
+     */
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final Map<String, CacheBloomFilter> filters = new ConcurrentHashMap<>();
+
+    private ReactiveRedisMessageListenerContainer listenerContainer;
+
+    private Disposable subscription;
+
+    private Scheduler scheduler;
+
+    @Autowired
+    private ReactiveRedisTemplate reactiveRedisTemplate;
+
+    @Autowired
+    private RedisClusterSupport clusterSupport;
+
+    @Autowired
+    private ReactiveRedisCacheProperties properties;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (properties.getBloomFilter().isEnabled()
+                || properties.getCaches().values().stream().anyMatch(c -> c.getBloomFilter() != null && c.getBloomFilter().isEnabled())) {
+            subscribe();
+        }
+    }
+
+    /**
+     * cacheName是否开启了布隆过滤器
+     */
+    public boolean isEnabled(String cacheName) {
+        return StringUtils.hasText(cacheName) && properties.getBloomFilter(cacheName).isEnabled();
+    }
+
+    /**
+     * key是否可能存在，没有开启或位图还没有加载时返回true
+     *
+     * @param key 注解中的key，不含cacheName前缀
+     */
+    public boolean mightContain(String cacheName, String key) {
+        if (!isEnabled(cacheName)) {
+            return true;
+        }
+        return getFilter(cacheName).mightContain(key);
+    }
+
+    /**
+     * 新增存在的key，写入本地副本和redis，并通知其它节点
+     */
+    public Mono<Void> add(String cacheName, String... keys) {
+        return add(cacheName, Arrays.asList(keys));
+    }
+
+    /**
+     * 新增存在的key，写入本地副本和redis，并通知其它节点
+     * 全部SETBIT在一次lua脚本中执行，本地副本已加载且已经包含的key不再写入，redis中没有位图(还没有重建)时不写入也不通知
+     */
+    public Mono<Void> add(String cacheName, Collection<String> keys) {
+        if (!isEnabled(cacheName) || keys.isEmpty()) {
+            return Mono.empty();
+        }
+        CacheBloomFilter filter = getFilter(cacheName);
+        if (filter.isReady()) {
+            keys = keys.stream().filter(key -> !filter.mightContain(key)).collect(Collectors.toList());
+            if (keys.isEmpty()) {
+                return Mono.empty();
+            }
+        }
+        List<Object> offsets = new ArrayList<>(keys.size() * filter.getNumHashes());
+        for (String key : keys) {
+            long[] keyOffsets = filter.offsets(key);
+            filter.put(keyOffsets);
+            Arrays.stream(keyOffsets).forEach(offsets::add);
+        }
+        String message = cacheName + "|" + String.join("\n", keys);
+        Flux<Long> result = reactiveRedisTemplate.execute(ADD_SCRIPT, Collections.singletonList(redisKey(cacheName, filter)), offsets, ARGS_WRITER, LONG_READER);
+        return result.next()
+                .flatMap(added -> {
+                    if (added == 0L) {
+                        log.debug("The bloom filter of cacheName[{}] has not been rebuilt,keys not added", cacheName);
+                        return Mono.empty();
+                    }
+                    return publish(TYPE_ADD, message);
+                });
+    }
+
+    /**
+     * 使用全部存在的key重建布隆过滤器，写入临时key后RENAME替换redis中的位图，并通知其它节点重新加载
+     *
+     * @return 写入的key数量
+     */
+    public Mono<Long> rebuild(String cacheName, Flux<String> keys) {
+        if (!isEnabled(cacheName)) {
+            return Mono.just(0L);
+        }
+        ReactiveRedisCacheProperties.BloomFilterProperties bloomFilter = properties.getBloomFilter(cacheName);
+        CacheBloomFilter rebuilt = new CacheBloomFilter(bloomFilter.getExpectedInsertions(), bloomFilter.getFalsePositiveProbability());
+        String redisKey = redisKey(cacheName, rebuilt);
+        ByteBuffer rawTempKey = rawKey(clusterSupport.sameSlotKey(redisKey, ":" + instanceId));
+        return keys.doOnNext(key -> rebuilt.put(rebuilt.offsets(key)))
+                .count()
+                .flatMap(count -> {
+                    ByteBuffer bitmap = ByteBuffer.wrap(rebuilt.toBitmap());
+                    Mono<Boolean> set = reactiveRedisTemplate.createMono(connection -> connection.stringCommands().set(rawTempKey, bitmap));
+                    Mono<Boolean> rename = reactiveRedisTemplate.createMono(connection -> connection.keyCommands().rename(rawTempKey, rawKey(redisKey)));
+                    return set.then(rename)
+                            .then(Mono.fromRunnable(() -> {
+                                rebuilt.markReady();
+                                filters.put(cacheName, rebuilt);
+                                log.debug("The bloom filter of cacheName[{}] has been rebuilt,keys[{}],bits[{}],hashes[{}]",
+                                        cacheName, count, rebuilt.getNumBits(), rebuilt.getNumHashes());
+                            }))
+                            .then(publish(TYPE_RELOAD, cacheName))
+                            .thenReturn(count);
+                });
+    }
+
+    /**
+     * 从redis重新加载位图，redis中没有位图时本地副本保持不变
+     */
+    public Mono<Void> reload(String cacheName) {
+        if (!isEnabled(cacheName)) {
+            return Mono.empty();
+        }
+        return load(cacheName, getFilter(cacheName));
+    }
+
+    private CacheBloomFilter getFilter(String cacheName) {
+        CacheBloomFilter filter = filters.get(cacheName);
+        if (filter != null) {
+            return filter;
+        }
+        ReactiveRedisCacheProperties.BloomFilterProperties bloomFilter = properties.getBloomFilter(cacheName);
+        CacheBloomFilter created = new CacheBloomFilter(bloomFilter.getExpectedInsertions(), bloomFilter.getFalsePositiveProbability());
+        filter = filters.putIfAbsent(cacheName, created);
+        if (filter != null) {
+            return filter;
+        }
+        //首次使用时在后台加载，加载完成前不判断key不存在
+        subscribe();
+        load(cacheName, created).subscribe(null, e -> log.warn("Load the bloom filter of cacheName[{}] failed: {}", cacheName, e.toString()));
+        return created;
+    }
+
+    private Mono<Void> load(String cacheName, CacheBloomFilter filter) {
+        ByteBuffer rawKey = rawKey(redisKey(cacheName, filter));
+        Mono<ByteBuffer> get = reactiveRedisTemplate.createMono(connection -> connection.stringCommands().get(rawKey));
+        return get.doOnNext(byteBuffer -> {
+                    byte[] bitmap = new byte[byteBuffer.remaining()];
+                    byteBuffer.get(bitmap);
+                    filter.load(bitmap);
+                    log.debug("The bloom filter of cacheName[{}] has been loaded,bytes[{}]", cacheName, bitmap.length);
+                })
+                .then();
+    }
+
+    private static String redisKey(String cacheName, CacheBloomFilter filter) {
+        return KEY_PREFIX + cacheName + ":" + filter.getNumBits() + ":" + filter.getNumHashes();
+    }
+
+    private ByteBuffer rawKey(String key) {
+        return reactiveRedisTemplate.getSerializationContext().getKeySerializationPair().write(key);
+    }
+
+    private Mono<Void> publish(String type, String value) {
+        ByteBuffer channel = ByteBuffer.wrap(properties.getBloomFilterChannel().getBytes(StandardCharsets.UTF_8));
+        ByteBuffer message = ByteBuffer.wrap((instanceId + "|" + type + "|" + value).getBytes(StandardCharsets.UTF_8));
+        return reactiveRedisTemplate.createMono(connection -> connection.pubSubCommands().publish(channel, message))
+                .onErrorResume(e -> {
+                    log.error("发布布隆过滤器更新通知失败！", e);
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private void onMessage(String message) {
+        String[] parts = message.split("\\|", 4);
+        if (parts.length < 3 || instanceId.equals(parts[0])) {
+            return;
+        }
+        CacheBloomFilter filter = filters.get(parts[2]);
+        if (filter == null) {
+            return;
+        }
+        log.debug("Bloom filter update received:{}", message);
+        if (TYPE_ADD.equals(parts[1]) && parts.length == 4) {
+            for (String key : parts[3].split("\n")) {
+                filter.put(filter.offsets(key));
+            }
+        } else if (TYPE_RELOAD.equals(parts[1])) {
+            replace(parts[2]);
+        }
+    }
+
+    /**
+     * 其它节点重建后，加载到新的本地副本再替换，重建时删除的位才会生效
+     */
+    private void replace(String cacheName) {
+        ReactiveRedisCacheProperties.BloomFilterProperties bloomFilter = properties.getBloomFilter(cacheName);
+        CacheBloomFilter replaced = new CacheBloomFilter(bloomFilter.getExpectedInsertions(), bloomFilter.getFalsePositiveProbability());
+        load(cacheName, replaced)
+                .then(Mono.fromRunnable(() -> {
+                    if (replaced.isReady()) {
+                        filters.put(cacheName, replaced);
+                    }
+                }))
+                .subscribe(null, e -> log.warn("Reload the bloom filter of cacheName[{}] failed: {}", cacheName, e.toString()));
+    }
+
+    private void reloadAll(String cacheName) {
+        filters.forEach((name, filter) -> {
+            if (cacheName == null || cacheName.equals(name)) {
+                load(name, filter).subscribe(null, e -> log.warn("Reload the bloom filter of cacheName[{}] failed: {}", name, e.toString()));
+            }
+        });
+    }
+
+    private synchronized void subscribe() {
+        if (subscription != null) {
+            return;
+        }
+        listenerContainer = new ReactiveRedisMessageListenerContainer(reactiveRedisTemplate.getConnectionFactory());
+        subscription = listenerContainer.receive(ChannelTopic.of(properties.getBloomFilterChannel()))
+                .doOnSubscribe(s -> log.debug("Subscribe bloom filter channel[{}]", properties.getBloomFilterChannel()))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30))
+                        .doBeforeRetry(signal -> {
+                            //断开期间可能丢失通知，重新加载全部位图
+                            reloadAll(null);
+                            log.warn("Bloom filter channel disconnected,retrying", signal.failure());
+                        }))
+                .subscribe(message -> onMessage(message.getMessage()));
+        long syncInterval = properties.getBloomFilter().getSyncInterval();
+        if (syncInterval > 0) {
+            scheduler = Schedulers.newSingle("reactive-redis-cache-bloom-filter", true);
+            scheduler.schedulePeriodically(() -> reloadAll(null), syncInterval, syncInterval, TimeUnit.SECONDS);
+        }
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+        if (listenerContainer != null) {
+            listenerContainer.destroy();
+        }
+        if (scheduler != null) {
+            scheduler.dispose();
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package com.hanqunfeng.reactive.redis.cache.chunk;
+
+import com.hanqunfeng.reactive.redis.cache.cluster.RedisClusterSupport;
+import com.hanqunfeng.reactive.redis.cache.config.ReactiveRedisCacheProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisElementReader;
+import org.springframework.data.redis.serializer.RedisElementWriter;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * <h1>大数据分块存储</h1>
+ * 序列化后超过chunkSize的缓存拆分为多个块，块的key为redisKey:chunk:版本:序号，原来的key中保存清单：\0CHUNK版本|块数量|总长度
+ * 每次写入使用新的版本，替换清单的同时取回旧清单的版本和块数量并UNLINK旧版本的块，清除缓存时也会先根据清单UNLINK块
+ * 块的过期时间比清单长CHUNK_GRACE_SECONDS，不过期的分块缓存使用persistentTimeout，块不会永不过期，读取时清单存在但有块不存在按未命中处理
+ * 写入时全部块并发写入(共享连接上以pipeline的方式发送)后再写入清单，读取时每fetchBatch个块一次MGET，多个MGET并发发送
+ * Created by hanqf on 2026/10/18 01:30.
+ */
+@Component
+@Slf4j
+public class CacheValueChunker {
+
+    /**
+     * 清单的标记，与空值标记一样以\0开头，不会与编码后的数据冲突
+     */
+    private static final byte[] MANIFEST_PREFIX = "\0CHUNK".getBytes(StandardCharsets.UTF_8);
+
+    private static final long CHUNK_GRACE_SECONDS = 60L;
+
+    private static final String CHUNK_INFIX = ":chunk:";
+
+    /**
+     * 清单的最大长度，前缀+16位版本+块数量+总长度，读取旧值时只读取这个长度
+     */
+    private static final int MANIFEST_MAX_LENGTH = 64;
+
+    /**
+     * 写入新值，旧值为清单时返回旧清单的"版本|块数量"，用于删除旧版本的块，否则返回空
+     * 只GETRANGE读取旧值的开头判断是否为清单，不会取回整个旧值
+     * KEYS[1]缓存key，ARGV[1]新值，ARGV[2]过期时间(秒)，0或负数表示不过期，ARGV[3]清单的标记，ARGV[4]清单的最大长度
+     */
+    private static final RedisScript<String> REPLACE_SCRIPT = RedisScript.of(
+            "local old = nil " +
+                    "local head = redis.call('getrange', KEYS[1], 0, tonumber(ARGV[4]) - 1) " +
+                    "if string.sub(head, 1, #ARGV[3]) == ARGV[3] then " +
+                    "local version, count = string.match(string.sub(head, #ARGV[3] + 1), '^([^|]+)|(%d+)|') " +
+                    "if version then old = version .. '|' .. count end " +
+                    "end " +
+                    "if tonumber(ARGV[2]) > 0 then redis.call('set', KEYS[1], ARGV[1], 'EX', ARGV[2]) else redis.call('set', KEYS[1], ARGV[1]) end " +
+                    "return old", String.class);
+
+    private static final RedisElementWriter<byte[]> BYTES_WRITER = RedisElementWriter.from(RedisSerializer.byteArray());
+
+    private static final RedisElementReader<String> STRING_READER = RedisElementReader.from(RedisSerializer.string());
+
+    private static final byte[] MANIFEST_MAX_LENGTH_BYTES = String.valueOf(MANIFEST_MAX_LENGTH).getBytes(StandardCharsets.UTF_8);
+
+    @Autowired
+    private ReactiveRedisTemplate reactiveRedisTemplate;
+
+    @Autowired
+    private RedisClusterSupport clusterSupport;
+
+    @Autowired
+    private ReactiveRedisCacheProperties properties;
+
+    /**
+     * cacheName是否开启了分块存储，开启后全部写入都会清理旧版本的块
+     */
+    public boolean isEnabled(String cacheName) {
+        return properties.getLargeValue(cacheName).getChunkSize() > 0;
+    }
+
+    /**
+     * 序列化后的大小是否超过了cacheName的最大字节数
+     */
+    public boolean isTooLarge(String cacheName, int size) {
+        long maxSize = properties.getLargeValue(cacheName).getMaxSize();
+        return maxSize > 0 && size > maxSize;
+    }
+
+    /**
+     * 是否需要分块存储
+     */
+    public boolean shouldChunk(String cacheName, int size) {
+        int chunkSize = properties.getLargeValue(cacheName).getChunkSize();
+        return chunkSize > 0 && size > chunkSize;
+    }
+
+    /**
+     * 读取的数据是否为块的清单
+     */
+    public boolean isManifest(ByteBuffer byteBuffer) {
+        if (byteBuffer == null || byteBuffer.remaining() <= MANIFEST_PREFIX.length || byteBuffer.get(byteBuffer.position()) != 0) {
+            return false;
+        }
+        for (int i = 1; i < MANIFEST_PREFIX.length; i++) {
+            if (byteBuffer.get(byteBuffer.position() + i) != MANIFEST_PREFIX[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 开启分块存储的cacheName写入缓存，超过chunkSize时先写入全部块再写入清单，否则直接写入
+     * 写入时取回旧值，旧值为清单时UNLINK旧版本的块
+     *
+     * @param timeout 过期时间，单位秒，0或负数表示不过期
+     */
+    public Mono<Boolean> write(String cacheName, String redis_key, ByteBuffer rawValue, long timeout) {
+        if (!shouldChunk(cacheName, rawValue.remaining())) {
+            return replace(redis_key, rawValue, timeout).thenReturn(true);
+        }
+        int chunkSize = properties.getLargeValue(cacheName).getChunkSize();
+        long manifestTimeout = timeout > 0 ? timeout : Math.max(1, properties.getLargeValue(cacheName).getPersistentTimeout());
+        int total = rawValue.remaining();
+        int count = (total + chunkSize - 1) / chunkSize;
+        String version = Long.toHexString(ThreadLocalRandom.current().nextLong());
+        Expiration chunkExpiration = Expiration.seconds(manifestTimeout + CHUNK_GRACE_SECONDS);
+        ByteBuffer manifest = ByteBuffer.wrap(concat(MANIFEST_PREFIX, (version + "|" + count + "|" + total).getBytes(StandardCharsets.UTF_8)));
+        int start = rawValue.position();
+        return Flux.range(0, count)
+                .flatMap(i -> {
+                    ByteBuffer chunk = rawValue.duplicate();
+                    chunk.position(start + i * chunkSize);
+                    chunk.limit(Math.min(start + total, start + (i + 1) * chunkSize));
+                    return set(chunkKey(redis_key, version, i), chunk.slice(), chunkExpiration);
+                })
+                .then(replace(redis_key, manifest, manifestTimeout))
+                .doOnSuccess(v -> log.debug("The key[{}] has been cached in {} chunks,bytes[{}]", redis_key, count, total))
+                .thenReturn(true);
+    }
+
+    /**
+     * 删除清单前调用，读取这些key的清单并UNLINK对应的块
+     *
+     * @return 删除的块数量
+     */
+    public Mono<Long> deleteChunks(List<String> redisKeys) {
+        if (redisKeys.isEmpty()) {
+            return Mono.just(0L);
+        }
+        List<ByteBuffer> rawKeys = new ArrayList<>(redisKeys.size());
+        redisKeys.forEach(key -> rawKeys.add(rawKey(key)));
+        return clusterSupport.mGet(rawKeys).flatMap(values -> {
+            List<String> chunkKeys = new ArrayList<>();
+            for (int i = 0; i < values.size(); i++) {
+                chunkKeys.addAll(chunkKeys(redisKeys.get(i), values.get(i)));
+            }
+            return Flux.fromIterable(chunkKeys)
+                    .buffer(properties.getScanCount())
+                    .concatMap(clusterSupport::unlink)
+                    .reduce(0L, Long::sum);
+        });
+    }
+
+    /**
+     * 写入新值，旧值为清单时UNLINK旧版本的块
+     */
+    private Mono<Void> replace(String redis_key, ByteBuffer rawValue, long timeout) {
+        byte[] value = new byte[rawValue.remaining()];
+        rawValue.duplicate().get(value);
+        List<byte[]> args = Arrays.asList(value, String.valueOf(timeout).getBytes(StandardCharsets.UTF_8), MANIFEST_PREFIX, MANIFEST_MAX_LENGTH_BYTES);
+        Flux<String> replace = reactiveRedisTemplate.execute(REPLACE_SCRIPT, Collections.singletonList(redis_key), args, BYTES_WRITER, STRING_READER);
+        return replace.next()
+                .flatMap(old -> {
+                    String[] parts = old.split("\\|");
+                    List<String> chunkKeys = parts.length == 2 ? chunkKeys(redis_key, parts[0], Integer.parseInt(parts[1])) : Collections.emptyList();
+                    if (chunkKeys.isEmpty()) {
+                        return Mono.empty();
+                    }
+                    log.debug("The {} old chunks of key[{}] have been replaced", chunkKeys.size(), redis_key);
+                    return clusterSupport.unlink(chunkKeys);
+                })
+                .then();
+    }
+
+    /**
+     * value为清单时返回全部块的key，否则返回空的list
+     */
+    private List<String> chunkKeys(String redis_key, ByteBuffer value) {
+        if (!isManifest(value)) {
+            return Collections.emptyList();
+        }
+        String[] parts = parseManifest(value);
+        if (parts.length != 3) {
+            return Collections.emptyList();
+        }
+        return chunkKeys(redis_key, parts[0], Integer.parseInt(parts[1]));
+    }
+
+    private static List<String> chunkKeys(String redis_key, String version, int count) {
+        List<String> keys = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            keys.add(chunkKey(redis_key, version, i));
+        }
+        return keys;
+    }
+
+    private static String[] parseManifest(ByteBuffer manifest) {
+        ByteBuffer duplicate = manifest.duplicate();
+        duplicate.position(duplicate.position() + MANIFEST_PREFIX.length);
+        return StandardCharsets.UTF_8.decode(duplicate).toString().split("\\|");
+    }
+
+    /**
+     * 根据清单读取全部块并合并，有块不存在时返回的Mono为空
+     */
+    public Mono<ByteBuffer> read(String cacheName, String redis_key, ByteBuffer manifest) {
+        String[] parts = parseManifest(manifest);
+        if (parts.length != 3) {
+            return Mono.empty();
+        }
+        String version = parts[0];
+        int count = Integer.parseInt(parts[1]);
+        int total = Integer.parseInt(parts[2]);
+        List<ByteBuffer> keys = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            keys.add(rawKey(chunkKey(redis_key, version, i)));
+        }
+        int fetchBatch = Math.max(1, properties.getLargeValue(cacheName).getFetchBatch());
+        ByteBuffer result = ByteBuffer.allocate(total);
+        return Flux.fromIterable(keys)
+                .buffer(fetchBatch)
+                .flatMapSequential(batch -> {
+                    //不存在的块为null，转换为空的ByteBuffer
+                    return clusterSupport.mGet(batch).flatMapIterable(list -> {
+                        List<ByteBuffer> chunks = new ArrayList<>(list.size());
+                        list.forEach(chunk -> chunks.add(chunk == null ? ByteBuffer.allocate(0) : chunk));
+                        return chunks;
+                    });
+                })
+                .takeWhile(chunk -> chunk.hasRemaining() && chunk.remaining() <= result.remaining())
+                .doOnNext(result::put)
+                .then(Mono.fromSupplier(() -> {
+                    if (result.hasRemaining()) {
+                        log.debug("The chunks of key[{}] are incomplete,treated as missing", redis_key);
+                        return null;
+                    }
+                    result.flip();
+                    return result;
+                }));
+    }
+
+    private Mono<Boolean> set(String key, ByteBuffer value, Expiration expiration) {
+        return reactiveRedisTemplate.createMono(connection -> connection.stringCommands().set(rawKey(key), value, expiration, RedisStringCommands.SetOption.upsert()));
+    }
+
+    private static String chunkKey(String redis_key, String version, int index) {
+        return redis_key + CHUNK_INFIX + version + ":" + index;
+    }
+
+    private ByteBuffer rawKey(String key) {
+        return reactiveRedisTemplate.getSerializationContext().getKeySerializationPair().write(key);
+    }
+
+    private static byte[] concat(byte[] a, byte[] b) {
+        byte[] result = new byte[a.length + b.length];
+        System.arraycopy(a, 0, result, 0, a.length);
+        System.arraycopy(b, 0, result, a.length, b.length);
+        return result;
+    }
+}
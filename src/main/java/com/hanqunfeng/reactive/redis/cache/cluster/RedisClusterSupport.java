@@ -0,0 +1,227 @@
+package com.hanqunfeng.reactive.redis.cache.cluster;
+
+import io.lettuce.core.ScanArgs;
+import io.lettuce.core.ScanStream;
+import io.lettuce.core.cluster.RedisClusterClient;
+import io.lettuce.core.cluster.api.StatefulRedisClusterConnection;
+import io.lettuce.core.cluster.models.partitions.RedisClusterNode;
+import io.lettuce.core.codec.StringCodec;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.ClusterSlotHashUtil;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * <h1>redis cluster支持</h1>
+ * 连接工厂为集群模式的LettuceConnectionFactory时，多key命令按slot分组，每组一个命令并发执行，同一个节点的命令在该节点的连接上以pipeline的方式发送
+ * SCAN在全部主节点上并发执行，非集群模式时直接执行原来的命令
+ * lettuce-core是可选依赖，lettuce相关的代码都在LettuceCluster中，classpath中没有lettuce时不会加载，此时按非集群处理
+ * Created by hanqf on 2026/10/18 03:20.
+ */
+@Component
+@Slf4j
+public class RedisClusterSupport implements DisposableBean {
+
+    private static final boolean LETTUCE_PRESENT = ClassUtils.isPresent("io.lettuce.core.RedisClient", RedisClusterSupport.class.getClassLoader());
+
+    private volatile Boolean cluster;
+
+    /**
+     * 集群时的lettuce支持，isCluster()为true时创建
+     */
+    private volatile LettuceCluster lettuceCluster;
+
+    @Autowired
+    private ReactiveRedisTemplate reactiveRedisTemplate;
+
+    @Override
+    public void destroy() {
+        if (lettuceCluster != null) {
+            lettuceCluster.close();
+        }
+    }
+
+    /**
+     * 是否为redis cluster
+     */
+    public boolean isCluster() {
+        if (cluster == null) {
+            ReactiveRedisConnectionFactory connectionFactory = reactiveRedisTemplate.getConnectionFactory();
+            if (LETTUCE_PRESENT && LettuceCluster.isCluster(connectionFactory)) {
+                lettuceCluster = new LettuceCluster((LettuceConnectionFactory) connectionFactory);
+                cluster = true;
+            } else {
+                cluster = false;
+            }
+        }
+        return cluster;
+    }
+
+    /**
+     * 集群时按slot分组并发执行command，非集群或全部key在同一个slot时只执行一次
+     */
+    public <T> Flux<T> partition(Collection<String> keys, Function<List<String>, Publisher<T>> command) {
+        List<String> list = keys instanceof List ? (List<String>) keys : new ArrayList<>(keys);
+        if (!isCluster() || list.size() < 2) {
+            return Flux.from(command.apply(list));
+        }
+        Map<Integer, List<String>> slots = new LinkedHashMap<>();
+        list.forEach(key -> slots.computeIfAbsent(ClusterSlotHashUtil.calculateSlot(key), slot -> new ArrayList<>()).add(key));
+        if (slots.size() == 1) {
+            return Flux.from(command.apply(list));
+        }
+        return Flux.fromIterable(slots.values()).flatMap(command, slots.size());
+    }
+
+    /**
+     * UNLINK，集群时按slot分组
+     *
+     * @return 删除的key数量
+     */
+    public Mono<Long> unlink(Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return Mono.just(0L);
+        }
+        return partition(keys, batch -> {
+            Mono<Long> unlink = reactiveRedisTemplate.unlink(batch.toArray());
+            return unlink;
+        }).reduce(0L, Long::sum);
+    }
+
+    /**
+     * MGET，集群时按slot分组，返回值的顺序与rawKeys一致，不存在的key为null或空的ByteBuffer
+     */
+    public Mono<List<ByteBuffer>> mGet(List<ByteBuffer> rawKeys) {
+        if (!isCluster() || rawKeys.size() < 2 || ClusterSlotHashUtil.isSameSlotForAllKeys(rawKeys)) {
+            return reactiveRedisTemplate.createMono(connection -> connection.stringCommands().mGet(rawKeys));
+        }
+        Map<Integer, List<Integer>> slots = new LinkedHashMap<>();
+        for (int i = 0; i < rawKeys.size(); i++) {
+            ByteBuffer rawKey = rawKeys.get(i).duplicate();
+            byte[] bytes = new byte[rawKey.remaining()];
+            rawKey.get(bytes);
+            slots.computeIfAbsent(ClusterSlotHashUtil.calculateSlot(bytes), slot -> new ArrayList<>()).add(i);
+        }
+        ByteBuffer[] values = new ByteBuffer[rawKeys.size()];
+        return Flux.fromIterable(slots.values())
+                .flatMap(indexes -> {
+                    List<ByteBuffer> batch = indexes.stream().map(rawKeys::get).collect(Collectors.toList());
+                    Mono<List<ByteBuffer>> mget = reactiveRedisTemplate.createMono(connection -> connection.stringCommands().mGet(batch));
+                    return mget.doOnNext(list -> {
+                        for (int i = 0; i < indexes.size(); i++) {
+                            values[indexes.get(i)] = list.get(i);
+                        }
+                    });
+                }, slots.size())
+                .then(Mono.fromSupplier(() -> Arrays.asList(values)));
+    }
+
+    /**
+     * SCAN匹配pattern的key，集群时在全部主节点上并发执行
+     */
+    public Flux<String> scan(String pattern, long count) {
+        if (!isCluster()) {
+            return reactiveRedisTemplate.scan(ScanOptions.scanOptions().match(pattern).count(count).build());
+        }
+        return lettuceCluster.scan(pattern, count);
+    }
+
+    /**
+     * 与key在同一个slot的key，用于临时key和RENAME等多key命令
+     * 集群时key中没有hash tag则使用{key}作为hash tag，{key}的slot与key相同，key中有}时无法使用{key}
+     */
+    public String sameSlotKey(String key, String suffix) {
+        if (!isCluster() || hasHashTag(key) || key.indexOf('}') >= 0) {
+            return key + suffix;
+        }
+        return "{" + key + "}" + suffix;
+    }
+
+    /**
+     * key中是否有hash tag，即第一个{之后有}且中间不为空
+     */
+    public static boolean hasHashTag(String key) {
+        int start = key.indexOf('{');
+        return start >= 0 && key.indexOf('}', start + 1) > start + 1;
+    }
+
+    /**
+     * lettuce集群相关的操作，只在classpath中有lettuce时才会加载
+     */
+    private static class LettuceCluster {
+
+        private final LettuceConnectionFactory connectionFactory;
+
+        /**
+         * 在各个主节点上执行SCAN的连接，第一次SCAN时创建
+         */
+        private volatile StatefulRedisClusterConnection<String, String> scanConnection;
+
+        LettuceCluster(LettuceConnectionFactory connectionFactory) {
+            this.connectionFactory = connectionFactory;
+        }
+
+        static boolean isCluster(ReactiveRedisConnectionFactory connectionFactory) {
+            return connectionFactory instanceof LettuceConnectionFactory && ((LettuceConnectionFactory) connectionFactory).isClusterAware();
+        }
+
+        Flux<String> scan(String pattern, long count) {
+            ScanArgs args = ScanArgs.Builder.matches(pattern).limit(count);
+            return scanConnection().flatMapMany(connection -> {
+                List<RedisClusterNode> masters = new ArrayList<>();
+                connection.getPartitions().forEach(node -> {
+                    if (node.is(RedisClusterNode.NodeFlag.UPSTREAM)) {
+                        masters.add(node);
+                    }
+                });
+                return Flux.fromIterable(masters)
+                        .flatMap(node -> Mono.fromFuture(connection.getConnectionAsync(node.getNodeId()))
+                                .flatMapMany(nodeConnection -> ScanStream.scan(nodeConnection.reactive(), args)), Math.max(1, masters.size()));
+            });
+        }
+
+        void close() {
+            if (scanConnection != null) {
+                scanConnection.closeAsync();
+            }
+        }
+
+        private Mono<StatefulRedisClusterConnection<String, String>> scanConnection() {
+            StatefulRedisClusterConnection<String, String> connection = scanConnection;
+            if (connection != null) {
+                return Mono.just(connection);
+            }
+            RedisClusterClient client = (RedisClusterClient) connectionFactory.getRequiredNativeClient();
+            return Mono.fromFuture(client.connectAsync(StringCodec.UTF8))
+                    .map(connected -> {
+                        synchronized (this) {
+                            if (scanConnection == null) {
+                                scanConnection = connected;
+                                return connected;
+                            }
+                        }
+                        connected.closeAsync();
+                        return scanConnection;
+                    });
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.hanqunfeng.reactive.redis.cache.codec;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * <h1>基于jackson的编码</h1>
+ * ObjectMapper不开启default typing，对象中不再包含每一层的类名
+ * 类型信息每条缓存只保存一次：数据开头为类型的canonical名称，如java.util.ArrayList&lt;com.example.SysUser&gt;
+ * 方法返回值声明的类型可以完整描述缓存对象时(如Mono&lt;SysUser&gt;返回的就是SysUser)，只保存一个空的类型名称，按声明的类型读写
+ * 要求缓存对象的字段是具体类型，字段类型为Object或接口时无法还原实际类型
+ * 集合中元素的类型不一致时无法编码，会使用默认的序列化方式写入
+ * Created by hanqf on 2026/10/17 16:10.
+ */
+public abstract class AbstractJacksonCacheValueCodec implements CacheValueCodec {
+
+    protected final ObjectMapper objectMapper;
+
+    protected AbstractJacksonCacheValueCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * 根据对象的运行时类型获取JavaType，集合类型包含元素类型，无法确定时返回null
+     */
+    protected JavaType typeOf(Object value) {
+        TypeFactory typeFactory = objectMapper.getTypeFactory();
+        if (value instanceof Collection) {
+            Class<?> elementClass = null;
+            for (Object element : (Collection<?>) value) {
+                if (element == null) {
+                    continue;
+                }
+                if (elementClass == null) {
+                    elementClass = element.getClass();
+                } else if (elementClass != element.getClass()) {
+                    return null;
+                }
+            }
+            return typeFactory.constructCollectionType((Class<? extends Collection>) value.getClass(), elementClass == null ? Object.class : elementClass);
+        }
+        return typeFactory.constructType(value.getClass());
+    }
+
+    /**
+     * 声明的类型是否可以完整描述value，即value及其中的元素都是声明的具体类型，不是子类
+     * 容器类型只要求value是声明类型的实例，反序列化时接口会使用jackson的默认实现，如List为ArrayList
+     */
+    protected static boolean isDescribedBy(JavaType type, Object value) {
+        if (value == null) {
+            return true;
+        }
+        if (type.isContainerType()) {
+            if (!type.getRawClass().isInstance(value)) {
+                return false;
+            }
+            if (value instanceof Collection) {
+                return ((Collection<?>) value).stream().allMatch(element -> isDescribedBy(type.getContentType(), element));
+            }
+            if (value instanceof Map) {
+                return ((Map<?, ?>) value).entrySet().stream().allMatch(entry ->
+                        isDescribedBy(type.getKeyType(), entry.getKey()) && isDescribedBy(type.getContentType(), entry.getValue()));
+            }
+            if (value instanceof Object[]) {
+                return Arrays.stream((Object[]) value).allMatch(element -> isDescribedBy(type.getContentType(), element));
+            }
+            return true;
+        }
+        return type.getRawClass() == value.getClass();
+    }
+
+    @Override
+    public byte[] encode(Object value) {
+        return encode(value, null);
+    }
+
+    @Override
+    public byte[] encode(Object value, JavaType declaredType) {
+        JavaType type;
+        String canonical;
+        if (declaredType != null && isDescribedBy(declaredType, value)) {
+            type = declaredType;
+            canonical = "";
+        } else {
+            type = typeOf(value);
+            if (type == null) {
+                return null;
+            }
+            canonical = type.toCanonical();
+        }
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+            DataOutputStream dataOut = new DataOutputStream(out);
+            dataOut.writeUTF(canonical);
+            objectMapper.writerFor(type).writeValue(out, value);
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public Object decode(byte[] bytes) {
+        return decode(bytes, null);
+    }
+
+    @Override
+    public Object decode(byte[] bytes, JavaType declaredType) {
+        try {
+            DataInputStream dataIn = new DataInputStream(new ByteArrayInputStream(bytes));
+            String canonical = dataIn.readUTF();
+            int offset = bytes.length - dataIn.available();
+            JavaType type;
+            if (canonical.isEmpty()) {
+                if (declaredType == null) {
+                    throw new IllegalStateException("The cache value was encoded with the declared return type,but no type is given");
+                }
+                type = declaredType;
+            } else {
+                type = objectMapper.getTypeFactory().constructFromCanonical(canonical);
+            }
+            return objectMapper.readerFor(type).readValue(bytes, offset, bytes.length - offset);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
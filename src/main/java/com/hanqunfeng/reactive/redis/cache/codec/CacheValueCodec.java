@@ -0,0 +1,53 @@
+package com.hanqunfeng.reactive.redis.cache.codec;
+
+import com.fasterxml.jackson.databind.JavaType;
+
+/**
+ * <h1>缓存值编码</h1>
+ * 实现该接口并注册为spring bean即可通过reactive.redis.cache.codec或caches.[cacheName].codec使用
+ * 写入redis的数据第一个字节为编码头，包含编码id和是否压缩，读取时根据编码头选择编码，与当前配置无关
+ * 所以切换编码后旧的缓存仍然可以读取，滚动升级时需要先升级全部节点再切换编码
+ * Created by hanqf on 2026/10/17 16:10.
+ */
+public interface CacheValueCodec {
+
+    /**
+     * 编码id，取值范围1-15，不能与其它编码重复，内置编码：jackson=1，smile=2，cbor=3
+     */
+    int id();
+
+    /**
+     * 编码名称，配置中使用
+     */
+    String name();
+
+    /**
+     * 编码，value不会为null
+     *
+     * @return 返回null表示无法编码，会使用默认的序列化方式写入
+     */
+    byte[] encode(Object value);
+
+    /**
+     * 解码encode返回的数据
+     */
+    Object decode(byte[] bytes);
+
+    /**
+     * 按方法返回值声明的类型编码，声明的类型可以完整描述value时，编码结果中可以不再保存类型信息
+     *
+     * @param type 方法返回值声明的类型，Mono&lt;T&gt;为T，Flux&lt;T&gt;为List&lt;T&gt;，流式缓存的元素为T，无法获取时为null
+     */
+    default byte[] encode(Object value, JavaType type) {
+        return encode(value);
+    }
+
+    /**
+     * 按方法返回值声明的类型解码
+     *
+     * @param type 方法返回值声明的类型，与写入时的类型相同
+     */
+    default Object decode(byte[] bytes, JavaType type) {
+        return decode(bytes);
+    }
+}
@@ -0,0 +1,177 @@
+package com.hanqunfeng.reactive.redis.cache.codec;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.hanqunfeng.reactive.redis.cache.config.ReactiveRedisCacheProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <h1>缓存值编码解析</h1>
+ * default：ReactiveRedisTemplate的value序列化方式，即开启default typing的json，数据中没有编码头，与旧版本兼容
+ * 其它编码写入的数据：编码头(1字节，低4位为编码id，0x10表示已压缩) + [压缩id(1字节) + 原始长度(4字节)] + 编码数据
+ * 编码头小于0x20，而json以可见字符开头，空值标记以0开头，所以读取时可以区分旧的缓存和空值标记
+ * 方法返回值声明的类型由CacheOperationSource解析并缓存，读写时传递给编码，编码可以据此省略类型信息
+ * Created by hanqf on 2026/10/17 16:10.
+ */
+@Component
+@Slf4j
+public class CacheValueCodecResolver {
+
+    /**
+     * 默认编码，使用ReactiveRedisTemplate的value序列化方式
+     */
+    public static final String DEFAULT_CODEC = "default";
+
+    /**
+     * 不压缩
+     */
+    public static final String NO_COMPRESSION = "none";
+
+    private static final int CODEC_MASK = 0x0F;
+
+    private static final int COMPRESSED_FLAG = 0x10;
+
+    /**
+     * 编码头的上限，大于等于该值的为旧的缓存
+     */
+    private static final int HEADER_LIMIT = 0x20;
+
+    /**
+     * 压缩数据前的额外字节数：压缩id + 原始长度
+     */
+    private static final int COMPRESSED_HEADER_LENGTH = 5;
+
+    private final Map<String, CacheValueCodec> codecs = new HashMap<>();
+
+    private final CacheValueCodec[] codecsById = new CacheValueCodec[CODEC_MASK + 1];
+
+    private final Map<String, CacheValueCompressor> compressors = new HashMap<>();
+
+    private final CacheValueCompressor[] compressorsById = new CacheValueCompressor[256];
+
+    @Autowired
+    private ReactiveRedisTemplate reactiveRedisTemplate;
+
+    @Autowired
+    private ReactiveRedisCacheProperties properties;
+
+    @Autowired(required = false)
+    public void setCodecs(List<CacheValueCodec> codecList) {
+        for (CacheValueCodec codec : codecList) {
+            int id = codec.id();
+            if (id < 1 || id > CODEC_MASK) {
+                throw new IllegalStateException("Cache value codec id must be between 1 and 15: " + codec.name());
+            }
+            if (codecsById[id] != null) {
+                throw new IllegalStateException("Duplicate cache value codec id " + id + ": " + codecsById[id].name() + "," + codec.name());
+            }
+            codecsById[id] = codec;
+            codecs.put(codec.name(), codec);
+        }
+    }
+
+    @Autowired(required = false)
+    public void setCompressors(List<CacheValueCompressor> compressorList) {
+        for (CacheValueCompressor compressor : compressorList) {
+            int id = compressor.id();
+            if (id < 1 || id > 255) {
+                throw new IllegalStateException("Cache value compressor id must be between 1 and 255: " + compressor.name());
+            }
+            if (compressorsById[id] != null) {
+                throw new IllegalStateException("Duplicate cache value compressor id " + id + ": " + compressorsById[id].name() + "," + compressor.name());
+            }
+            compressorsById[id] = compressor;
+            compressors.put(compressor.name(), compressor);
+        }
+    }
+
+    private RedisSerializationContext.SerializationPair<Object> defaultSerializer() {
+        RedisSerializationContext<String, Object> context = reactiveRedisTemplate.getSerializationContext();
+        return context.getValueSerializationPair();
+    }
+
+    /**
+     * 按cacheName配置的编码和压缩方式编码，value不能为null
+     *
+     * @param type 方法返回值声明的类型，见CacheOperations#getValueType，可以为null
+     */
+    public ByteBuffer encode(String cacheName, Object value, JavaType type) {
+        String codecName = properties.getCodec(cacheName);
+        if (DEFAULT_CODEC.equals(codecName)) {
+            return defaultSerializer().write(value);
+        }
+        CacheValueCodec codec = codecs.get(codecName);
+        if (codec == null) {
+            throw new IllegalStateException("Unknown cache value codec: " + codecName);
+        }
+        byte[] bytes = codec.encode(value, type);
+        if (bytes == null) {
+            log.debug("The value of cacheName[{}] can not be encoded by codec[{}],use default", cacheName, codecName);
+            return defaultSerializer().write(value);
+        }
+
+        String compressionName = properties.getCompression(cacheName);
+        if (!NO_COMPRESSION.equals(compressionName) && bytes.length >= properties.getCompressionThreshold()) {
+            CacheValueCompressor compressor = compressors.get(compressionName);
+            if (compressor == null) {
+                throw new IllegalStateException("Unknown cache value compressor: " + compressionName);
+            }
+            byte[] compressed = compressor.compress(bytes);
+            //压缩后没有变小时不压缩
+            if (compressed.length + COMPRESSED_HEADER_LENGTH < bytes.length) {
+                ByteBuffer byteBuffer = ByteBuffer.allocate(1 + COMPRESSED_HEADER_LENGTH + compressed.length);
+                byteBuffer.put((byte) (codec.id() | COMPRESSED_FLAG))
+                        .put((byte) compressor.id())
+                        .putInt(bytes.length)
+                        .put(compressed)
+                        .flip();
+                return byteBuffer;
+            }
+        }
+        ByteBuffer byteBuffer = ByteBuffer.allocate(1 + bytes.length);
+        byteBuffer.put((byte) codec.id()).put(bytes).flip();
+        return byteBuffer;
+    }
+
+    /**
+     * 根据编码头解码，没有编码头的按默认编码解码
+     *
+     * @param type 方法返回值声明的类型，与写入时相同
+     */
+    public Object decode(ByteBuffer byteBuffer, JavaType type) {
+        int header = byteBuffer.get(byteBuffer.position()) & 0xFF;
+        if (header == 0 || header >= HEADER_LIMIT) {
+            return defaultSerializer().read(byteBuffer);
+        }
+        CacheValueCodec codec = codecsById[header & CODEC_MASK];
+        if (codec == null) {
+            throw new IllegalStateException("Unknown cache value codec id: " + (header & CODEC_MASK));
+        }
+        ByteBuffer data = byteBuffer.duplicate();
+        data.get();
+        byte[] bytes;
+        if ((header & COMPRESSED_FLAG) != 0) {
+            int compressorId = data.get() & 0xFF;
+            CacheValueCompressor compressor = compressorsById[compressorId];
+            if (compressor == null) {
+                throw new IllegalStateException("Unknown cache value compressor id: " + compressorId);
+            }
+            int originalLength = data.getInt();
+            byte[] compressed = new byte[data.remaining()];
+            data.get(compressed);
+            bytes = compressor.decompress(compressed, originalLength);
+        } else {
+            bytes = new byte[data.remaining()];
+            data.get(bytes);
+        }
+        return codec.decode(bytes, type);
+    }
+}
@@ -0,0 +1,29 @@
+package com.hanqunfeng.reactive.redis.cache.codec;
+
+/**
+ * <h1>缓存值压缩</h1>
+ * 编码后的数据超过reactive.redis.cache.compression-threshold字节时压缩，压缩后没有变小时不压缩
+ * 压缩后的数据：编码头 + 压缩id(1字节) + 原始长度(4字节) + 压缩数据
+ * Created by hanqf on 2026/10/17 16:10.
+ */
+public interface CacheValueCompressor {
+
+    /**
+     * 压缩id，取值范围1-255，不能与其它压缩重复，内置压缩：lz4=1，zstd=2
+     */
+    int id();
+
+    /**
+     * 压缩名称，配置中使用
+     */
+    String name();
+
+    byte[] compress(byte[] bytes);
+
+    /**
+     * 解压缩
+     *
+     * @param originalLength 压缩前的长度
+     */
+    byte[] decompress(byte[] bytes, int originalLength);
+}
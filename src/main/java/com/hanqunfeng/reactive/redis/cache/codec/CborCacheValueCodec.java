@@ -0,0 +1,32 @@
+package com.hanqunfeng.reactive.redis.cache.codec;
+
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.hanqunfeng.reactive.redis.cache.config.ReactiveRedisConfig;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.stereotype.Component;
+
+/**
+ * <h1>CBOR二进制编码</h1>
+ * 名称：cbor，id：3，需要引入jackson-dataformat-cbor依赖
+ * Created by hanqf on 2026/10/17 16:10.
+ */
+@Component
+@ConditionalOnClass(name = "com.fasterxml.jackson.dataformat.cbor.CBORFactory")
+public class CborCacheValueCodec extends AbstractJacksonCacheValueCodec {
+
+    public static final String NAME = "cbor";
+
+    public CborCacheValueCodec() {
+        super(ReactiveRedisConfig.cacheMapper(CBORMapper.builder()));
+    }
+
+    @Override
+    public int id() {
+        return 3;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+}
@@ -0,0 +1,30 @@
+package com.hanqunfeng.reactive.redis.cache.codec;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.hanqunfeng.reactive.redis.cache.config.ReactiveRedisConfig;
+import org.springframework.stereotype.Component;
+
+/**
+ * <h1>JSON编码</h1>
+ * 名称：jackson，id：1
+ * Created by hanqf on 2026/10/17 16:10.
+ */
+@Component
+public class JacksonCacheValueCodec extends AbstractJacksonCacheValueCodec {
+
+    public static final String NAME = "jackson";
+
+    public JacksonCacheValueCodec() {
+        super(ReactiveRedisConfig.cacheMapper(JsonMapper.builder()));
+    }
+
+    @Override
+    public int id() {
+        return 1;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+}
@@ -0,0 +1,39 @@
+package com.hanqunfeng.reactive.redis.cache.codec;
+
+import net.jpountz.lz4.LZ4Factory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.stereotype.Component;
+
+/**
+ * <h1>LZ4压缩</h1>
+ * 名称：lz4，id：1，需要引入lz4-java依赖，压缩率一般，但压缩和解压缩速度非常快
+ * Created by hanqf on 2026/10/17 16:10.
+ */
+@Component
+@ConditionalOnClass(name = "net.jpountz.lz4.LZ4Factory")
+public class Lz4CacheValueCompressor implements CacheValueCompressor {
+
+    public static final String NAME = "lz4";
+
+    private final LZ4Factory factory = LZ4Factory.fastestInstance();
+
+    @Override
+    public int id() {
+        return 1;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] compress(byte[] bytes) {
+        return factory.fastCompressor().compress(bytes);
+    }
+
+    @Override
+    public byte[] decompress(byte[] bytes, int originalLength) {
+        return factory.fastDecompressor().decompress(bytes, originalLength);
+    }
+}
@@ -0,0 +1,32 @@
+package com.hanqunfeng.reactive.redis.cache.codec;
+
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.hanqunfeng.reactive.redis.cache.config.ReactiveRedisConfig;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.stereotype.Component;
+
+/**
+ * <h1>Smile二进制编码</h1>
+ * 名称：smile，id：2，需要引入jackson-dataformat-smile依赖
+ * Created by hanqf on 2026/10/17 16:10.
+ */
+@Component
+@ConditionalOnClass(name = "com.fasterxml.jackson.dataformat.smile.SmileFactory")
+public class SmileCacheValueCodec extends AbstractJacksonCacheValueCodec {
+
+    public static final String NAME = "smile";
+
+    public SmileCacheValueCodec() {
+        super(ReactiveRedisConfig.cacheMapper(SmileMapper.builder()));
+    }
+
+    @Override
+    public int id() {
+        return 2;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+}
@@ -0,0 +1,649 @@
+package com.hanqunfeng.reactive.redis.cache.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.StringUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * <h1>响应式redis缓存配置</h1>
+ * 全局配置对全部cacheName生效，caches中可以按cacheName单独配置，单独配置的优先级更高
+ * <pre>
+ * reactive:
+ *   redis:
+ *     cache:
+ *       evict-strategy: scan
+ *       caches:
+ *         sys-user:
+ *           evict-strategy: index
+ * </pre>
+ * Created by hanqf on 2026/10/17 11:05.
+ */
+@Data
+@ConfigurationProperties(prefix = "reactive.redis.cache")
+public class ReactiveRedisCacheProperties {
+
+    /**
+     * 清除cacheName下全部缓存(allEntries)或模糊匹配(keys)时使用的策略，默认scan
+     * scan：SCAN游标分批遍历，UNLINK分批删除，不会阻塞redis
+     * index：写入缓存时将key记录到cacheName的索引集合中，清除时只遍历索引集合，不需要遍历全部key
+     * generation：key中包含cacheName的版本号，清除全部缓存只需要INCR版本号，旧的缓存等待过期
+     */
+    private String evictStrategy = "scan";
+
+    /**
+     * SCAN每次迭代的COUNT，同时也是每批UNLINK的key数量
+     */
+    private int scanCount = 1000;
+
+    /**
+     * 合并清除缓存的配置
+     */
+    private EvictCoalesceProperties evictCoalesce = new EvictCoalesceProperties();
+
+    /**
+     * generation策略下，本地缓存cacheName版本号的时间，单位毫秒，0表示每次都从redis读取
+     * 其它节点清除缓存后，本节点最多在这段时间内仍然读取旧版本的缓存
+     */
+    private long generationCacheMillis = 1000L;
+
+    /**
+     * index策略下，索引集合中有不过期的缓存时索引集合也不过期，写入时每隔这段时间在后台删除一次集合中已经过期的key，单位秒，0表示不删除
+     */
+    private long indexPruneInterval = 3600L;
+
+    /**
+     * 本地缓存(一级缓存)配置，caches中没有单独配置的cacheName使用该配置
+     */
+    private NearCacheProperties nearCache = new NearCacheProperties();
+
+    /**
+     * 本地缓存失效通知的redis频道，写入或清除缓存时发布消息，其它节点收到后删除自己的本地缓存
+     */
+    private String nearCacheChannel = "reactive-redis-cache:near-cache:invalidate";
+
+    /**
+     * Flux流式缓存配置，caches中没有单独配置的cacheName使用该配置
+     */
+    private FluxStreamProperties fluxStream = new FluxStreamProperties();
+
+    /**
+     * 缓存值的编码，默认default，即ReactiveRedisTemplate的value序列化方式
+     * 内置编码：jackson：json，每条缓存只保存一次类型；smile、cbor：二进制格式，需要引入对应的jackson-dataformat依赖
+     * 也可以实现CacheValueCodec接口并注册为spring bean
+     */
+    private String codec = "default";
+
+    /**
+     * 编码后的压缩方式，默认none，只对非default编码生效
+     * 内置压缩：lz4，需要引入lz4-java依赖；zstd，需要引入zstd-jni依赖
+     */
+    private String compression = "none";
+
+    /**
+     * 编码后超过该字节数时才压缩
+     */
+    private int compressionThreshold = 1024;
+
+    /**
+     * 过期时间随机化和提前重新计算的配置，caches中没有单独配置的cacheName使用该配置
+     */
+    private TtlProperties ttl = new TtlProperties();
+
+    /**
+     * 后台刷新缓存(refreshAhead、staleWhileRevalidate)的线程池配置
+     */
+    private RefreshProperties refresh = new RefreshProperties();
+
+    /**
+     * 大数据分块存储的配置，caches中没有单独配置的cacheName使用该配置
+     */
+    private LargeValueProperties largeValue = new LargeValueProperties();
+
+    /**
+     * 热点key探测的配置
+     */
+    private HotKeyProperties hotKey = new HotKeyProperties();
+
+    /**
+     * 布隆过滤器的配置，caches中没有单独配置的cacheName使用该配置
+     */
+    private BloomFilterProperties bloomFilter = new BloomFilterProperties();
+
+    /**
+     * 布隆过滤器新增key和重建时通知其它节点的redis频道
+     */
+    private String bloomFilterChannel = "reactive-redis-cache:bloom-filter:update";
+
+    /**
+     * hash存储的配置，caches中没有单独配置的cacheName使用该配置
+     */
+    private HashLayoutProperties hashLayout = new HashLayoutProperties();
+
+    /**
+     * 异步写入缓存的配置，caches中没有单独配置的cacheName使用该配置
+     */
+    private WriteBehindProperties writeBehind = new WriteBehindProperties();
+
+    /**
+     * redis cluster的hash tag模板，caches中没有单独配置的cacheName使用该配置，默认为空不使用hash tag
+     * #cacheName替换为cacheName，例如#cacheName使每个cacheName的全部key在同一个slot，多个cacheName配置相同的hash tag时也在同一个slot
+     */
+    private String hashTag;
+
+    /**
+     * 缓存预热的配置
+     */
+    private WarmUpProperties warmUp = new WarmUpProperties();
+
+    /**
+     * 缓存指标的配置，存在MeterRegistry时才会记录
+     */
+    private MetricsProperties metrics = new MetricsProperties();
+
+    /**
+     * 按cacheName单独配置
+     */
+    private Map<String, CacheProperties> caches = new HashMap<>();
+
+    /**
+     * 获取cacheName的清除策略
+     */
+    public String getEvictStrategy(String cacheName) {
+        CacheProperties cacheProperties = caches.get(cacheName);
+        if (cacheProperties != null && cacheProperties.getEvictStrategy() != null) {
+            return cacheProperties.getEvictStrategy();
+        }
+        return evictStrategy;
+    }
+
+    /**
+     * 获取cacheName的hash tag，没有配置时为null
+     */
+    public String getHashTag(String cacheName) {
+        CacheProperties cacheProperties = caches.get(cacheName);
+        String template = cacheProperties != null && cacheProperties.getHashTag() != null ? cacheProperties.getHashTag() : hashTag;
+        if (!StringUtils.hasText(template)) {
+            return null;
+        }
+        return template.replace("#cacheName", cacheName);
+    }
+
+    /**
+     * 获取cacheName的缓存key前缀，没有配置hash tag时为cacheName
+     * hash tag与cacheName相同时为{cacheName}，否则为{hashTag}cacheName
+     */
+    public String getKeyPrefix(String cacheName) {
+        String tag = getHashTag(cacheName);
+        if (tag == null) {
+            return cacheName;
+        }
+        return tag.equals(cacheName) ? "{" + cacheName + "}" : "{" + tag + "}" + cacheName;
+    }
+
+    /**
+     * 获取cacheName的本地缓存配置
+     */
+    public NearCacheProperties getNearCache(String cacheName) {
+        CacheProperties cacheProperties = caches.get(cacheName);
+        if (cacheProperties != null && cacheProperties.getNearCache() != null) {
+            return cacheProperties.getNearCache();
+        }
+        return nearCache;
+    }
+
+    /**
+     * 获取cacheName的Flux流式缓存配置
+     */
+    public FluxStreamProperties getFluxStream(String cacheName) {
+        CacheProperties cacheProperties = caches.get(cacheName);
+        if (cacheProperties != null && cacheProperties.getFluxStream() != null) {
+            return cacheProperties.getFluxStream();
+        }
+        return fluxStream;
+    }
+
+    /**
+     * 获取cacheName的编码
+     */
+    public String getCodec(String cacheName) {
+        CacheProperties cacheProperties = caches.get(cacheName);
+        if (cacheProperties != null && cacheProperties.getCodec() != null) {
+            return cacheProperties.getCodec();
+        }
+        return codec;
+    }
+
+    /**
+     * 获取cacheName的压缩方式
+     */
+    public String getCompression(String cacheName) {
+        CacheProperties cacheProperties = caches.get(cacheName);
+        if (cacheProperties != null && cacheProperties.getCompression() != null) {
+            return cacheProperties.getCompression();
+        }
+        return compression;
+    }
+
+    /**
+     * 获取cacheName的大数据分块存储配置
+     */
+    public LargeValueProperties getLargeValue(String cacheName) {
+        CacheProperties cacheProperties = caches.get(cacheName);
+        if (cacheProperties != null && cacheProperties.getLargeValue() != null) {
+            return cacheProperties.getLargeValue();
+        }
+        return largeValue;
+    }
+
+    /**
+     * cacheName是否开启热点key探测
+     */
+    public boolean isHotKey(String cacheName) {
+        CacheProperties cacheProperties = caches.get(cacheName);
+        if (cacheProperties != null && cacheProperties.getHotKey() != null) {
+            return cacheProperties.getHotKey();
+        }
+        return hotKey.isEnabled();
+    }
+
+    /**
+     * 获取cacheName的布隆过滤器配置
+     */
+    public BloomFilterProperties getBloomFilter(String cacheName) {
+        CacheProperties cacheProperties = caches.get(cacheName);
+        if (cacheProperties != null && cacheProperties.getBloomFilter() != null) {
+            return cacheProperties.getBloomFilter();
+        }
+        return bloomFilter;
+    }
+
+    /**
+     * 获取cacheName的hash存储配置
+     */
+    public HashLayoutProperties getHashLayout(String cacheName) {
+        CacheProperties cacheProperties = caches.get(cacheName);
+        if (cacheProperties != null && cacheProperties.getHashLayout() != null) {
+            return cacheProperties.getHashLayout();
+        }
+        return hashLayout;
+    }
+
+    /**
+     * cacheName是否异步写入缓存
+     */
+    public boolean isWriteBehind(String cacheName) {
+        CacheProperties cacheProperties = caches.get(cacheName);
+        if (cacheProperties != null && cacheProperties.getWriteBehind() != null) {
+            return cacheProperties.getWriteBehind();
+        }
+        return writeBehind.isEnabled();
+    }
+
+    /**
+     * 获取cacheName的过期时间配置
+     */
+    public TtlProperties getTtl(String cacheName) {
+        CacheProperties cacheProperties = caches.get(cacheName);
+        if (cacheProperties != null && cacheProperties.getTtl() != null) {
+            return cacheProperties.getTtl();
+        }
+        return ttl;
+    }
+
+    @Data
+    public static class CacheProperties {
+        /**
+         * 清除策略，为空时使用全局配置
+         */
+        private String evictStrategy;
+
+        /**
+         * 本地缓存配置，为空时使用全局配置
+         */
+        private NearCacheProperties nearCache;
+
+        /**
+         * Flux流式缓存配置，为空时使用全局配置
+         */
+        private FluxStreamProperties fluxStream;
+
+        /**
+         * 缓存值的编码，为空时使用全局配置
+         */
+        private String codec;
+
+        /**
+         * 压缩方式，为空时使用全局配置
+         */
+        private String compression;
+
+        /**
+         * 过期时间随机化和提前重新计算的配置，为空时使用全局配置
+         */
+        private TtlProperties ttl;
+
+        /**
+         * 大数据分块存储配置，为空时使用全局配置
+         */
+        private LargeValueProperties largeValue;
+
+        /**
+         * 是否开启热点key探测，为空时使用全局配置，阈值等配置只能全局配置
+         */
+        private Boolean hotKey;
+
+        /**
+         * 布隆过滤器配置，为空时使用全局配置
+         */
+        private BloomFilterProperties bloomFilter;
+
+        /**
+         * hash存储配置，为空时使用全局配置
+         */
+        private HashLayoutProperties hashLayout;
+
+        /**
+         * redis cluster的hash tag模板，为空时使用全局配置，配置为空字符串时不使用hash tag
+         */
+        private String hashTag;
+
+        /**
+         * 是否异步写入缓存，为空时使用全局配置，队列等配置只能全局配置
+         */
+        private Boolean writeBehind;
+    }
+
+    @Data
+    public static class EvictCoalesceProperties {
+        /**
+         * 是否合并清除缓存，默认false
+         * 开启后一段时间内全部请求需要清除的key合并为一次UNLINK，相同的allEntries和模糊匹配只执行一次
+         */
+        private boolean enabled = false;
+
+        /**
+         * 合并的时间窗口，单位毫秒，第一个清除请求到达后等待这段时间再执行
+         */
+        private long window = 2L;
+    }
+
+    @Data
+    public static class NearCacheProperties {
+        /**
+         * 是否开启本地缓存，默认false，也可以通过ReactiveRedisCacheable的nearCache属性开启
+         */
+        private boolean enabled = false;
+
+        /**
+         * 淘汰策略，tinylfu：基于caffeine的W-TinyLFU，需要引入caffeine依赖，没有时使用lru；lru：最近最少使用
+         */
+        private String eviction = "tinylfu";
+
+        /**
+         * 最大缓存数量
+         */
+        private long maximumSize = 10000L;
+
+        /**
+         * 最大权重，即缓存数据序列化后的总字节数，大于0时代替maximumSize
+         */
+        private long maximumWeight = 0L;
+
+        /**
+         * 过期时间，单位秒，不会超过注解中的timeout，0或负数时使用注解中的timeout
+         */
+        private long timeout = 60L;
+
+        /**
+         * 是否保存序列化后的字节，默认true，每次命中时重新反序列化，调用方得到的是各自的对象
+         * 缓存对象不可变时可以设置为false，保存反序列化后的对象，命中时返回同一个对象，不需要反序列化
+         */
+        private boolean storeByValue = true;
+    }
+
+    @Data
+    public static class FluxStreamProperties {
+        /**
+         * 是否开启Flux流式缓存，默认false
+         * 开启后Flux的每个元素单独序列化，分批RPUSH到redis的list中，Flux完成时再原子的替换缓存key，命中时分页LRANGE读取
+         * 同一个cacheName的读取和写入必须使用相同的配置
+         */
+        private boolean enabled = false;
+
+        /**
+         * 每批RPUSH的元素数量
+         */
+        private int chunkSize = 100;
+
+        /**
+         * 命中缓存时每页LRANGE的元素数量
+         */
+        private int pageSize = 100;
+
+        /**
+         * 写入过程中临时key的过期时间，单位秒，每写入一批都会重新设置，用于清理中断的写入
+         */
+        private long pendingTimeout = 600L;
+
+        /**
+         * 缓存被替换后旧版本保留的时间，单位秒，分页读取过程中缓存被替换时继续读取旧版本，超过这个时间仍未读完的读取会收到异常，0表示不保留
+         */
+        private long retainTimeout = 60L;
+    }
+
+    @Data
+    public static class TtlProperties {
+        /**
+         * 过期时间随机减少的比例，取值0~1，默认0不开启，如0.1表示过期时间在timeout*0.9~timeout之间随机
+         * 对timeout和cacheNullTimeout都生效，同时写入的缓存不会在同一时刻过期
+         */
+        private double jitter = 0;
+
+        /**
+         * 过期时间随机减少的秒数，默认0不开启，与jitter同时配置时两者相加，过期时间最少为1秒
+         */
+        private long jitterSeconds = 0;
+
+        /**
+         * XFetch提前重新计算的beta值，默认0不开启，只对ReactiveRedisCacheable生效
+         * 命中缓存时按方法主体的平均执行时间和剩余过期时间计算提前重新计算的概率，越接近过期概率越大，beta越大越倾向于提前计算
+         * 重新计算在后台执行，与refreshAhead相同
+         */
+        private double earlyExpirationBeta = 0;
+    }
+
+    @Data
+    public static class LargeValueProperties {
+        /**
+         * 分块的大小，单位字节，默认0不分块
+         * 序列化后超过该大小的缓存拆分为多个块分别写入，原来的key中只保存块的清单，读取时并发读取全部块后再合并
+         */
+        private int chunkSize = 0;
+
+        /**
+         * 缓存的最大字节数，默认0不限制，序列化后超过该大小的数据不缓存
+         */
+        private long maxSize = 0L;
+
+        /**
+         * timeout为0或负数(不过期)的分块缓存使用的过期时间，单位秒，默认1天，块不会永不过期
+         */
+        private long persistentTimeout = 86400L;
+
+        /**
+         * 每次MGET读取的块数量，只能全局配置
+         */
+        private int fetchBatch = 4;
+    }
+
+    @Data
+    public static class HotKeyProperties {
+        /**
+         * 是否开启热点key探测，默认false
+         * 开启后统计每个key在时间窗口内的访问次数，超过阈值的key缓存在本地，不再访问redis
+         */
+        private boolean enabled = false;
+
+        /**
+         * 时间窗口内的访问次数超过该值时为热点key
+         */
+        private long threshold = 1000L;
+
+        /**
+         * 统计的时间窗口，单位毫秒，窗口结束时访问次数低于阈值的热点key会被移除
+         */
+        private long window = 1000L;
+
+        /**
+         * 采样比例，取值0~1，默认1全部统计，访问次数按采样比例换算
+         */
+        private double sampleRate = 1.0;
+
+        /**
+         * Count-Min Sketch每行的计数器数量，会向上取整为2的幂，越大误差越小
+         */
+        private int sketchWidth = 4096;
+
+        /**
+         * 热点key的最大数量
+         */
+        private int maximumSize = 100;
+
+        /**
+         * 热点key在本地缓存的时间，单位秒，不会超过注解中的timeout
+         * 其它节点更新缓存后，本节点最多在这段时间内仍然读取旧数据
+         */
+        private long timeout = 1L;
+    }
+
+    @Data
+    public static class BloomFilterProperties {
+        /**
+         * 是否开启布隆过滤器，默认false
+         * 开启后先判断key是否可能存在，一定不存在的key直接返回空，不访问redis也不执行方法主体
+         */
+        private boolean enabled = false;
+
+        /**
+         * 预计的key数量，与误判率一起决定位图的大小，修改后需要重建
+         */
+        private long expectedInsertions = 1000000L;
+
+        /**
+         * 误判率，误判的key仍然会访问redis和执行方法主体
+         */
+        private double falsePositiveProbability = 0.01;
+
+        /**
+         * 从redis重新加载位图的间隔，单位秒，0或负数不定时加载
+         * 新增的key会通过频道通知其它节点，定时加载用于补偿频道断开期间丢失的通知，只能全局配置
+         */
+        private long syncInterval = 300L;
+    }
+
+    @Data
+    public static class HashLayoutProperties {
+        /**
+         * 是否使用hash存储，默认false，每个缓存都是一个string类型的key
+         * 开启后cacheName下的缓存按key的hash值分散到多个hash中，key为hash的field，适合大量的小数据
+         */
+        private boolean enabled = false;
+
+        /**
+         * hash的数量，修改后已有的缓存将无法读取，等待过期或清除
+         * 每个hash中的field数量不超过hash-max-listpack-entries(默认128)时redis使用更紧凑的listpack编码
+         */
+        private int buckets = 1024;
+    }
+
+    @Data
+    public static class WriteBehindProperties {
+        /**
+         * 是否异步写入缓存，默认false
+         * 开启后方法的结果直接发射给下游，写入缓存的操作放入队列，由后台分批写入redis
+         */
+        private boolean enabled = false;
+
+        /**
+         * 等待写入的key的最大数量，超过时放弃写入，相同key的多次写入只保留最后一次
+         */
+        private int queueCapacity = 10000;
+
+        /**
+         * 每批写入的最大数量，同一批的写入以pipeline的方式发送
+         */
+        private int batchSize = 100;
+
+        /**
+         * 第一次写入放入队列后等待的时间，单位毫秒，等待期间相同key的写入会被合并
+         */
+        private long flushInterval = 10L;
+    }
+
+    @Data
+    public static class WarmUpProperties {
+        /**
+         * 是否开启缓存预热，默认true，只有存在CacheWarmer或warmUp=true的方法时才会执行
+         */
+        private boolean enabled = true;
+
+        /**
+         * 应用启动完成(ApplicationReadyEvent)后是否执行预热，默认true
+         */
+        private boolean onStartup = true;
+
+        /**
+         * 定时执行预热的cron表达式(秒 分 时 日 月 周)，默认为空不定时执行
+         */
+        private String cron;
+
+        /**
+         * 并发执行的方法调用的最大数量
+         */
+        private int parallelism = 4;
+
+        /**
+         * 每秒执行的方法调用的最大数量，默认0不限制
+         */
+        private int rate = 0;
+
+        /**
+         * 单次方法调用的超时时间，单位毫秒，超时的调用记为失败
+         */
+        private long timeout = 10000L;
+    }
+
+    @Data
+    public static class RefreshProperties {
+        /**
+         * 后台刷新的最大线程数，默认cpu核数的2倍
+         */
+        private int threadCap = Runtime.getRuntime().availableProcessors() * 2;
+
+        /**
+         * 等待执行的刷新任务的最大数量，超过时放弃刷新
+         */
+        private int queuedTaskCap = 1000;
+
+        /**
+         * 同时进行的刷新任务的最大数量，包括已经切换到redis或其它异步线程上执行的任务，超过时放弃刷新
+         */
+        private int maxConcurrent = 64;
+    }
+
+    @Data
+    public static class MetricsProperties {
+        /**
+         * 是否记录缓存指标，默认true，存在MeterRegistry时才会记录
+         */
+        private boolean enabled = true;
+
+        /**
+         * 时间和字节数指标是否发布直方图，用于计算百分位数，默认false
+         */
+        private boolean percentileHistogram = false;
+    }
+}
@@ -8,6 +8,7 @@ import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.MapperFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.cfg.MapperBuilder;
 import com.fasterxml.jackson.databind.json.JsonMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateDeserializer;
@@ -16,11 +17,19 @@ import com.fasterxml.jackson.datatype.jsr310.deser.LocalTimeDeserializer;
 import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateSerializer;
 import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
 import com.fasterxml.jackson.datatype.jsr310.ser.LocalTimeSerializer;
+import com.hanqunfeng.reactive.redis.cache.metrics.CacheMetrics;
+import com.hanqunfeng.reactive.redis.cache.metrics.MicrometerCacheMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
 import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
@@ -44,6 +53,7 @@ import java.util.TimeZone;
 @AutoConfiguration
 @ComponentScan(basePackages = "com.hanqunfeng.reactive.redis.cache")
 @EnableAspectJAutoProxy
+@EnableConfigurationProperties(ReactiveRedisCacheProperties.class)
 @Slf4j
 public class ReactiveRedisConfig {
 
@@ -61,7 +71,7 @@ public class ReactiveRedisConfig {
     public static final String DEFAULT_TIME_FORMAT = "HH:mm:ss";
 
 
-    private JavaTimeModule getJavaTimeModule() {
+    private static JavaTimeModule getJavaTimeModule() {
         //LocalDateTime系列序列化和反序列化模块，继承自jsr310，我们在这里修改了日期格式
         JavaTimeModule javaTimeModule = new JavaTimeModule();
 
@@ -83,6 +93,29 @@ public class ReactiveRedisConfig {
     }
 
 
+    /**
+     * 缓存使用的ObjectMapper的公共配置，不包含类型信息，json、smile、cbor等格式共用
+     */
+    public static <M extends ObjectMapper, B extends MapperBuilder<M, B>> M cacheMapper(B builder) {
+        return builder
+                .visibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY)
+                // 去掉各种@JsonSerialize注解的解析
+                .configure(MapperFeature.USE_ANNOTATIONS, false)
+                // 遇到未知属性时不报错
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+                // 空对象时不报错
+                .configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false)
+                // 只针对⾮空的值进⾏序列化
+                .serializationInclusion(JsonInclude.Include.NON_NULL)
+                .defaultDateFormat(new SimpleDateFormat(DEFAULT_DATE_TIME_FORMAT))
+                .defaultTimeZone(TimeZone.getTimeZone("GMT+8"))
+                //忽略重复模块注册
+                .disable(MapperFeature.IGNORE_DUPLICATE_MODULE_REGISTRATIONS)
+                //注册模块
+                .addModule(getJavaTimeModule())
+                .build();
+    }
+
     private ObjectMapper jsonMapper() {
         JsonMapper jsonMapper = JsonMapper.builder()
                 .visibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY)
@@ -181,5 +214,32 @@ public class ReactiveRedisConfig {
         return redisTemplate;
     }
 
+    /**
+     * 没有MeterRegistry或关闭指标时不记录缓存指标
+     */
+    @Bean
+    @ConditionalOnMissingBean(value = CacheMetrics.class)
+    public CacheMetrics noopCacheMetrics() {
+        return CacheMetrics.NOOP;
+    }
 
+    /**
+     * 存在micrometer并且容器中有MeterRegistry时记录缓存指标
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+    @ConditionalOnProperty(prefix = "reactive.redis.cache.metrics", name = "enabled", matchIfMissing = true)
+    static class CacheMetricsConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean(value = CacheMetrics.class)
+        public CacheMetrics cacheMetrics(ObjectProvider<MeterRegistry> meterRegistry, ReactiveRedisCacheProperties properties) {
+            MeterRegistry registry = meterRegistry.getIfUnique();
+            if (registry == null) {
+                return CacheMetrics.NOOP;
+            }
+            log.debug("开启 MicrometerCacheMetrics");
+            return new MicrometerCacheMetrics(registry, properties.getMetrics());
+        }
+    }
 }
@@ -0,0 +1,174 @@
+package com.hanqunfeng.reactive.redis.cache.evict;
+
+import com.hanqunfeng.reactive.redis.cache.cluster.RedisClusterSupport;
+import com.hanqunfeng.reactive.redis.cache.config.ReactiveRedisCacheProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * <h1>合并清除缓存</h1>
+ * 时间窗口内全部请求需要清除的key去重后合并为一次UNLINK(超过scanCount时分批)，不再逐个判断key是否存在
+ * 相同cacheName的allEntries和相同的模糊匹配在窗口内只执行一次
+ * 每个请求返回的Mono在其所在批次的清除完成后结束，beforeInvocation=true时方法主体仍然在清除完成后才执行
+ * Created by hanqf on 2026/10/17 22:30.
+ */
+@Component
+@Slf4j
+public class CacheEvictCoalescer implements InitializingBean, DisposableBean {
+
+    private Batch current;
+
+    private Scheduler scheduler;
+
+    @Autowired
+    private ReactiveRedisCacheProperties properties;
+
+    @Autowired
+    private RedisClusterSupport clusterSupport;
+
+    @Override
+    public void afterPropertiesSet() {
+        if (properties.getEvictCoalesce().isEnabled()) {
+            scheduler = Schedulers.newSingle("reactive-redis-cache-evict", true);
+        }
+    }
+
+    /**
+     * 删除key，没有开启合并时直接UNLINK
+     */
+    public Mono<Void> unlink(Collection<String> redisKeys) {
+        if (scheduler == null) {
+            return clusterSupport.unlink(redisKeys).then();
+        }
+        return Mono.defer(() -> {
+            Sinks.Empty<Void> done;
+            synchronized (this) {
+                Batch batch = batch();
+                batch.keys.addAll(redisKeys);
+                done = batch.unlinked;
+            }
+            return done.asMono();
+        });
+    }
+
+    /**
+     * 清除全部缓存或模糊匹配的缓存，窗口内相同id的清除只执行第一次提交的clear
+     *
+     * @param id    清除的标识，如cacheName或cacheName和模糊匹配的key组成的list
+     * @param clear 实际的清除操作
+     */
+    public Mono<Void> clear(Object id, Supplier<Mono<Void>> clear) {
+        if (scheduler == null) {
+            return Mono.defer(clear);
+        }
+        return Mono.defer(() -> {
+            Sinks.Empty<Void> done;
+            synchronized (this) {
+                done = batch().clears.computeIfAbsent(id, k -> new PendingClear(clear)).done;
+            }
+            return done.asMono();
+        });
+    }
+
+    /**
+     * 获取当前窗口的批次，没有时创建并在窗口结束后执行
+     */
+    private Batch batch() {
+        if (current == null) {
+            current = new Batch();
+            scheduler.schedule(this::flush, properties.getEvictCoalesce().getWindow(), TimeUnit.MILLISECONDS);
+        }
+        return current;
+    }
+
+    private void flush() {
+        Batch batch;
+        synchronized (this) {
+            batch = current;
+            current = null;
+        }
+        if (batch == null) {
+            return;
+        }
+        execute(batch).subscribe();
+    }
+
+    /**
+     * UNLINK和清除同时执行，分别通知等待的请求
+     */
+    private Mono<Void> execute(Batch batch) {
+        Mono<Void> unlink = Mono.empty();
+        if (!batch.keys.isEmpty()) {
+            log.debug("Coalesced evict {} keys,{} clears", batch.keys.size(), batch.clears.size());
+            unlink = Flux.fromIterable(batch.keys)
+                    .buffer(properties.getScanCount())
+                    .concatMap(clusterSupport::unlink)
+                    .then();
+        }
+        Mono<Void> keys = notify(unlink, batch.unlinked);
+        Flux<Void> clears = Flux.fromIterable(batch.clears.values())
+                .flatMap(pending -> notify(Mono.defer(pending.clear), pending.done));
+        return Mono.when(keys, clears);
+    }
+
+    private static Mono<Void> notify(Mono<Void> task, Sinks.Empty<Void> done) {
+        return task
+                .doOnSuccess(v -> done.tryEmitEmpty())
+                .onErrorResume(e -> {
+                    done.tryEmitError(e);
+                    return Mono.empty();
+                });
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduler == null) {
+            return;
+        }
+        Batch batch;
+        synchronized (this) {
+            batch = current;
+            current = null;
+        }
+        if (batch != null) {
+            execute(batch).block();
+        }
+        scheduler.dispose();
+    }
+
+    private static class Batch {
+
+        private final Set<String> keys = new LinkedHashSet<>();
+
+        private final Sinks.Empty<Void> unlinked = Sinks.empty();
+
+        private final Map<Object, PendingClear> clears = new LinkedHashMap<>();
+    }
+
+    private static class PendingClear {
+
+        private final Supplier<Mono<Void>> clear;
+
+        private final Sinks.Empty<Void> done = Sinks.empty();
+
+        PendingClear(Supplier<Mono<Void>> clear) {
+            this.clear = clear;
+        }
+    }
+}
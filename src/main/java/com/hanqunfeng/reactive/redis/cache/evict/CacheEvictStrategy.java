@@ -0,0 +1,48 @@
+package com.hanqunfeng.reactive.redis.cache.evict;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * <h1>缓存清除策略</h1>
+ * 用于清除cacheName下的全部缓存(allEntries)或模糊匹配的缓存(keys)
+ * 可以自定义实现并注册为spring bean，然后通过reactive.redis.cache.evict-strategy指定name
+ * Created by hanqf on 2026/10/17 11:12.
+ */
+public interface CacheEvictStrategy {
+
+    /**
+     * 策略名称，对应配置中的evict-strategy
+     */
+    String name();
+
+    /**
+     * cacheName下缓存key的前缀，缓存key为namespace+":"+key
+     */
+    default Mono<String> namespace(String cacheName) {
+        return Mono.just(cacheName);
+    }
+
+    /**
+     * 缓存写入后调用
+     *
+     * @param cacheName 缓存分组
+     * @param redisKey  完整的缓存key
+     * @param timeout   缓存过期时间，单位秒，0或负数表示不过期
+     */
+    default Mono<Void> afterWrite(String cacheName, String redisKey, long timeout) {
+        return Mono.empty();
+    }
+
+    /**
+     * 清除cacheName下的全部缓存，返回删除的key数量
+     */
+    Mono<Long> clear(String cacheName);
+
+    /**
+     * 清除cacheName下匹配keyPattern的缓存，返回删除的key数量
+     *
+     * @param cacheName  缓存分组
+     * @param keyPattern 不包含cacheName的key模式，支持*、?、[abc]通配符
+     */
+    Mono<Long> clear(String cacheName, String keyPattern);
+}
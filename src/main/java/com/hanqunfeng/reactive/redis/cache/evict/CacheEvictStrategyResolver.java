@@ -0,0 +1,43 @@
+package com.hanqunfeng.reactive.redis.cache.evict;
+
+import com.hanqunfeng.reactive.redis.cache.config.ReactiveRedisCacheProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <h1>根据配置获取cacheName对应的缓存清除策略</h1>
+ * Created by hanqf on 2026/10/17 11:58.
+ */
+@Component
+public class CacheEvictStrategyResolver {
+
+    private final Map<String, CacheEvictStrategy> strategies = new ConcurrentHashMap<>();
+
+    @Autowired
+    private ReactiveRedisCacheProperties properties;
+
+    @Autowired
+    public void setStrategies(List<CacheEvictStrategy> strategies) {
+        strategies.forEach(strategy -> this.strategies.put(strategy.name(), strategy));
+    }
+
+    /**
+     * 获取cacheName对应的清除策略，cacheName为空时使用scan策略
+     */
+    public CacheEvictStrategy resolve(String cacheName) {
+        if (!StringUtils.hasText(cacheName)) {
+            return strategies.get(ScanCacheEvictStrategy.NAME);
+        }
+        String name = properties.getEvictStrategy(cacheName);
+        CacheEvictStrategy strategy = strategies.get(name);
+        if (strategy == null) {
+            throw new IllegalStateException("Unknown evict strategy: " + name);
+        }
+        return strategy;
+    }
+}
@@ -0,0 +1,70 @@
+package com.hanqunfeng.reactive.redis.cache.evict;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <h1>基于版本号的缓存清除策略</h1>
+ * 缓存key为cacheName+":"+版本号+":"+key，清除cacheName下全部缓存只需要INCR一次版本号，旧版本的缓存不再被读取，等待过期即可
+ * 注意：不过期(timeout为0或负数)的缓存在清除后不会被自动删除
+ * Created by hanqf on 2026/10/17 11:46.
+ */
+@Component
+@Slf4j
+public class GenerationCacheEvictStrategy extends ScanCacheEvictStrategy {
+
+    public static final String NAME = "generation";
+
+    /**
+     * 版本号key的后缀
+     */
+    public static final String GENERATION_SUFFIX = ":__generation__";
+
+    /**
+     * 本地缓存的版本号，value为[版本号,读取时间]
+     */
+    private final Map<String, long[]> generations = new ConcurrentHashMap<>(64);
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    private String generationKey(String cacheName) {
+        return cacheName + GENERATION_SUFFIX;
+    }
+
+    private ReactiveValueOperations<String, String> opsForValue() {
+        return reactiveRedisTemplate.opsForValue(STRING_CONTEXT);
+    }
+
+    @Override
+    public Mono<String> namespace(String cacheName) {
+        long[] cached = generations.get(cacheName);
+        if (cached != null && System.currentTimeMillis() - cached[1] < properties.getGenerationCacheMillis()) {
+            return Mono.just(properties.getKeyPrefix(cacheName) + ":" + cached[0]);
+        }
+        return opsForValue().get(generationKey(cacheName))
+                .map(Long::parseLong)
+                .defaultIfEmpty(0L)
+                .map(generation -> {
+                    generations.put(cacheName, new long[]{generation, System.currentTimeMillis()});
+                    return properties.getKeyPrefix(cacheName) + ":" + generation;
+                });
+    }
+
+    @Override
+    public Mono<Long> clear(String cacheName) {
+        return opsForValue().increment(generationKey(cacheName))
+                .doOnNext(generation -> {
+                    generations.put(cacheName, new long[]{generation, System.currentTimeMillis()});
+                    log.debug("The cacheName[{}] generation has been increased to {}", cacheName, generation);
+                })
+                .thenReturn(0L);
+    }
+}
@@ -0,0 +1,154 @@
+package com.hanqunfeng.reactive.redis.cache.evict;
+
+import com.hanqunfeng.reactive.redis.cache.chunk.CacheValueChunker;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.ReactiveSetOperations;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisElementReader;
+import org.springframework.data.redis.serializer.RedisElementWriter;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <h1>基于索引集合的缓存清除策略</h1>
+ * 写入缓存时将key记录到cacheName的索引集合(SET)中，清除时只遍历索引集合，复杂度为O(集合成员数)，不需要遍历全部key
+ * 索引集合的过期时间延长到其中最长的过期时间，集合中有不过期的缓存时集合也不过期，这时写入时每隔indexPruneInterval在后台删除一次已经过期的key
+ * Created by hanqf on 2026/10/17 11:31.
+ */
+@Component
+@Slf4j
+public class IndexCacheEvictStrategy extends ScanCacheEvictStrategy {
+
+    public static final String NAME = "index";
+
+    /**
+     * 索引集合key的后缀
+     */
+    public static final String INDEX_SUFFIX = ":__index__";
+
+    /**
+     * 加入索引集合并延长集合的过期时间，返回集合剩余的过期时间，-1表示集合不过期
+     */
+    private static final RedisScript<Long> ADD_SCRIPT = RedisScript.of(
+            "local existed = redis.call('exists', KEYS[1]) " +
+                    "redis.call('sadd', KEYS[1], ARGV[1]) " +
+                    "local ttl = tonumber(ARGV[2]) " +
+                    "if ttl <= 0 then redis.call('persist', KEYS[1]) return -1 end " +
+                    "local current = redis.call('pttl', KEYS[1]) " +
+                    "if existed == 0 or (current >= 0 and current < ttl) then redis.call('pexpire', KEYS[1], ttl) return ttl end " +
+                    "return current", Long.class);
+
+    private static final GenericToStringSerializer<Long> LONG_SERIALIZER = new GenericToStringSerializer<>(Long.class);
+
+    private static final RedisElementWriter<Object> ARGS_WRITER = element -> ByteBuffer.wrap(StringRedisSerializer.UTF_8.serialize(element.toString()));
+
+    /**
+     * cacheName上次删除索引集合中过期key的时间
+     */
+    private final Map<String, Long> lastPrune = new ConcurrentHashMap<>();
+
+    @Autowired
+    private CacheValueChunker chunker;
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    private ReactiveSetOperations<String, String> opsForSet() {
+        return reactiveRedisTemplate.opsForSet(STRING_CONTEXT);
+    }
+
+    private String indexKey(String cacheName) {
+        return cacheName + INDEX_SUFFIX;
+    }
+
+    @Override
+    public Mono<Void> afterWrite(String cacheName, String redisKey, long timeout) {
+        List<Object> args = Arrays.asList(redisKey, timeout > 0 ? timeout * 1000 : 0);
+        Flux<Long> result = reactiveRedisTemplate.execute(ADD_SCRIPT, Collections.singletonList(indexKey(cacheName)), args,
+                ARGS_WRITER, RedisElementReader.from(LONG_SERIALIZER));
+        return result.next()
+                .doOnNext(ttl -> {
+                    if (ttl < 0) {
+                        pruneInBackground(cacheName);
+                    }
+                })
+                .then();
+    }
+
+    /**
+     * 删除索引集合中已经过期的key，返回删除的数量
+     */
+    public Mono<Long> prune(String cacheName) {
+        String indexKey = indexKey(cacheName);
+        Flux<String> members = opsForSet().scan(indexKey, ScanOptions.scanOptions().count(properties.getScanCount()).build());
+        return members.buffer(properties.getScanCount())
+                .concatMap(batch -> Flux.fromIterable(batch)
+                        .filterWhen(key -> {
+                            Mono<Boolean> exists = reactiveRedisTemplate.hasKey(key);
+                            return exists.map(b -> !b);
+                        })
+                        .collectList()
+                        .flatMap(expired -> expired.isEmpty() ? Mono.just(0L) : opsForSet().remove(indexKey, expired.toArray())))
+                .reduce(0L, Long::sum)
+                .doOnNext(count -> log.debug("The index[{}] has been pruned,count:{}", indexKey, count));
+    }
+
+    /**
+     * 不过期的索引集合每隔indexPruneInterval删除一次过期的key
+     */
+    private void pruneInBackground(String cacheName) {
+        long interval = properties.getIndexPruneInterval() * 1000;
+        if (interval <= 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Long last = lastPrune.putIfAbsent(cacheName, now);
+        if (last != null && (now - last < interval || !lastPrune.replace(cacheName, last, now))) {
+            return;
+        }
+        prune(cacheName).subscribe(null, e -> log.warn("Prune the index of cacheName[{}] failed: {}", cacheName, e.toString()));
+    }
+
+    @Override
+    public Mono<Long> clear(String cacheName) {
+        String indexKey = indexKey(cacheName);
+        Flux<String> members = opsForSet().scan(indexKey, ScanOptions.scanOptions().count(properties.getScanCount()).build());
+        return members.buffer(properties.getScanCount())
+                .concatMap(batch -> deleteChunks(cacheName, batch).then(clusterSupport.unlink(batch)))
+                .reduce(0L, Long::sum)
+                .flatMap(count -> clusterSupport.unlink(Collections.singletonList(indexKey)).map(n -> count + n))
+                .doOnNext(count -> log.debug("The index[{}] has been cleared,count:{}", indexKey, count));
+    }
+
+    @Override
+    public Mono<Long> clear(String cacheName, String keyPattern) {
+        String indexKey = indexKey(cacheName);
+        Flux<String> members = opsForSet().scan(indexKey, ScanOptions.scanOptions().match(properties.getKeyPrefix(cacheName) + ":" + keyPattern).count(properties.getScanCount()).build());
+        return members.buffer(properties.getScanCount())
+                .concatMap(batch -> deleteChunks(cacheName, batch).then(clusterSupport.unlink(batch))
+                        .flatMap(count -> opsForSet().remove(indexKey, batch.toArray()).thenReturn(count)))
+                .reduce(0L, Long::sum)
+                .doOnNext(count -> log.debug("The key[{}:{}] has been cleared,count:{}", cacheName, keyPattern, count));
+    }
+
+    /**
+     * 索引集合中只有清单的key，根据清单删除分块存储的块
+     */
+    private Mono<Long> deleteChunks(String cacheName, List<String> redisKeys) {
+        return chunker.isEnabled(cacheName) ? chunker.deleteChunks(redisKeys) : Mono.just(0L);
+    }
+}
@@ -0,0 +1,80 @@
+package com.hanqunfeng.reactive.redis.cache.evict;
+
+import com.hanqunfeng.reactive.redis.cache.cluster.RedisClusterSupport;
+import com.hanqunfeng.reactive.redis.cache.config.ReactiveRedisCacheProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * <h1>基于SCAN的缓存清除策略</h1>
+ * 使用SCAN游标分批遍历匹配的key，每批使用一次UNLINK删除，不会像KEYS一样阻塞redis
+ * Created by hanqf on 2026/10/17 11:20.
+ */
+@Component
+@Slf4j
+public class ScanCacheEvictStrategy implements CacheEvictStrategy {
+
+    public static final String NAME = "scan";
+
+    protected static final RedisSerializationContext<String, String> STRING_CONTEXT = RedisSerializationContext.fromSerializer(StringRedisSerializer.UTF_8);
+
+    @Autowired
+    protected ReactiveRedisTemplate reactiveRedisTemplate;
+
+    @Autowired
+    protected RedisClusterSupport clusterSupport;
+
+    @Autowired
+    protected ReactiveRedisCacheProperties properties;
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    /**
+     * 配置了hash tag时前缀中包含hash tag
+     */
+    @Override
+    public Mono<String> namespace(String cacheName) {
+        return Mono.just(properties.getKeyPrefix(cacheName));
+    }
+
+    @Override
+    public Mono<Long> clear(String cacheName) {
+        return namespace(cacheName).flatMap(namespace -> scanAndUnlink(namespace + ":*"));
+    }
+
+    @Override
+    public Mono<Long> clear(String cacheName, String keyPattern) {
+        if (!StringUtils.hasText(cacheName)) {
+            return scanAndUnlink(keyPattern);
+        }
+        return namespace(cacheName).flatMap(namespace -> scanAndUnlink(namespace + ":" + keyPattern));
+    }
+
+    /**
+     * SCAN遍历匹配pattern的key，分批UNLINK，redis cluster时在全部主节点上并发SCAN
+     */
+    protected Mono<Long> scanAndUnlink(String pattern) {
+        Flux<String> keys = clusterSupport.scan(pattern, properties.getScanCount());
+        return unlink(keys)
+                .doOnNext(count -> log.debug("The key[{}] has been cleared,count:{}", pattern, count));
+    }
+
+    /**
+     * 分批UNLINK，redis cluster时每批按slot分组
+     */
+    protected Mono<Long> unlink(Flux<String> keys) {
+        return keys.buffer(properties.getScanCount())
+                .concatMap(clusterSupport::unlink)
+                .reduce(0L, Long::sum);
+    }
+}
@@ -0,0 +1,77 @@
+package com.hanqunfeng.reactive.redis.cache.hotkey;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * <h1>Count-Min Sketch</h1>
+ * 固定大小的计数器矩阵估算key的访问次数，估算值不会小于实际值，hash冲突时可能偏大
+ * 每行使用不同的hash，估算值取各行计数器的最小值
+ * Created by hanqf on 2026/10/18 00:40.
+ */
+public class CountMinSketch {
+
+    private static final int DEPTH = 4;
+
+    private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+    private final int width;
+
+    private final AtomicIntegerArray counters;
+
+    public CountMinSketch(int width) {
+        int w = Integer.highestOneBit(Math.max(16, width - 1)) << 1;
+        this.width = w;
+        this.counters = new AtomicIntegerArray(DEPTH * w);
+    }
+
+    /**
+     * 访问次数加1，返回加1后的估算值
+     */
+    public int increment(String key) {
+        int hash = spread(key.hashCode());
+        int min = Integer.MAX_VALUE;
+        for (int i = 0; i < DEPTH; i++) {
+            int index = index(hash, i);
+            int count = counters.get(index);
+            if (count < Integer.MAX_VALUE) {
+                count = counters.incrementAndGet(index);
+            }
+            min = Math.min(min, count);
+        }
+        return min;
+    }
+
+    /**
+     * 估算访问次数
+     */
+    public int estimate(String key) {
+        int hash = spread(key.hashCode());
+        int min = Integer.MAX_VALUE;
+        for (int i = 0; i < DEPTH; i++) {
+            min = Math.min(min, counters.get(index(hash, i)));
+        }
+        return min;
+    }
+
+    /**
+     * 清空全部计数器
+     */
+    public void clear() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, 0);
+        }
+    }
+
+    private int index(int hash, int row) {
+        int h = (hash ^ SEEDS[row]) * SEEDS[(row + 1) % DEPTH];
+        h ^= h >>> 16;
+        return row * width + (h & (width - 1));
+    }
+
+    private static int spread(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x7FEB352D;
+        hash ^= hash >>> 15;
+        return hash;
+    }
+}
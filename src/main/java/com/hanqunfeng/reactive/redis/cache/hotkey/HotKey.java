@@ -0,0 +1,32 @@
+package com.hanqunfeng.reactive.redis.cache.hotkey;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * <h1>热点key报告</h1>
+ * Created by hanqf on 2026/10/18 00:40.
+ */
+@Data
+@AllArgsConstructor
+public class HotKey {
+
+    private String cacheName;
+
+    private String redisKey;
+
+    /**
+     * 最近一个完整时间窗口内估算的访问次数，成为热点key的第一个窗口为当前的访问次数
+     */
+    private long frequency;
+
+    /**
+     * 成为热点key后命中本地缓存的次数
+     */
+    private long localHits;
+
+    /**
+     * 成为热点key的时间，毫秒时间戳
+     */
+    private long since;
+}
@@ -0,0 +1,216 @@
+package com.hanqunfeng.reactive.redis.cache.hotkey;
+
+import com.hanqunfeng.reactive.redis.cache.config.ReactiveRedisCacheProperties;
+import com.hanqunfeng.reactive.redis.cache.local.CaffeineNearCache;
+import com.hanqunfeng.reactive.redis.cache.local.LruNearCache;
+import com.hanqunfeng.reactive.redis.cache.local.NearCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * <h1>热点key探测</h1>
+ * 读取缓存时按采样比例将key计入Count-Min Sketch，时间窗口内的访问次数超过阈值的key成为热点key
+ * 热点key命中redis后缓存在本地，过期时间很短，过期前不再访问redis，避免少数key的流量集中在redis的一个分片上
+ * 每个时间窗口结束时访问次数低于阈值的热点key被移除，然后清空计数器
+ * 本节点写入或清除缓存时删除本地的热点key缓存，其它节点的更新最多延迟timeout秒可见
+ * Created by hanqf on 2026/10/18 00:40.
+ */
+@Component
+@Slf4j
+public class HotKeyDetector implements InitializingBean, DisposableBean {
+
+    private static final boolean CAFFEINE_PRESENT = ClassUtils.isPresent("com.github.benmanes.caffeine.cache.Caffeine", HotKeyDetector.class.getClassLoader());
+
+    private final Map<String, HotKeyState> hotKeys = new ConcurrentHashMap<>();
+
+    private final Map<String, NearCache> localCaches = new ConcurrentHashMap<>();
+
+    private CountMinSketch sketch;
+
+    private Scheduler scheduler;
+
+    @Autowired
+    private ReactiveRedisCacheProperties properties;
+
+    @Override
+    public void afterPropertiesSet() {
+        ReactiveRedisCacheProperties.HotKeyProperties hotKey = properties.getHotKey();
+        if (hotKey.isEnabled() || properties.getCaches().values().stream().anyMatch(c -> Boolean.TRUE.equals(c.getHotKey()))) {
+            sketch = new CountMinSketch(hotKey.getSketchWidth());
+            scheduler = Schedulers.newSingle("reactive-redis-cache-hot-key", true);
+            scheduler.schedulePeriodically(this::rotate, hotKey.getWindow(), hotKey.getWindow(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * cacheName是否开启了热点key探测
+     */
+    public boolean isEnabled(String cacheName) {
+        return sketch != null && StringUtils.hasText(cacheName) && properties.isHotKey(cacheName);
+    }
+
+    /**
+     * 记录一次访问，返回key是否为热点key
+     */
+    public boolean record(String cacheName, String redisKey) {
+        if (!isEnabled(cacheName)) {
+            return false;
+        }
+        ReactiveRedisCacheProperties.HotKeyProperties hotKey = properties.getHotKey();
+        double sampleRate = sampleRate(hotKey);
+        if (sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            long frequency = (long) (sketch.increment(redisKey) / sampleRate);
+            if (frequency >= hotKey.getThreshold() && !hotKeys.containsKey(redisKey) && hotKeys.size() < hotKey.getMaximumSize()
+                    && hotKeys.putIfAbsent(redisKey, new HotKeyState(cacheName, frequency)) == null) {
+                log.info("The key[{}] becomes a hot key,frequency[{}]", redisKey, frequency);
+            }
+        }
+        return hotKeys.containsKey(redisKey);
+    }
+
+    /**
+     * 获取热点key的本地缓存
+     *
+     * @param decoder 本地缓存保存的是字节时用于反序列化
+     * @return null表示不是热点key或本地没有缓存，Optional为空表示缓存的是空值
+     */
+    public Optional<Object> get(String cacheName, String redisKey, Function<ByteBuffer, Optional<Object>> decoder) {
+        HotKeyState state = hotKeys.get(redisKey);
+        if (state == null) {
+            return null;
+        }
+        NearCache localCache = localCaches.get(cacheName);
+        Optional<Object> value = localCache == null ? null : localCache.get(redisKey, decoder);
+        if (value != null) {
+            state.localHits.increment();
+        }
+        return value;
+    }
+
+    /**
+     * cacheName本地缓存当前的失效代数，读取redis之前获取
+     */
+    public long generation(String cacheName) {
+        return localCaches.computeIfAbsent(cacheName, this::createLocalCache).generation();
+    }
+
+    /**
+     * 热点key读取redis后缓存在本地
+     *
+     * @param raw        序列化后的字节
+     * @param timeout    注解中的过期时间，单位秒，0或负数表示不过期
+     * @param generation 读取redis之前获取的失效代数
+     */
+    public void promote(String cacheName, String redisKey, Optional<Object> value, ByteBuffer raw, long timeout, long generation) {
+        if (!hotKeys.containsKey(redisKey)) {
+            return;
+        }
+        long localTimeout = properties.getHotKey().getTimeout();
+        if (timeout > 0) {
+            localTimeout = Math.min(localTimeout, timeout);
+        }
+        localCaches.computeIfAbsent(cacheName, this::createLocalCache).put(redisKey, value, raw, localTimeout, generation);
+    }
+
+    /**
+     * 本节点写入或删除缓存后调用
+     */
+    public void invalidate(String cacheName, String redisKey) {
+        NearCache localCache = localCaches.get(cacheName);
+        if (localCache != null) {
+            localCache.invalidate(redisKey);
+        }
+    }
+
+    /**
+     * 本节点清除cacheName下的缓存后调用
+     */
+    public void invalidateAll(String cacheName) {
+        NearCache localCache = localCaches.get(cacheName);
+        if (localCache != null) {
+            localCache.invalidateAll();
+        }
+    }
+
+    /**
+     * 当前的热点key，按访问次数从高到低排序
+     */
+    public List<HotKey> getHotKeys() {
+        List<HotKey> report = new ArrayList<>(hotKeys.size());
+        hotKeys.forEach((redisKey, state) -> report.add(new HotKey(state.cacheName, redisKey, state.frequency, state.localHits.sum(), state.since)));
+        report.sort(Comparator.comparingLong(HotKey::getFrequency).reversed());
+        return report;
+    }
+
+    private NearCache createLocalCache(String cacheName) {
+        long maximumSize = Math.max(properties.getHotKey().getMaximumSize(), 1);
+        //与本地缓存相同，默认保存序列化后的字节
+        boolean storeByValue = properties.getNearCache(cacheName).isStoreByValue();
+        return CAFFEINE_PRESENT ? new CaffeineNearCache(maximumSize, 0, storeByValue) : new LruNearCache(maximumSize, 0, storeByValue);
+    }
+
+    /**
+     * 时间窗口结束，移除访问次数低于阈值的热点key，清空计数器
+     */
+    private void rotate() {
+        ReactiveRedisCacheProperties.HotKeyProperties hotKey = properties.getHotKey();
+        double sampleRate = sampleRate(hotKey);
+        hotKeys.forEach((redisKey, state) -> {
+            long frequency = (long) (sketch.estimate(redisKey) / sampleRate);
+            if (frequency < hotKey.getThreshold()) {
+                hotKeys.remove(redisKey, state);
+                invalidate(state.cacheName, redisKey);
+                log.info("The key[{}] is no longer a hot key,frequency[{}]", redisKey, frequency);
+            } else {
+                state.frequency = frequency;
+            }
+        });
+        sketch.clear();
+    }
+
+    private static double sampleRate(ReactiveRedisCacheProperties.HotKeyProperties hotKey) {
+        return Math.max(Math.min(hotKey.getSampleRate(), 1), Double.MIN_VALUE);
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.dispose();
+        }
+    }
+
+    private static class HotKeyState {
+
+        private final String cacheName;
+
+        private final long since = System.currentTimeMillis();
+
+        private final LongAdder localHits = new LongAdder();
+
+        private volatile long frequency;
+
+        HotKeyState(String cacheName, long frequency) {
+            this.cacheName = cacheName;
+            this.frequency = frequency;
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package com.hanqunfeng.reactive.redis.cache.layout;
+
+import com.hanqunfeng.reactive.redis.cache.cluster.RedisClusterSupport;
+import com.hanqunfeng.reactive.redis.cache.config.ReactiveRedisCacheProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisElementReader;
+import org.springframework.data.redis.serializer.RedisElementWriter;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <h1>hash存储</h1>
+ * cacheName下的缓存按key的hash值分散到buckets个hash中，hash的key为cacheName:hash:序号，field为缓存key(不含cacheName前缀)
+ * redis 7.4+支持field的过期时间(HPEXPIRE)，不支持时在同一个hash中另存一个field保存过期的时间戳，读取时过期的field视为未命中并删除
+ * hash的过期时间延长到其中最长的过期时间，没有被读取到的过期field在hash过期时一起删除
+ * 清除全部缓存时只需要UNLINK全部hash，模糊匹配时HSCAN每个hash后HDEL匹配的field
+ * Created by hanqf on 2026/10/17 23:10.
+ */
+@Component
+@Slf4j
+public class HashCacheLayout {
+
+    /**
+     * 写入field，优先设置field的过期时间，redis不支持时写入过期时间戳的field，同时延长hash的过期时间，hash中有永不过期的field时hash也不过期
+     * ARGV：field、值、过期毫秒数、时间戳field、过期的时间戳
+     */
+    private static final RedisScript<Long> SET_SCRIPT = RedisScript.of(
+            "local existed = redis.call('exists', KEYS[1]) " +
+                    "redis.call('hset', KEYS[1], ARGV[1], ARGV[2]) " +
+                    "local ttl = tonumber(ARGV[3]) " +
+                    "local r " +
+                    "if ttl > 0 then r = redis.pcall('hpexpire', KEYS[1], ttl, 'FIELDS', 1, ARGV[1]) " +
+                    "else r = redis.pcall('hpersist', KEYS[1], 'FIELDS', 1, ARGV[1]) end " +
+                    "if type(r) == 'table' and r.err == nil then redis.call('hdel', KEYS[1], ARGV[4]) return 1 end " +
+                    "if ttl <= 0 then redis.call('hdel', KEYS[1], ARGV[4]) redis.call('persist', KEYS[1]) return 0 end " +
+                    "redis.call('hset', KEYS[1], ARGV[4], ARGV[5]) " +
+                    "local current = redis.call('pttl', KEYS[1]) " +
+                    "if existed == 0 or (current >= 0 and current < ttl) then redis.call('pexpire', KEYS[1], ttl) end " +
+                    "return 0", Long.class);
+
+    /**
+     * 删除过期的field，时间戳没有变化时才删除，避免删除其它请求刚写入的值
+     * ARGV：field、时间戳field、读取到的时间戳
+     */
+    private static final RedisScript<Long> EXPIRE_SCRIPT = RedisScript.of(
+            "if redis.call('hget', KEYS[1], ARGV[2]) == ARGV[3] then " +
+                    "return redis.call('hdel', KEYS[1], ARGV[1], ARGV[2]) end " +
+                    "return 0", Long.class);
+
+    private static final StringRedisSerializer STRING_SERIALIZER = StringRedisSerializer.UTF_8;
+
+    private static final GenericToStringSerializer<Long> LONG_SERIALIZER = new GenericToStringSerializer<>(Long.class);
+
+    /**
+     * 脚本参数中的缓存数据直接写入，其它参数按字符串写入
+     */
+    private static final RedisElementWriter<Object> ARGS_WRITER = element -> element instanceof ByteBuffer
+            ? ((ByteBuffer) element).duplicate() : ByteBuffer.wrap(STRING_SERIALIZER.serialize(element.toString()));
+
+    private static final String BUCKET_INFIX = ":hash:";
+
+    /**
+     * 过期时间戳field的前缀，以\0开头不会与缓存key冲突
+     */
+    private static final String EXPIRE_AT_PREFIX = "\0expire-at:";
+
+    /**
+     * redis是否支持field的过期时间，写入后根据脚本的返回值确定，确定支持之前读取时同时读取过期时间戳
+     */
+    private volatile Boolean fieldExpire;
+
+    @Autowired
+    private ReactiveRedisTemplate reactiveRedisTemplate;
+
+    @Autowired
+    private RedisClusterSupport clusterSupport;
+
+    @Autowired
+    private ReactiveRedisCacheProperties properties;
+
+    /**
+     * cacheName是否使用hash存储
+     */
+    public boolean isEnabled(String cacheName) {
+        return cacheName != null && !cacheName.isEmpty() && properties.getHashLayout(cacheName).isEnabled();
+    }
+
+    /**
+     * 读取缓存，返回的Mono为空表示未命中
+     */
+    public Mono<ByteBuffer> get(String cacheName, String redis_key) {
+        ByteBuffer bucket = rawKey(bucket(cacheName, redis_key));
+        if (Boolean.TRUE.equals(fieldExpire)) {
+            return reactiveRedisTemplate.createMono(connection -> connection.hashCommands().hGet(bucket, rawField(cacheName, redis_key)));
+        }
+        List<ByteBuffer> fields = Arrays.asList(rawField(cacheName, redis_key), rawExpireAtField(cacheName, redis_key));
+        Mono<List<ByteBuffer>> hmget = reactiveRedisTemplate.createMono(connection -> connection.hashCommands().hMGet(bucket, fields));
+        return hmget.flatMap(list -> {
+            if (list.get(0) == null) {
+                return Mono.empty();
+            }
+            if (isExpired(list.get(1))) {
+                return expire(bucket(cacheName, redis_key), field(cacheName, redis_key), list.get(1)).then(Mono.empty());
+            }
+            return Mono.just(list.get(0));
+        });
+    }
+
+    /**
+     * 读取多个缓存，同一个hash中的field使用一次HMGET，不存在的field为null
+     */
+    public Mono<List<ByteBuffer>> multiGet(String cacheName, List<String> redis_keys) {
+        Map<String, List<Integer>> indexes = groupByBucket(cacheName, redis_keys);
+        ByteBuffer[] values = new ByteBuffer[redis_keys.size()];
+        //不确定支持field的过期时间时，每个field后面跟着它的过期时间戳
+        boolean withExpireAt = !Boolean.TRUE.equals(fieldExpire);
+        int step = withExpireAt ? 2 : 1;
+        return Flux.fromIterable(indexes.entrySet())
+                .flatMap(entry -> {
+                    List<ByteBuffer> fields = new ArrayList<>(entry.getValue().size() * step);
+                    entry.getValue().forEach(i -> {
+                        fields.add(rawField(cacheName, redis_keys.get(i)));
+                        if (withExpireAt) {
+                            fields.add(rawExpireAtField(cacheName, redis_keys.get(i)));
+                        }
+                    });
+                    Mono<List<ByteBuffer>> hmget = reactiveRedisTemplate.createMono(connection -> connection.hashCommands().hMGet(rawKey(entry.getKey()), fields));
+                    return hmget.flatMapMany(list -> {
+                        List<Mono<Long>> expired = new ArrayList<>();
+                        for (int i = 0; i < entry.getValue().size(); i++) {
+                            ByteBuffer value = list.get(i * step);
+                            if (value != null && withExpireAt && isExpired(list.get(i * step + 1))) {
+                                expired.add(expire(entry.getKey(), field(cacheName, redis_keys.get(entry.getValue().get(i))), list.get(i * step + 1)));
+                                continue;
+                            }
+                            values[entry.getValue().get(i)] = value;
+                        }
+                        return Flux.merge(expired);
+                    });
+                })
+                .then(Mono.fromSupplier(() -> Arrays.asList(values)));
+    }
+
+    /**
+     * 缓存是否存在
+     */
+    public Mono<Boolean> exists(String cacheName, String redis_key) {
+        if (Boolean.TRUE.equals(fieldExpire)) {
+            return reactiveRedisTemplate.createMono(connection -> connection.hashCommands().hExists(rawKey(bucket(cacheName, redis_key)), rawField(cacheName, redis_key)));
+        }
+        return get(cacheName, redis_key).hasElement();
+    }
+
+    /**
+     * 写入缓存，timeout为0或负数表示永不过期
+     *
+     * @param timeout 过期时间，单位秒
+     */
+    public Mono<Boolean> set(String cacheName, String redis_key, ByteBuffer rawValue, long timeout) {
+        long ttl = timeout > 0 ? timeout * 1000 : 0;
+        List<Object> args = Arrays.asList(field(cacheName, redis_key), rawValue, ttl,
+                EXPIRE_AT_PREFIX + field(cacheName, redis_key), System.currentTimeMillis() + ttl);
+        Flux<Long> result = reactiveRedisTemplate.execute(SET_SCRIPT, Collections.singletonList(bucket(cacheName, redis_key)), args,
+                ARGS_WRITER, RedisElementReader.from(LONG_SERIALIZER));
+        return result.next()
+                .doOnNext(r -> {
+                    //永不过期时脚本不设置过期时间，无法判断是否支持
+                    if (ttl > 0) {
+                        fieldExpire = r == 1L;
+                    }
+                })
+                .thenReturn(true);
+    }
+
+    /**
+     * 删除多个缓存，同一个hash中的field使用一次HDEL
+     */
+    public Mono<Long> delete(String cacheName, Collection<String> redis_keys) {
+        List<String> keys = redis_keys instanceof List ? (List<String>) redis_keys : new ArrayList<>(redis_keys);
+        return Flux.fromIterable(groupByBucket(cacheName, keys).entrySet())
+                .flatMap(entry -> {
+                    List<ByteBuffer> fields = new ArrayList<>(entry.getValue().size());
+                    entry.getValue().forEach(i -> {
+                        fields.add(rawField(cacheName, keys.get(i)));
+                        fields.add(rawExpireAtField(cacheName, keys.get(i)));
+                    });
+                    Mono<Long> hdel = reactiveRedisTemplate.createMono(connection -> connection.hashCommands().hDel(rawKey(entry.getKey()), fields));
+                    return hdel;
+                })
+                .reduce(0L, Long::sum);
+    }
+
+    /**
+     * 清除cacheName下全部缓存，按scanCount分批UNLINK全部hash
+     */
+    public Mono<Long> clear(String cacheName) {
+        int buckets = buckets(cacheName);
+        List<String> keys = new ArrayList<>(buckets);
+        for (int i = 0; i < buckets; i++) {
+            keys.add(cacheName + BUCKET_INFIX + i);
+        }
+        return Flux.fromIterable(keys)
+                .buffer(properties.getScanCount())
+                .concatMap(clusterSupport::unlink)
+                .reduce(0L, Long::sum)
+                .doOnNext(count -> log.debug("The cacheName[{}] hash buckets have been cleared,count[{}]", cacheName, count));
+    }
+
+    /**
+     * 清除cacheName下key匹配keyPattern的缓存
+     */
+    public Mono<Long> clear(String cacheName, String keyPattern) {
+        ScanOptions options = ScanOptions.scanOptions().match(keyPattern).count(properties.getScanCount()).build();
+        return Flux.range(0, buckets(cacheName))
+                .concatMap(i -> {
+                    ByteBuffer bucket = rawKey(cacheName + BUCKET_INFIX + i);
+                    Flux<Map.Entry<ByteBuffer, ByteBuffer>> scan = reactiveRedisTemplate.createFlux(connection -> connection.hashCommands().hScan(bucket, options));
+                    //匹配的field连同它的过期时间戳一起删除
+                    return scan.map(Map.Entry::getKey)
+                            .flatMapIterable(field -> Arrays.asList(field, expireAtField(field)))
+                            .buffer(properties.getScanCount() * 2)
+                            .concatMap(fields -> {
+                                Mono<Long> hdel = reactiveRedisTemplate.createMono(connection -> connection.hashCommands().hDel(bucket, fields));
+                                return hdel;
+                            });
+                })
+                .reduce(0L, Long::sum)
+                .doOnNext(count -> log.debug("The cacheName[{}] keys[{}] have been cleared,count[{}]", cacheName, keyPattern, count));
+    }
+
+    /**
+     * 缓存所在的hash
+     */
+    public String bucket(String cacheName, String redis_key) {
+        String field = field(cacheName, redis_key);
+        return cacheName + BUCKET_INFIX + ((field.hashCode() & Integer.MAX_VALUE) % buckets(cacheName));
+    }
+
+    /**
+     * 缓存在hash中的field，去掉cacheName前缀
+     */
+    private static String field(String cacheName, String redis_key) {
+        int prefix = cacheName.length() + 1;
+        return redis_key.length() > prefix && redis_key.startsWith(cacheName) && redis_key.charAt(cacheName.length()) == ':'
+                ? redis_key.substring(prefix) : redis_key;
+    }
+
+    private static boolean isExpired(ByteBuffer expireAt) {
+        return expireAt != null && Long.parseLong(STRING_SERIALIZER.deserialize(toBytes(expireAt))) <= System.currentTimeMillis();
+    }
+
+    /**
+     * 删除读取到的过期field
+     */
+    private Mono<Long> expire(String bucket, String field, ByteBuffer expireAt) {
+        List<Object> args = Arrays.asList(field, EXPIRE_AT_PREFIX + field, expireAt);
+        Flux<Long> result = reactiveRedisTemplate.execute(EXPIRE_SCRIPT, Collections.singletonList(bucket), args,
+                ARGS_WRITER, RedisElementReader.from(LONG_SERIALIZER));
+        return result.next()
+                .doOnNext(count -> log.debug("The field[{}] in hash[{}] has expired", field, bucket));
+    }
+
+    private int buckets(String cacheName) {
+        return Math.max(1, properties.getHashLayout(cacheName).getBuckets());
+    }
+
+    private Map<String, List<Integer>> groupByBucket(String cacheName, List<String> redis_keys) {
+        Map<String, List<Integer>> indexes = new LinkedHashMap<>();
+        for (int i = 0; i < redis_keys.size(); i++) {
+            indexes.computeIfAbsent(bucket(cacheName, redis_keys.get(i)), k -> new ArrayList<>()).add(i);
+        }
+        return indexes;
+    }
+
+    private ByteBuffer rawKey(String key) {
+        return reactiveRedisTemplate.getSerializationContext().getKeySerializationPair().write(key);
+    }
+
+    private static ByteBuffer rawField(String cacheName, String redis_key) {
+        return ByteBuffer.wrap(STRING_SERIALIZER.serialize(field(cacheName, redis_key)));
+    }
+
+    private static ByteBuffer rawExpireAtField(String cacheName, String redis_key) {
+        return ByteBuffer.wrap(STRING_SERIALIZER.serialize(EXPIRE_AT_PREFIX + field(cacheName, redis_key)));
+    }
+
+    private static ByteBuffer expireAtField(ByteBuffer rawField) {
+        return ByteBuffer.wrap(STRING_SERIALIZER.serialize(EXPIRE_AT_PREFIX + STRING_SERIALIZER.deserialize(toBytes(rawField))));
+    }
+
+    private static byte[] toBytes(ByteBuffer buffer) {
+        ByteBuffer duplicate = buffer.duplicate();
+        byte[] bytes = new byte[duplicate.remaining()];
+        duplicate.get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,92 @@
+package com.hanqunfeng.reactive.redis.cache.local;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.nio.ByteBuffer;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * <h1>基于caffeine的W-TinyLFU本地缓存</h1>
+ * 每个缓存条目可以有不同的过期时间
+ * 失效时间戳按key记录，写入后再次检查，写入期间该key发生了失效时删除刚写入的缓存
+ * Created by hanqf on 2026/10/17 14:03.
+ */
+public class CaffeineNearCache implements NearCache {
+
+    private final Cache<String, Entry> cache;
+
+    private final boolean storeByValue;
+
+    private final InvalidationStamps stamps;
+
+    public CaffeineNearCache(long maximumSize, long maximumWeight, boolean storeByValue) {
+        this.storeByValue = storeByValue;
+        this.stamps = new InvalidationStamps(maximumSize);
+        Caffeine<String, Entry> builder = Caffeine.newBuilder()
+                .expireAfter(new Expiry<String, Entry>() {
+                    @Override
+                    public long expireAfterCreate(String key, Entry entry, long currentTime) {
+                        return entry.expireAfterNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+                        return entry.expireAfterNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                });
+        if (maximumWeight > 0) {
+            builder.maximumWeight(maximumWeight).weigher((key, entry) -> entry.weight);
+        } else {
+            builder.maximumSize(maximumSize);
+        }
+        this.cache = builder.build();
+    }
+
+    @Override
+    public Optional<Object> get(String redisKey, Function<ByteBuffer, Optional<Object>> decoder) {
+        Entry entry = cache.getIfPresent(redisKey);
+        return entry == null ? null : entry.value(decoder);
+    }
+
+    @Override
+    public long generation() {
+        return stamps.current();
+    }
+
+    @Override
+    public void put(String redisKey, Optional<Object> value, ByteBuffer raw, long timeout, long generation) {
+        if (stamps.isStale(redisKey, generation)) {
+            return;
+        }
+        cache.put(redisKey, new Entry(value, raw, storeByValue, timeout));
+        //检查和写入之间发生了失效
+        if (stamps.isStale(redisKey, generation)) {
+            cache.invalidate(redisKey);
+        }
+    }
+
+    @Override
+    public void invalidate(String redisKey) {
+        stamps.invalidate(redisKey);
+        cache.invalidate(redisKey);
+    }
+
+    @Override
+    public void invalidateAll() {
+        stamps.invalidateAll();
+        cache.invalidateAll();
+    }
+
+    @Override
+    public long size() {
+        return cache.estimatedSize();
+    }
+}
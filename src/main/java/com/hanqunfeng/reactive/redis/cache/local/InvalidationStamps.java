@@ -0,0 +1,69 @@
+package com.hanqunfeng.reactive.redis.cache.local;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <h1>本地缓存的失效时间戳</h1>
+ * 每次失效时时钟加一，按key记录最后一次失效时的时钟，invalidateAll记录全部key的失效时钟
+ * 写入时读取redis之前获取的时钟小于该key或全部key的失效时钟，说明读取之后发生过失效，放弃写入
+ * 失效一个key只影响该key的写入，不影响同一个cacheName其它key的写入
+ * 记录的key超过maxKeys(至少1024)时清空，按全部key失效处理，避免一直增长
+ * Created by hanqf on 2026/10/17 14:10.
+ */
+final class InvalidationStamps {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private final Map<String, Long> stamps = new ConcurrentHashMap<>();
+
+    private final long maxKeys;
+
+    /**
+     * 全部key的失效时钟，小于该值的写入都放弃
+     */
+    private volatile long all;
+
+    InvalidationStamps(long maxKeys) {
+        this.maxKeys = Math.max(maxKeys, 1024);
+    }
+
+    long current() {
+        return clock.get();
+    }
+
+    /**
+     * 先记录失效时钟，再删除缓存
+     */
+    void invalidate(String redisKey) {
+        stamps.merge(redisKey, clock.incrementAndGet(), Math::max);
+        if (stamps.size() > maxKeys) {
+            reset();
+        }
+    }
+
+    void invalidateAll() {
+        clock.incrementAndGet();
+        reset();
+    }
+
+    /**
+     * 获取stamp之后该key是否失效过
+     */
+    boolean isStale(String redisKey, long stamp) {
+        if (stamp < all) {
+            return true;
+        }
+        Long invalidated = stamps.get(redisKey);
+        return invalidated != null && invalidated > stamp;
+    }
+
+    /**
+     * 先清空再读取时钟，清空前记录的失效时钟都不大于all
+     */
+    private synchronized void reset() {
+        stamps.clear();
+        all = clock.get();
+    }
+}
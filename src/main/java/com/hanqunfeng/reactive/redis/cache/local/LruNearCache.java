@@ -0,0 +1,155 @@
+package com.hanqunfeng.reactive.redis.cache.local;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * <h1>基于LinkedHashMap的LRU本地缓存</h1>
+ * 超过最大数量或最大权重时淘汰最近最少使用的缓存，过期的缓存在读取时删除
+ * 读取时从ConcurrentHashMap中查找，不加锁，只在获取到锁时更新LinkedHashMap中的访问顺序，竞争激烈时为近似的LRU
+ * Created by hanqf on 2026/10/17 13:52.
+ */
+public class LruNearCache implements NearCache {
+
+    /**
+     * 读取使用的索引，与order中的缓存相同，只在持有锁时修改
+     */
+    private final Map<String, Entry> index = new ConcurrentHashMap<>();
+
+    /**
+     * 按访问顺序排列，用于淘汰，只在持有锁时访问
+     */
+    private final LinkedHashMap<String, Entry> order = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final long maximumSize;
+
+    private final long maximumWeight;
+
+    private final boolean storeByValue;
+
+    private final InvalidationStamps stamps;
+
+    private long totalWeight;
+
+    public LruNearCache(long maximumSize, long maximumWeight, boolean storeByValue) {
+        this.maximumSize = maximumSize;
+        this.maximumWeight = maximumWeight;
+        this.storeByValue = storeByValue;
+        this.stamps = new InvalidationStamps(maximumSize);
+    }
+
+    @Override
+    public Optional<Object> get(String redisKey, Function<ByteBuffer, Optional<Object>> decoder) {
+        Entry entry = index.get(redisKey);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpired()) {
+            lock.lock();
+            try {
+                if (index.get(redisKey) == entry) {
+                    remove(redisKey);
+                }
+            } finally {
+                lock.unlock();
+            }
+            return null;
+        }
+        //其它线程持有锁时不等待，本次访问不更新顺序
+        if (lock.tryLock()) {
+            try {
+                order.get(redisKey);
+            } finally {
+                lock.unlock();
+            }
+        }
+        return entry.value(decoder);
+    }
+
+    @Override
+    public long generation() {
+        return stamps.current();
+    }
+
+    @Override
+    public void put(String redisKey, Optional<Object> value, ByteBuffer raw, long timeout, long generation) {
+        if (stamps.isStale(redisKey, generation)) {
+            return;
+        }
+        Entry entry = new Entry(value, raw, storeByValue, timeout);
+        lock.lock();
+        try {
+            //失效先记录时间戳再加锁删除，持有锁时再检查一次即可
+            if (stamps.isStale(redisKey, generation)) {
+                return;
+            }
+            Entry old = order.put(redisKey, entry);
+            index.put(redisKey, entry);
+            if (old != null) {
+                totalWeight -= old.weight;
+            }
+            totalWeight += entry.weight;
+            Iterator<Map.Entry<String, Entry>> iterator = order.entrySet().iterator();
+            while (iterator.hasNext() && isOverflow()) {
+                Map.Entry<String, Entry> eldest = iterator.next();
+                totalWeight -= eldest.getValue().weight;
+                index.remove(eldest.getKey());
+                iterator.remove();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean isOverflow() {
+        if (maximumWeight > 0) {
+            return totalWeight > maximumWeight;
+        }
+        return order.size() > maximumSize;
+    }
+
+    private void remove(String redisKey) {
+        index.remove(redisKey);
+        Entry old = order.remove(redisKey);
+        if (old != null) {
+            totalWeight -= old.weight;
+        }
+    }
+
+    @Override
+    public void invalidate(String redisKey) {
+        stamps.invalidate(redisKey);
+        lock.lock();
+        try {
+            remove(redisKey);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        stamps.invalidateAll();
+        lock.lock();
+        try {
+            index.clear();
+            order.clear();
+            totalWeight = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long size() {
+        return index.size();
+    }
+}
@@ -0,0 +1,85 @@
+package com.hanqunfeng.reactive.redis.cache.local;
+
+import java.nio.ByteBuffer;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * <h1>本地缓存(一级缓存)</h1>
+ * 每个cacheName对应一个本地缓存，key为完整的redis key
+ * 默认保存序列化后的字节，每次命中时重新反序列化，调用方修改返回的对象不会影响其它调用方
+ * 关闭storeByValue时保存反序列化后的对象，命中时返回的是同一个对象，只适合不可变的缓存对象
+ * 读取redis之前获取失效代数，写入时该key或全部key在此之后失效过说明读取的可能是旧值，放弃写入，避免把失效前读取的旧值写回本地缓存
+ * 失效一个key不影响其它key的写入
+ * Created by hanqf on 2026/10/17 13:40.
+ */
+public interface NearCache {
+
+    /**
+     * 获取缓存数据
+     *
+     * @param decoder 保存的是字节时用于反序列化
+     * @return null表示未命中，Optional为空表示缓存的是空值
+     */
+    Optional<Object> get(String redisKey, Function<ByteBuffer, Optional<Object>> decoder);
+
+    /**
+     * 当前的失效代数，读取redis之前获取，写入时传入
+     */
+    long generation();
+
+    /**
+     * 写入缓存数据，获取generation之后该key或全部key失效过时放弃写入
+     *
+     * @param redisKey   完整的redis key
+     * @param value      反序列化后的缓存数据，Optional为空表示空值
+     * @param raw        序列化后的字节，读取position到limit之间的数据，不会修改raw
+     * @param timeout    过期时间，单位秒，0或负数表示不过期
+     * @param generation 读取redis之前获取的失效代数
+     */
+    void put(String redisKey, Optional<Object> value, ByteBuffer raw, long timeout, long generation);
+
+    void invalidate(String redisKey);
+
+    void invalidateAll();
+
+    /**
+     * 当前缓存数量
+     */
+    long size();
+
+    /**
+     * 缓存条目，bytes不为null时保存的是序列化后的字节
+     */
+    final class Entry {
+        final Optional<Object> value;
+        final byte[] bytes;
+        final int weight;
+        final long expireAt;
+
+        Entry(Optional<Object> value, ByteBuffer raw, boolean storeByValue, long timeout) {
+            this.weight = Math.max(raw.remaining(), 1);
+            if (storeByValue) {
+                this.value = null;
+                this.bytes = new byte[raw.remaining()];
+                raw.duplicate().get(this.bytes);
+            } else {
+                this.value = value;
+                this.bytes = null;
+            }
+            this.expireAt = timeout > 0 ? System.nanoTime() + timeout * 1_000_000_000L : Long.MAX_VALUE;
+        }
+
+        Optional<Object> value(Function<ByteBuffer, Optional<Object>> decoder) {
+            return bytes != null ? decoder.apply(ByteBuffer.wrap(bytes)) : value;
+        }
+
+        boolean isExpired() {
+            return expireAt != Long.MAX_VALUE && System.nanoTime() - expireAt >= 0;
+        }
+
+        long expireAfterNanos() {
+            return expireAt == Long.MAX_VALUE ? Long.MAX_VALUE : Math.max(expireAt - System.nanoTime(), 0);
+        }
+    }
+}
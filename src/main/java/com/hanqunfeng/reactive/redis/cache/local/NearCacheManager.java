@@ -0,0 +1,262 @@
+package com.hanqunfeng.reactive.redis.cache.local;
+
+import com.hanqunfeng.reactive.redis.cache.aop.ReactiveRedisCacheable;
+import com.hanqunfeng.reactive.redis.cache.aop.ReactiveRedisCaching;
+import com.hanqunfeng.reactive.redis.cache.config.ReactiveRedisCacheProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.ReactiveRedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <h1>本地缓存管理</h1>
+ * 按cacheName创建本地缓存，写入或清除缓存时通过redis频道通知其它节点删除自己的本地缓存
+ * 消息格式：节点id|k|redisKey 删除单个key；节点id|c|cacheName 删除cacheName下全部本地缓存
+ * 频道断开期间丢失的通知无法补偿，本地缓存的过期时间即为其它节点更新后读取到旧数据的最长时间
+ * Created by hanqf on 2026/10/17 14:15.
+ */
+@Component
+@Slf4j
+public class NearCacheManager implements SmartInitializingSingleton, DisposableBean {
+
+    private static final boolean CAFFEINE_PRESENT = ClassUtils.isPresent("com.github.benmanes.caffeine.cache.Caffeine", NearCacheManager.class.getClassLoader());
+
+    private static final String TYPE_KEY = "k";
+
+    private static final String TYPE_CACHE_NAME = "c";
+
+    /**
+     * 当前节点的id，用于忽略自己发布的消息
+     */
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final Map<String, NearCache> nearCaches = new ConcurrentHashMap<>();
+
+    /**
+     * 通过注解开启本地缓存的cacheName
+     */
+    private final Set<String> annotatedCacheNames = ConcurrentHashMap.newKeySet();
+
+    private ReactiveRedisMessageListenerContainer listenerContainer;
+
+    private Disposable subscription;
+
+    @Autowired
+    private ReactiveRedisTemplate reactiveRedisTemplate;
+
+    @Autowired
+    private ReactiveRedisCacheProperties properties;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    /**
+     * 启动时扫描开启了本地缓存的注解，cacheName为EL表达式的无法识别，需要通过配置开启
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        for (String beanName : applicationContext.getBeanDefinitionNames()) {
+            Class<?> type = applicationContext.getType(beanName);
+            if (type == null) {
+                continue;
+            }
+            ReflectionUtils.doWithMethods(ClassUtils.getUserClass(type), method -> {
+                ReactiveRedisCacheable cacheable = method.getAnnotation(ReactiveRedisCacheable.class);
+                if (cacheable != null) {
+                    registerAnnotated(cacheable);
+                }
+                ReactiveRedisCaching caching = method.getAnnotation(ReactiveRedisCaching.class);
+                if (caching != null) {
+                    for (ReactiveRedisCacheable c : caching.cacheable()) {
+                        registerAnnotated(c);
+                    }
+                }
+            });
+        }
+        if (!annotatedCacheNames.isEmpty() || properties.getNearCache().isEnabled()
+                || properties.getCaches().values().stream().anyMatch(c -> c.getNearCache() != null && c.getNearCache().isEnabled())) {
+            subscribe();
+        }
+    }
+
+    private void registerAnnotated(ReactiveRedisCacheable cacheable) {
+        String cacheName = cacheable.cacheName();
+        if (cacheable.nearCache() && StringUtils.hasText(cacheName) && !cacheName.contains("#") && !cacheName.contains("'")) {
+            annotatedCacheNames.add(cacheName);
+        }
+    }
+
+    /**
+     * cacheName是否开启了本地缓存
+     */
+    public boolean isEnabled(String cacheName) {
+        return StringUtils.hasText(cacheName) && (annotatedCacheNames.contains(cacheName) || properties.getNearCache(cacheName).isEnabled());
+    }
+
+    /**
+     * 获取cacheName对应的本地缓存
+     *
+     * @param annotated 注解中是否开启了本地缓存
+     * @return 没有开启本地缓存时返回null
+     */
+    public NearCache getNearCache(String cacheName, boolean annotated) {
+        if (!StringUtils.hasText(cacheName)) {
+            return null;
+        }
+        if (annotated && annotatedCacheNames.add(cacheName)) {
+            subscribe();
+        }
+        if (!isEnabled(cacheName)) {
+            return null;
+        }
+        return nearCaches.computeIfAbsent(cacheName, this::createNearCache);
+    }
+
+    private NearCache createNearCache(String cacheName) {
+        ReactiveRedisCacheProperties.NearCacheProperties nearCacheProperties = properties.getNearCache(cacheName);
+        log.debug("Create near cache for cacheName[{}],eviction:{}", cacheName, nearCacheProperties.getEviction());
+        if ("tinylfu".equalsIgnoreCase(nearCacheProperties.getEviction())) {
+            if (CAFFEINE_PRESENT) {
+                return new CaffeineNearCache(nearCacheProperties.getMaximumSize(), nearCacheProperties.getMaximumWeight(), nearCacheProperties.isStoreByValue());
+            }
+            log.warn("Caffeine is not present,near cache of cacheName[{}] falls back to lru", cacheName);
+        }
+        return new LruNearCache(nearCacheProperties.getMaximumSize(), nearCacheProperties.getMaximumWeight(), nearCacheProperties.isStoreByValue());
+    }
+
+    /**
+     * 本地缓存的过期时间，不会超过注解中的timeout
+     */
+    public long nearCacheTimeout(String cacheName, long timeout) {
+        long nearTimeout = properties.getNearCache(cacheName).getTimeout();
+        if (nearTimeout <= 0) {
+            return timeout;
+        }
+        return timeout > 0 ? Math.min(nearTimeout, timeout) : nearTimeout;
+    }
+
+    /**
+     * cacheName当前的失效代数，写入redis之前获取，没有开启本地缓存时返回0
+     */
+    public long generation(String cacheName) {
+        return isEnabled(cacheName) ? nearCaches.computeIfAbsent(cacheName, this::createNearCache).generation() : 0;
+    }
+
+    /**
+     * 写入redis后调用，更新当前节点的本地缓存并通知其它节点
+     *
+     * @param raw        序列化后的字节
+     * @param generation 写入redis之前获取的失效代数，写入期间收到失效通知时不更新本地缓存
+     */
+    public Mono<Void> onWrite(String cacheName, String redisKey, Optional<Object> value, ByteBuffer raw, long timeout, long generation) {
+        if (!isEnabled(cacheName)) {
+            return Mono.empty();
+        }
+        nearCaches.computeIfAbsent(cacheName, this::createNearCache)
+                .put(redisKey, value, raw, nearCacheTimeout(cacheName, timeout), generation);
+        return publish(TYPE_KEY, redisKey);
+    }
+
+    /**
+     * 删除redis中的key后调用
+     */
+    public Mono<Void> onEvict(String cacheName, String redisKey) {
+        if (!isEnabled(cacheName)) {
+            return Mono.empty();
+        }
+        invalidate(redisKey);
+        return publish(TYPE_KEY, redisKey);
+    }
+
+    /**
+     * 清除cacheName下的缓存后调用
+     */
+    public Mono<Void> onClear(String cacheName) {
+        if (!isEnabled(cacheName)) {
+            return Mono.empty();
+        }
+        invalidateAll(cacheName);
+        return publish(TYPE_CACHE_NAME, cacheName);
+    }
+
+    private void invalidate(String redisKey) {
+        nearCaches.values().forEach(nearCache -> nearCache.invalidate(redisKey));
+    }
+
+    private void invalidateAll(String cacheName) {
+        NearCache nearCache = nearCaches.get(cacheName);
+        if (nearCache != null) {
+            nearCache.invalidateAll();
+        }
+    }
+
+    private Mono<Void> publish(String type, String value) {
+        ByteBuffer channel = ByteBuffer.wrap(properties.getNearCacheChannel().getBytes(StandardCharsets.UTF_8));
+        ByteBuffer message = ByteBuffer.wrap((instanceId + "|" + type + "|" + value).getBytes(StandardCharsets.UTF_8));
+        return reactiveRedisTemplate.createMono(connection -> connection.pubSubCommands().publish(channel, message))
+                .onErrorResume(e -> {
+                    log.error("发布本地缓存失效通知失败！", e);
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private void onMessage(String message) {
+        String[] parts = message.split("\\|", 3);
+        if (parts.length != 3 || instanceId.equals(parts[0])) {
+            return;
+        }
+        log.debug("Near cache invalidation received:{}", message);
+        if (TYPE_KEY.equals(parts[1])) {
+            invalidate(parts[2]);
+        } else if (TYPE_CACHE_NAME.equals(parts[1])) {
+            invalidateAll(parts[2]);
+        }
+    }
+
+    private synchronized void subscribe() {
+        if (subscription != null) {
+            return;
+        }
+        listenerContainer = new ReactiveRedisMessageListenerContainer(reactiveRedisTemplate.getConnectionFactory());
+        subscription = listenerContainer.receive(ChannelTopic.of(properties.getNearCacheChannel()))
+                .doOnSubscribe(s -> log.debug("Subscribe near cache channel[{}]", properties.getNearCacheChannel()))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30))
+                        .doBeforeRetry(signal -> {
+                            //断开期间可能丢失通知，清空本地缓存
+                            nearCaches.values().forEach(NearCache::invalidateAll);
+                            log.warn("Near cache channel disconnected,retrying", signal.failure());
+                        }))
+                .subscribe(message -> onMessage(message.getMessage()));
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+        if (listenerContainer != null) {
+            listenerContainer.destroy();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.hanqunfeng.reactive.redis.cache.lock;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisElementReader;
+import org.springframework.data.redis.serializer.RedisElementWriter;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.UUID;
+
+/**
+ * <h1>基于redis的分布式租约锁</h1>
+ * 加锁：SET lockKey token NX PX lockTimeout，锁过期后自动释放，避免节点宕机导致死锁
+ * 解锁：lua脚本比较token后再删除，避免误删其它节点的锁
+ * Created by hanqf on 2026/10/17 10:25.
+ */
+@Component
+@Slf4j
+public class ReactiveRedisLock {
+
+    private static final RedisScript<Long> UNLOCK_SCRIPT = RedisScript.of(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end", Long.class);
+
+    private static final StringRedisSerializer STRING_SERIALIZER = StringRedisSerializer.UTF_8;
+
+    private static final GenericToStringSerializer<Long> LONG_SERIALIZER = new GenericToStringSerializer<>(Long.class);
+
+    @Autowired
+    private ReactiveRedisTemplate reactiveRedisTemplate;
+
+    /**
+     * 生成锁的token，解锁时需要使用相同的token
+     */
+    public String newToken() {
+        return UUID.randomUUID().toString();
+    }
+
+    /**
+     * 尝试加锁，不会等待，返回是否加锁成功
+     *
+     * @param lockKey     锁的key
+     * @param token       锁的token
+     * @param lockTimeout 锁的过期时间，单位毫秒
+     */
+    public Mono<Boolean> tryLock(String lockKey, String token, long lockTimeout) {
+        ByteBuffer rawKey = reactiveRedisTemplate.getSerializationContext().getKeySerializationPair().write(lockKey);
+        ByteBuffer rawToken = ByteBuffer.wrap(token.getBytes(StandardCharsets.UTF_8));
+        Mono<Boolean> set = reactiveRedisTemplate.createMono(connection -> connection.stringCommands()
+                .set(rawKey, rawToken, Expiration.milliseconds(lockTimeout), RedisStringCommands.SetOption.ifAbsent()));
+        return set.defaultIfEmpty(false)
+                .doOnNext(locked -> log.debug("The lock[{}] acquired:{}", lockKey, locked));
+    }
+
+    /**
+     * 释放锁，只有token相同时才会删除
+     */
+    public Mono<Boolean> unlock(String lockKey, String token) {
+        return reactiveRedisTemplate.execute(UNLOCK_SCRIPT, Collections.singletonList(lockKey), Collections.singletonList(token),
+                        RedisElementWriter.from(STRING_SERIALIZER), RedisElementReader.from(LONG_SERIALIZER))
+                .next()
+                .map(count -> (Long) count > 0)
+                .defaultIfEmpty(false)
+                .doOnNext(unlocked -> log.debug("The lock[{}] released:{}", lockKey, unlocked))
+                .onErrorResume(e -> {
+                    log.error("释放锁失败！", e);
+                    return Mono.just(false);
+                });
+    }
+}
@@ -0,0 +1,72 @@
+package com.hanqunfeng.reactive.redis.cache.lock;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * <h1>进程内合并相同key的并发请求</h1>
+ * 同一个key同一时刻只有一个in-flight的Mono，其它订阅者共享它的结果，执行结束后从map中移除
+ * 与synchronized不同，这里不会阻塞线程，并且合并的是整个加载过程，而不仅仅是publisher的组装过程
+ * Created by hanqf on 2026/10/17 10:12.
+ */
+@Component
+@Slf4j
+public class ReactiveSingleFlight {
+
+    private final Map<String, Mono<?>> inFlight = new ConcurrentHashMap<>(64);
+
+    /**
+     * 执行supplier提供的Mono，相同key的并发订阅只会执行一次
+     * 即便全部订阅者都取消了订阅，加载过程也会继续执行完成，以便写入缓存
+     */
+    public <T> Mono<T> execute(String key, Supplier<Mono<T>> supplier) {
+        return Mono.defer(() -> {
+            Mono<?>[] created = new Mono<?>[1];
+            Mono<?> shared = inFlight.computeIfAbsent(key, k -> {
+                Mono<T> mono = Mono.defer(supplier)
+                        .doFinally(signalType -> inFlight.remove(k, created[0]))
+                        .cache();
+                created[0] = mono;
+                return mono;
+            });
+            if (shared != created[0]) {
+                log.debug("The key[{}] is loading,waiting for the in-flight result", key);
+            }
+            return (Mono<T>) shared;
+        });
+    }
+
+    /**
+     * 流式执行，相同key同一时刻只有一个订阅者执行leader，其它订阅者等待leader结束(完成、出错或取消)后再执行follower
+     * 与execute不同，leader发射的元素不会保存在内存中共享，follower通常是从redis中读取leader写入的缓存
+     */
+    public <T> Flux<T> executeMany(String key, Supplier<Flux<T>> leader, Supplier<Flux<T>> follower) {
+        return Flux.defer(() -> {
+            Sinks.Empty<Void> done = Sinks.empty();
+            Mono<Void> signal = done.asMono();
+            Mono<?> shared = inFlight.putIfAbsent(key, signal);
+            if (shared != null) {
+                log.debug("The key[{}] is loading,waiting for the in-flight stream", key);
+                return shared.onErrorResume(e -> Mono.empty()).thenMany(Flux.defer(follower));
+            }
+            return Flux.defer(leader).doFinally(signalType -> {
+                inFlight.remove(key, signal);
+                done.tryEmitEmpty();
+            });
+        });
+    }
+
+    /**
+     * 当前正在加载的key数量
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+}
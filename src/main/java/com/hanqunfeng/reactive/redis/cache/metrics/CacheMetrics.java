@@ -0,0 +1,114 @@
+package com.hanqunfeng.reactive.redis.cache.metrics;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * <h1>缓存操作的指标</h1>
+ * 全部指标都按cacheName和method(类名.方法名)区分，默认实现NOOP不做任何处理
+ * 存在MeterRegistry时自动配置为MicrometerCacheMetrics，也可以注册自定义的CacheMetrics bean
+ * Created by hanqf on 2026/10/17 20:10.
+ */
+public interface CacheMetrics {
+
+    /**
+     * 不记录任何指标
+     */
+    CacheMetrics NOOP = new CacheMetrics() {
+    };
+
+    String GET = "get";
+
+    String SET = "set";
+
+    String DELETE = "delete";
+
+    String READ = "read";
+
+    String WRITE = "write";
+
+    /**
+     * 命中缓存
+     */
+    default void hit(String cacheName, String method) {
+    }
+
+    /**
+     * 命中缓存的空值
+     */
+    default void nullHit(String cacheName, String method) {
+    }
+
+    /**
+     * 未命中缓存
+     */
+    default void miss(String cacheName, String method) {
+    }
+
+    /**
+     * 布隆过滤器判断key不存在，不访问redis也不执行方法主体
+     */
+    default void rejected(String cacheName, String method) {
+    }
+
+    /**
+     * 方法主体的执行时间
+     */
+    default <T> Mono<T> load(String cacheName, String method, Mono<T> load) {
+        return load;
+    }
+
+    /**
+     * redis命令的执行时间
+     *
+     * @param operation GET、SET或DELETE
+     */
+    default <T> Mono<T> redis(String cacheName, String method, String operation, Mono<T> command) {
+        return command;
+    }
+
+    /**
+     * 读取或写入的缓存数据的字节数
+     *
+     * @param operation READ或WRITE
+     */
+    default void payload(String cacheName, String method, String operation, int bytes) {
+    }
+
+    /**
+     * 清除缓存
+     *
+     * @param allEntries 是否为清除cacheName的全部缓存或模糊匹配
+     * @param count      清除的key数量，allEntries时为1
+     */
+    default void evict(String cacheName, String method, boolean allEntries, long count) {
+    }
+
+    /**
+     * 异步写入的队列已满，放弃写入缓存
+     */
+    default void writeDropped(String cacheName, String method) {
+    }
+
+    /**
+     * 缓存预热的一次方法调用
+     *
+     * @param warmer  预热的名称
+     * @param success 是否成功写入缓存
+     */
+    default void warmUp(String warmer, boolean success) {
+    }
+
+    /**
+     * 一次缓存预热从开始到全部方法调用结束的时间
+     */
+    default <T> Mono<T> warmUpRun(String warmer, Mono<T> run) {
+        return run;
+    }
+
+    /**
+     * 未获得分布式锁时等待其它节点写入缓存的时间
+     */
+    default <T> Mono<T> lockWait(String cacheName, String method, Mono<T> wait) {
+        return wait;
+    }
+}
@@ -0,0 +1,172 @@
+package com.hanqunfeng.reactive.redis.cache.metrics;
+
+import com.hanqunfeng.reactive.redis.cache.config.ReactiveRedisCacheProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * <h1>基于Micrometer的缓存指标</h1>
+ * reactive.redis.cache.gets：读取次数，result为hit、null、miss或rejected(布隆过滤器判断不存在)
+ * reactive.redis.cache.load：方法主体的执行时间
+ * reactive.redis.cache.redis：redis命令的执行时间，operation为get、set或delete
+ * reactive.redis.cache.payload：缓存数据的字节数，operation为read或write
+ * reactive.redis.cache.evictions：清除的key数量，type为key或all
+ * reactive.redis.cache.lock.wait：未获得分布式锁时等待的时间
+ * reactive.redis.cache.write.dropped：异步写入的队列已满时放弃写入的次数
+ * reactive.redis.cache.warmup：缓存预热的方法调用次数，result为success或error
+ * reactive.redis.cache.warmup.duration：一次缓存预热的执行时间
+ * 除预热指标只有warmer标签外，全部指标都有cacheName和method标签，cacheName支持EL表达式时需要注意标签的数量
+ * Created by hanqf on 2026/10/17 20:10.
+ */
+public class MicrometerCacheMetrics implements CacheMetrics {
+
+    private static final String PREFIX = "reactive.redis.cache.";
+
+    private final MeterRegistry registry;
+
+    private final boolean percentileHistogram;
+
+    /**
+     * 已注册的指标，key为指标名称和标签值，避免每次都构建Meter.Id
+     */
+    private final Map<List<String>, Object> meters = new ConcurrentHashMap<>(256);
+
+    public MicrometerCacheMetrics(MeterRegistry registry, ReactiveRedisCacheProperties.MetricsProperties properties) {
+        this.registry = registry;
+        this.percentileHistogram = properties.isPercentileHistogram();
+    }
+
+    @Override
+    public void hit(String cacheName, String method) {
+        gets(cacheName, method, "hit").increment();
+    }
+
+    @Override
+    public void nullHit(String cacheName, String method) {
+        gets(cacheName, method, "null").increment();
+    }
+
+    @Override
+    public void miss(String cacheName, String method) {
+        gets(cacheName, method, "miss").increment();
+    }
+
+    @Override
+    public void rejected(String cacheName, String method) {
+        gets(cacheName, method, "rejected").increment();
+    }
+
+    @Override
+    public <T> Mono<T> load(String cacheName, String method, Mono<T> load) {
+        return time(timer("load", cacheName, method, null, null), load);
+    }
+
+    @Override
+    public <T> Mono<T> redis(String cacheName, String method, String operation, Mono<T> command) {
+        return time(timer("redis", cacheName, method, "operation", operation), command);
+    }
+
+    @Override
+    public void payload(String cacheName, String method, String operation, int bytes) {
+        DistributionSummary summary = meter(Arrays.asList("payload", cacheName, method, operation), key -> DistributionSummary.builder(PREFIX + "payload")
+                .baseUnit("bytes")
+                .tags(tags(cacheName, method))
+                .tag("operation", operation)
+                .publishPercentileHistogram(percentileHistogram)
+                .register(registry));
+        summary.record(bytes);
+    }
+
+    @Override
+    public void evict(String cacheName, String method, boolean allEntries, long count) {
+        String type = allEntries ? "all" : "key";
+        Counter counter = meter(Arrays.asList("evictions", cacheName, method, type), key -> Counter.builder(PREFIX + "evictions")
+                .tags(tags(cacheName, method))
+                .tag("type", type)
+                .register(registry));
+        counter.increment(count);
+    }
+
+    @Override
+    public void writeDropped(String cacheName, String method) {
+        Counter counter = meter(Arrays.asList("write.dropped", cacheName, method), key -> Counter.builder(PREFIX + "write.dropped")
+                .tags(tags(cacheName, method))
+                .register(registry));
+        counter.increment();
+    }
+
+    @Override
+    public <T> Mono<T> lockWait(String cacheName, String method, Mono<T> wait) {
+        return time(timer("lock.wait", cacheName, method, null, null), wait);
+    }
+
+    @Override
+    public void warmUp(String warmer, boolean success) {
+        String result = success ? "success" : "error";
+        Counter counter = meter(Arrays.asList("warmup", warmer, result), key -> Counter.builder(PREFIX + "warmup")
+                .tag("warmer", warmer)
+                .tag("result", result)
+                .register(registry));
+        counter.increment();
+    }
+
+    @Override
+    public <T> Mono<T> warmUpRun(String warmer, Mono<T> run) {
+        Timer timer = meter(Arrays.asList("warmup.duration", warmer), key -> Timer.builder(PREFIX + "warmup.duration")
+                .tag("warmer", warmer)
+                .register(registry));
+        return time(timer, run);
+    }
+
+    private Counter gets(String cacheName, String method, String result) {
+        return meter(Arrays.asList("gets", cacheName, method, result), key -> Counter.builder(PREFIX + "gets")
+                .tags(tags(cacheName, method))
+                .tag("result", result)
+                .register(registry));
+    }
+
+    private Timer timer(String name, String cacheName, String method, String tagKey, String tagValue) {
+        return meter(Arrays.asList(name, cacheName, method, tagValue), key -> {
+            Timer.Builder builder = Timer.builder(PREFIX + name)
+                    .tags(tags(cacheName, method))
+                    .publishPercentileHistogram(percentileHistogram);
+            if (tagKey != null) {
+                builder.tag(tagKey, tagValue);
+            }
+            return builder.register(registry);
+        });
+    }
+
+    private static String[] tags(String cacheName, String method) {
+        return new String[]{"cacheName", StringUtils.hasText(cacheName) ? cacheName : "none", "method", method};
+    }
+
+    private <M> M meter(List<String> key, Function<List<String>, M> register) {
+        Object meter = meters.get(key);
+        if (meter == null) {
+            meter = meters.computeIfAbsent(key, register);
+        }
+        return (M) meter;
+    }
+
+    /**
+     * 从订阅到结束(完成、出错或取消)的时间
+     */
+    private static <T> Mono<T> time(Timer timer, Mono<T> mono) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return mono.doFinally(signal -> timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        });
+    }
+}
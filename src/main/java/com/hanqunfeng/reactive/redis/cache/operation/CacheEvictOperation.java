@@ -0,0 +1,38 @@
+package com.hanqunfeng.reactive.redis.cache.operation;
+
+import com.hanqunfeng.reactive.redis.cache.aop.ReactiveRedisCacheEvict;
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * <h1>ReactiveRedisCacheEvict解析结果</h1>
+ * Created by hanqf on 2026/10/17 17:05.
+ */
+@Getter
+public class CacheEvictOperation {
+
+    private final CacheExpression cacheName;
+
+    private final CacheExpression key;
+
+    private final List<CacheExpression> keys;
+
+    private final boolean allEntries;
+
+    private final boolean beforeInvocation;
+
+    CacheEvictOperation(ReactiveRedisCacheEvict cacheEvict, Function<String, CacheExpression> expressions) {
+        this.cacheName = expressions.apply(cacheEvict.cacheName());
+        this.key = expressions.apply(cacheEvict.key());
+        this.keys = Collections.unmodifiableList(Arrays.stream(cacheEvict.keys())
+                .map(expressions)
+                .collect(Collectors.toList()));
+        this.allEntries = cacheEvict.allEntries();
+        this.beforeInvocation = cacheEvict.beforeInvocation();
+    }
+}
@@ -0,0 +1,214 @@
+package com.hanqunfeng.reactive.redis.cache.operation;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.util.ReflectionUtils;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * <h1>注解中的cacheName和key</h1>
+ * 启动后第一次调用时解析，包含#或'的为EL表达式，否则为字符串常量，常量不需要创建EvaluationContext
+ * #参数名称、#p0、#a0以及#参数名称.属性的表达式直接从参数中读取，不经过EL表达式，其它情况或读取失败时仍然使用EL表达式计算
+ * 可以声明一个调用时设置的变量，如批量缓存中的#id和#result，#变量名称.属性同样直接读取
+ * Created by hanqf on 2026/10/17 17:05.
+ */
+public final class CacheExpression {
+
+    /**
+     * #参数名称 或 #参数名称.属性.属性
+     */
+    private static final Pattern SIMPLE_PATH = Pattern.compile("#([A-Za-z_$][\\w$]*)((?:\\.[A-Za-z_$][\\w$]*)*)");
+
+    private static final Pattern INDEX_VARIABLE = Pattern.compile("[ap](\\d+)");
+
+    /**
+     * 快速路径无法读取时的返回值
+     */
+    private static final Object NOT_RESOLVED = new Object();
+
+    private final String expressionString;
+
+    /**
+     * 解析后的EL表达式，常量时为null
+     */
+    private final Expression expression;
+
+    /**
+     * 直接读取参数时参数的下标，-1表示不能直接读取
+     */
+    private final int argIndex;
+
+    /**
+     * 直接读取调用时设置的变量，null表示不是读取变量
+     */
+    private final String variable;
+
+    /**
+     * 直接读取参数或变量时依次读取的属性
+     */
+    private final String[] properties;
+
+    /**
+     * 每一级属性按实际类型缓存读取方法或字段，没有时为Optional.empty()
+     */
+    private final Map<Class<?>, Optional<Member>>[] accessors;
+
+    CacheExpression(String expressionString, ExpressionParser parser, Method method, String[] parameterNames) {
+        this(expressionString, parser, method, parameterNames, null);
+    }
+
+    /**
+     * @param variable 调用时设置的变量名称，与参数名称相同时优先使用变量，可以为null
+     */
+    CacheExpression(String expressionString, ExpressionParser parser, Method method, String[] parameterNames, String variable) {
+        this.expressionString = expressionString;
+        this.expression = isExpression(expressionString) ? parser.parseExpression(expressionString) : null;
+        Matcher matcher = SIMPLE_PATH.matcher(expressionString.trim());
+        int index = -1;
+        boolean matches = expression != null && matcher.matches();
+        boolean isVariable = matches && matcher.group(1).equals(variable);
+        if (matches && !isVariable) {
+            index = argIndex(matcher.group(1), method, parameterNames);
+        }
+        this.argIndex = index;
+        this.variable = isVariable ? variable : null;
+        this.properties = (index < 0 && !isVariable) || matcher.group(2).isEmpty() ? new String[0] : matcher.group(2).substring(1).split("\\.");
+        this.accessors = newAccessors(properties.length);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<Class<?>, Optional<Member>>[] newAccessors(int length) {
+        Map<Class<?>, Optional<Member>>[] accessors = new Map[length];
+        for (int i = 0; i < length; i++) {
+            accessors[i] = new ConcurrentHashMap<>(4);
+        }
+        return accessors;
+    }
+
+    private static boolean isExpression(String expressionString) {
+        return expressionString.contains("#") || expressionString.contains("'");
+    }
+
+    /**
+     * 与MethodBasedEvaluationContext相同，参数可以通过#a0、#p0或#参数名称访问
+     * 可变参数在EL表达式中会重新组装，所以不走快速路径
+     */
+    private static int argIndex(String variable, Method method, String[] parameterNames) {
+        int count = method.getParameterCount();
+        int index = -1;
+        Matcher matcher = INDEX_VARIABLE.matcher(variable);
+        if (matcher.matches() && matcher.group(1).length() < 10) {
+            index = Integer.parseInt(matcher.group(1));
+        } else if (parameterNames != null) {
+            for (int i = 0; i < parameterNames.length; i++) {
+                if (variable.equals(parameterNames[i])) {
+                    index = i;
+                }
+            }
+        }
+        if (index < 0 || index >= count || (method.isVarArgs() && index == count - 1)) {
+            return -1;
+        }
+        return index;
+    }
+
+    public boolean isLiteral() {
+        return expression == null;
+    }
+
+    /**
+     * 表达式为#参数名称、#p0或#a0时返回参数的下标，否则返回-1
+     */
+    int getParameterIndex() {
+        return properties.length == 0 ? argIndex : -1;
+    }
+
+    public String getExpressionString() {
+        return expressionString;
+    }
+
+    /**
+     * 计算表达式的值，结果转换为字符串，常量直接返回
+     */
+    public String getValue(CacheInvocationContext invocation) {
+        if (expression == null) {
+            return expressionString;
+        }
+        Object root = NOT_RESOLVED;
+        if (variable != null) {
+            if (variable.equals(invocation.getVariableName())) {
+                root = invocation.getVariableValue();
+            }
+        } else if (argIndex >= 0 && argIndex < invocation.getArgs().length) {
+            root = invocation.getArgs()[argIndex];
+        }
+        if (root != NOT_RESOLVED) {
+            Object value = readPath(root);
+            if (value != NOT_RESOLVED) {
+                return DefaultConversionService.getSharedInstance().convert(value, String.class);
+            }
+        }
+        return expression.getValue(invocation.getEvaluationContext(), String.class);
+    }
+
+    /**
+     * 依次读取属性，中间值为null、没有可读的属性或读取出错时返回NOT_RESOLVED，由EL表达式处理
+     */
+    private Object readPath(Object value) {
+        for (int i = 0; i < properties.length; i++) {
+            if (value == null) {
+                return NOT_RESOLVED;
+            }
+            Optional<Member> accessor = accessors[i].get(value.getClass());
+            if (accessor == null) {
+                accessor = findAccessor(value.getClass(), properties[i]);
+                accessors[i].put(value.getClass(), accessor);
+            }
+            if (!accessor.isPresent()) {
+                return NOT_RESOLVED;
+            }
+            try {
+                Member member = accessor.get();
+                value = member instanceof Method ? ((Method) member).invoke(value) : ((Field) member).get(value);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                return NOT_RESOLVED;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * 与EL表达式相同，先查找getter方法，再查找public字段
+     */
+    private static Optional<Member> findAccessor(Class<?> type, String property) {
+        PropertyDescriptor descriptor = BeanUtils.getPropertyDescriptor(type, property);
+        if (descriptor != null && descriptor.getReadMethod() != null) {
+            Method readMethod = descriptor.getReadMethod();
+            ReflectionUtils.makeAccessible(readMethod);
+            return Optional.of(readMethod);
+        }
+        Field field = ReflectionUtils.findField(type, property);
+        if (field != null && Modifier.isPublic(field.getModifiers()) && !Modifier.isStatic(field.getModifiers())) {
+            ReflectionUtils.makeAccessible(field);
+            return Optional.of(field);
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public String toString() {
+        return expressionString;
+    }
+}
@@ -0,0 +1,110 @@
+package com.hanqunfeng.reactive.redis.cache.operation;
+
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.expression.EvaluationContext;
+
+/**
+ * <h1>一次方法调用的EL表达式上下文</h1>
+ * 同一次调用中的全部cacheName和key共享一个EvaluationContext，第一次需要计算EL表达式时才创建
+ * 只在切面方法或同一个Flux的信号中串行使用，不是线程安全的
+ * Created by hanqf on 2026/10/17 17:40.
+ */
+public class CacheInvocationContext {
+
+    private final CacheOperations operations;
+
+    private final Object target;
+
+    private final Object[] args;
+
+    private final ParameterNameDiscoverer paramNameDiscoverer;
+
+    private EvaluationContext evaluationContext;
+
+    /**
+     * 当前设置的变量，如批量缓存中的#id和#result
+     */
+    private String variableName;
+
+    private Object variableValue;
+
+    CacheInvocationContext(CacheOperations operations, Object target, Object[] args, ParameterNameDiscoverer paramNameDiscoverer) {
+        this.operations = operations;
+        this.target = target;
+        this.args = args;
+        this.paramNameDiscoverer = paramNameDiscoverer;
+    }
+
+    public CacheOperations getOperations() {
+        return operations;
+    }
+
+    public Object[] getArgs() {
+        return args;
+    }
+
+    public String getVariableName() {
+        return variableName;
+    }
+
+    public Object getVariableValue() {
+        return variableValue;
+    }
+
+    /**
+     * EL表达式的上下文，可以通过#参数名称、#p0、#a0、#root.args获取参数
+     */
+    public EvaluationContext getEvaluationContext() {
+        if (evaluationContext == null) {
+            evaluationContext = new MethodBasedEvaluationContext(new CacheExpressionRootObject(target, args),
+                    operations.getTargetMethod(), args, paramNameDiscoverer);
+            if (variableName != null) {
+                evaluationContext.setVariable(variableName, variableValue);
+            }
+        }
+        return evaluationContext;
+    }
+
+    /**
+     * 计算表达式的值，常量和直接读取参数的表达式不会创建EvaluationContext
+     */
+    public String evaluate(CacheExpression expression) {
+        return expression.getValue(this);
+    }
+
+    /**
+     * 设置变量后计算表达式的值，变量在下一次设置前一直有效
+     */
+    public String evaluate(CacheExpression expression, String name, Object value) {
+        this.variableName = name;
+        this.variableValue = value;
+        if (evaluationContext != null) {
+            evaluationContext.setVariable(name, value);
+        }
+        return expression.getValue(this);
+    }
+
+    /**
+     * EL表达式的root对象
+     */
+    private static class CacheExpressionRootObject {
+
+        private final Object object;
+
+        private final Object[] args;
+
+        CacheExpressionRootObject(Object object, Object[] args) {
+            this.object = object;
+            this.args = args;
+        }
+
+        public Object getobject() {
+            return object;
+        }
+
+        public Object[] getArgs() {
+            return args;
+        }
+    }
+}
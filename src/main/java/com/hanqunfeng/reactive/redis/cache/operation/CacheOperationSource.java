@@ -0,0 +1,164 @@
+package com.hanqunfeng.reactive.redis.cache.operation;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.hanqunfeng.reactive.redis.cache.aop.ReactiveRedisCacheEvict;
+import com.hanqunfeng.reactive.redis.cache.aop.ReactiveRedisCachePut;
+import com.hanqunfeng.reactive.redis.cache.aop.ReactiveRedisCacheable;
+import com.hanqunfeng.reactive.redis.cache.aop.ReactiveRedisCacheableBatch;
+import com.hanqunfeng.reactive.redis.cache.aop.ReactiveRedisCaching;
+import com.hanqunfeng.reactive.redis.cache.layout.HashCacheLayout;
+import com.hanqunfeng.reactive.redis.cache.ttl.CacheTtlPolicy;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.BeanClassLoaderAware;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.expression.AnnotatedElementKey;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.ResolvableType;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.TypeVariable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * <h1>缓存注解解析</h1>
+ * 每个方法(目标类)第一次调用时解析注解、EL表达式、返回值类型，之后直接使用缓存的解析结果，调用时不再需要反射
+ * EL表达式开启SpelCompilerMode.MIXED编译模式
+ * Created by hanqf on 2026/10/17 17:05.
+ */
+@Component
+@Slf4j
+public class CacheOperationSource implements BeanClassLoaderAware {
+
+    /**
+     * MIXED模式下表达式先解释执行，多次执行后编译为字节码，编译后的表达式执行出错时自动退回解释执行
+     */
+    private ExpressionParser parser = new SpelExpressionParser(new SpelParserConfiguration(SpelCompilerMode.MIXED, null));
+
+    private final ParameterNameDiscoverer paramNameDiscoverer = new DefaultParameterNameDiscoverer();
+
+    private final Map<AnnotatedElementKey, CacheOperations> operationsCache = new ConcurrentHashMap<>(256);
+
+    @Autowired
+    private HashCacheLayout hashLayout;
+
+    @Autowired
+    private CacheTtlPolicy ttlPolicy;
+
+    public CacheOperations getOperations(JoinPoint joinPoint) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        return getOperations(method, joinPoint.getTarget().getClass());
+    }
+
+    public CacheOperations getOperations(Method method, Class<?> targetClass) {
+        AnnotatedElementKey methodKey = new AnnotatedElementKey(method, targetClass);
+        CacheOperations operations = operationsCache.get(methodKey);
+        if (operations == null) {
+            operations = operationsCache.computeIfAbsent(methodKey, k -> parse(method, targetClass));
+        }
+        return operations;
+    }
+
+    /**
+     * 创建本次调用的上下文，同一次调用中的全部表达式共享
+     */
+    public CacheInvocationContext createInvocationContext(CacheOperations operations, JoinPoint joinPoint) {
+        return new CacheInvocationContext(operations, joinPoint.getTarget(), joinPoint.getArgs(), paramNameDiscoverer);
+    }
+
+    /**
+     * 编译后的表达式需要访问业务类，使用加载业务类的ClassLoader
+     */
+    @Override
+    public void setBeanClassLoader(ClassLoader classLoader) {
+        this.parser = new SpelExpressionParser(new SpelParserConfiguration(SpelCompilerMode.MIXED, classLoader));
+    }
+
+    private CacheOperations parse(Method method, Class<?> targetClass) {
+        Method targetMethod = AopUtils.getMostSpecificMethod(method, targetClass);
+        String[] parameterNames = paramNameDiscoverer.getParameterNames(targetMethod);
+        Function<String, CacheExpression> expressions = text -> new CacheExpression(text, parser, targetMethod, parameterNames);
+        BiFunction<String, String, CacheExpression> variableExpressions = (text, variable) -> new CacheExpression(text, parser, targetMethod, parameterNames, variable);
+        ReturnKind returnKind = ReturnKind.of(method.getReturnType());
+        JavaType valueType = returnKind.isReactive() ? valueType(method, targetClass, returnKind) : null;
+
+        ReactiveRedisCacheable cacheable = method.getAnnotation(ReactiveRedisCacheable.class);
+        ReactiveRedisCachePut cachePut = method.getAnnotation(ReactiveRedisCachePut.class);
+        ReactiveRedisCacheEvict cacheEvict = method.getAnnotation(ReactiveRedisCacheEvict.class);
+        ReactiveRedisCaching caching = method.getAnnotation(ReactiveRedisCaching.class);
+        ReactiveRedisCacheableBatch cacheableBatch = method.getAnnotation(ReactiveRedisCacheableBatch.class);
+
+        CacheableOperation cacheableOperation = cacheable == null ? null : new CacheableOperation(cacheable, expressions);
+        List<CacheableOperation> cachingCacheables = caching == null ? Collections.emptyList() : toList(caching.cacheable(), c -> new CacheableOperation(c, expressions));
+        if (cacheableOperation != null) {
+            warnHashLayout(targetMethod, cacheableOperation);
+        }
+        cachingCacheables.forEach(operation -> warnHashLayout(targetMethod, operation));
+
+        return new CacheOperations(targetMethod, ClassUtils.getUserClass(targetClass).getSimpleName() + "." + method.getName(), returnKind, valueType,
+                cacheableOperation,
+                cachePut == null ? null : new CachePutOperation(cachePut, expressions),
+                cacheEvict == null ? null : new CacheEvictOperation(cacheEvict, expressions),
+                cacheableBatch == null ? null : new CacheableBatchOperation(cacheableBatch, targetMethod, expressions, variableExpressions),
+                cachingCacheables,
+                caching == null ? Collections.emptyList() : toList(caching.put(), p -> new CachePutOperation(p, expressions)),
+                caching == null ? Collections.emptyList() : toList(caching.evict(), e -> new CacheEvictOperation(e, expressions)));
+    }
+
+    /**
+     * hash存储不支持提前刷新，cacheName为常量且使用hash存储时，refreshAhead、staleWhileRevalidate和XFetch不生效，输出警告
+     */
+    private void warnHashLayout(Method method, CacheableOperation operation) {
+        if (!operation.getCacheName().isLiteral()) {
+            return;
+        }
+        String cacheName = operation.getCacheName().getExpressionString();
+        if (!hashLayout.isEnabled(cacheName)) {
+            return;
+        }
+        if (operation.getRefreshThreshold() > 0 || (operation.getTimeout() > 0 && ttlPolicy.isEarlyExpirationEnabled(cacheName))) {
+            log.warn("The cacheName[{}] of method[{}] uses the hash layout,refreshAhead,staleWhileRevalidate and XFetch are ignored", cacheName, method);
+        }
+    }
+
+    private static <A, O> List<O> toList(A[] annotations, Function<A, O> mapper) {
+        return Collections.unmodifiableList(Arrays.stream(annotations).map(mapper).collect(Collectors.toList()));
+    }
+
+    /**
+     * 方法返回值声明的缓存值类型，Mono&lt;T&gt;为T，Flux&lt;T&gt;为List&lt;T&gt;，泛型参数按目标类解析
+     */
+    private static JavaType valueType(Method method, Class<?> targetClass, ReturnKind returnKind) {
+        TypeFactory typeFactory = TypeFactory.defaultInstance();
+        ResolvableType generic = ResolvableType.forMethodReturnType(method, targetClass).getGeneric(0);
+        JavaType elementType;
+        if (generic.resolve() == null) {
+            elementType = typeFactory.constructType(Object.class);
+        } else if (generic.getType() instanceof TypeVariable) {
+            elementType = typeFactory.constructType(generic.resolve());
+        } else {
+            elementType = typeFactory.constructType(generic.getType());
+        }
+        if (returnKind == ReturnKind.FLUX) {
+            return typeFactory.constructCollectionType(List.class, elementType);
+        }
+        return elementType;
+    }
+}
@@ -0,0 +1,86 @@
+package com.hanqunfeng.reactive.redis.cache.operation;
+
+import com.fasterxml.jackson.databind.JavaType;
+import lombok.Getter;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+/**
+ * <h1>方法上的缓存注解解析结果</h1>
+ * 每个方法(目标类)只解析一次，不可变，可以在多个线程间共享
+ * Created by hanqf on 2026/10/17 17:05.
+ */
+@Getter
+public class CacheOperations {
+
+    /**
+     * 目标类中的方法，用于EL表达式获取参数名称
+     */
+    private final Method targetMethod;
+
+    /**
+     * 指标中的方法名称，目标类的简单类名.方法名
+     */
+    private final String metricName;
+
+    private final ReturnKind returnKind;
+
+    /**
+     * 方法返回值声明的缓存值类型，Mono&lt;T&gt;为T，Flux&lt;T&gt;为List&lt;T&gt;
+     */
+    private final JavaType valueType;
+
+    /**
+     * ReactiveRedisCacheable，没有时为null
+     */
+    private final CacheableOperation cacheable;
+
+    /**
+     * ReactiveRedisCachePut，没有时为null
+     */
+    private final CachePutOperation cachePut;
+
+    /**
+     * ReactiveRedisCacheEvict，没有时为null
+     */
+    private final CacheEvictOperation cacheEvict;
+
+    /**
+     * ReactiveRedisCacheableBatch，没有时为null
+     */
+    private final CacheableBatchOperation cacheableBatch;
+
+    /**
+     * ReactiveRedisCaching中的cacheable，没有时为空
+     */
+    private final List<CacheableOperation> cachingCacheables;
+
+    /**
+     * ReactiveRedisCaching中的put，没有时为空
+     */
+    private final List<CachePutOperation> cachingPuts;
+
+    /**
+     * ReactiveRedisCaching中的evict，没有时为空
+     */
+    private final List<CacheEvictOperation> cachingEvicts;
+
+    CacheOperations(Method targetMethod, String metricName, ReturnKind returnKind, JavaType valueType,
+                    CacheableOperation cacheable, CachePutOperation cachePut, CacheEvictOperation cacheEvict,
+                    CacheableBatchOperation cacheableBatch,
+                    List<CacheableOperation> cachingCacheables, List<CachePutOperation> cachingPuts,
+                    List<CacheEvictOperation> cachingEvicts) {
+        this.targetMethod = targetMethod;
+        this.metricName = metricName;
+        this.returnKind = returnKind;
+        this.valueType = valueType;
+        this.cacheable = cacheable;
+        this.cachePut = cachePut;
+        this.cacheEvict = cacheEvict;
+        this.cacheableBatch = cacheableBatch;
+        this.cachingCacheables = cachingCacheables;
+        this.cachingPuts = cachingPuts;
+        this.cachingEvicts = cachingEvicts;
+    }
+}
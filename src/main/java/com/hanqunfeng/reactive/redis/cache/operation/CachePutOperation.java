@@ -0,0 +1,32 @@
+package com.hanqunfeng.reactive.redis.cache.operation;
+
+import com.hanqunfeng.reactive.redis.cache.aop.ReactiveRedisCachePut;
+import lombok.Getter;
+
+import java.util.function.Function;
+
+/**
+ * <h1>ReactiveRedisCachePut解析结果</h1>
+ * Created by hanqf on 2026/10/17 17:05.
+ */
+@Getter
+public class CachePutOperation {
+
+    private final CacheExpression cacheName;
+
+    private final CacheExpression key;
+
+    private final long timeout;
+
+    private final boolean cacheNull;
+
+    private final long cacheNullTimeout;
+
+    CachePutOperation(ReactiveRedisCachePut cachePut, Function<String, CacheExpression> expressions) {
+        this.cacheName = expressions.apply(cachePut.cacheName());
+        this.key = expressions.apply(cachePut.key());
+        this.timeout = cachePut.timeout();
+        this.cacheNull = cachePut.cacheNull();
+        this.cacheNullTimeout = cachePut.cacheNullTimeout();
+    }
+}
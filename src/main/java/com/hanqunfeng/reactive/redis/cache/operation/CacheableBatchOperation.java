@@ -0,0 +1,81 @@
+package com.hanqunfeng.reactive.redis.cache.operation;
+
+import com.hanqunfeng.reactive.redis.cache.aop.ReactiveRedisCacheableBatch;
+import lombok.Getter;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * <h1>ReactiveRedisCacheableBatch解析结果</h1>
+ * Created by hanqf on 2026/10/17 18:20.
+ */
+@Getter
+public class CacheableBatchOperation {
+
+    /**
+     * key中集合元素的变量名称
+     */
+    public static final String ID_VARIABLE = "id";
+
+    /**
+     * resultId中返回元素的变量名称
+     */
+    public static final String RESULT_VARIABLE = "result";
+
+    private final CacheExpression cacheName;
+
+    /**
+     * 集合参数的下标
+     */
+    private final int idsIndex;
+
+    private final CacheExpression key;
+
+    private final CacheExpression resultId;
+
+    private final long timeout;
+
+    private final boolean cacheNull;
+
+    private final long cacheNullTimeout;
+
+    /**
+     * 集合参数类型为Set时使用LinkedHashSet，否则使用ArrayList
+     */
+    private final boolean setParameter;
+
+    CacheableBatchOperation(ReactiveRedisCacheableBatch cacheableBatch, Method method,
+                            Function<String, CacheExpression> expressions,
+                            BiFunction<String, String, CacheExpression> variableExpressions) {
+        this.cacheName = expressions.apply(cacheableBatch.cacheName());
+        this.idsIndex = expressions.apply(cacheableBatch.ids()).getParameterIndex();
+        if (idsIndex < 0) {
+            throw new IllegalStateException("ReactiveRedisCacheableBatch ids must be a parameter reference such as #ids or #p0: " + method);
+        }
+        Class<?> idsType = method.getParameterTypes()[idsIndex];
+        if (idsType.isAssignableFrom(ArrayList.class)) {
+            this.setParameter = false;
+        } else if (idsType.isAssignableFrom(LinkedHashSet.class)) {
+            this.setParameter = true;
+        } else {
+            throw new IllegalStateException("ReactiveRedisCacheableBatch ids must be a Collection, List or Set parameter: " + method);
+        }
+        this.key = variableExpressions.apply(cacheableBatch.key(), ID_VARIABLE);
+        this.resultId = variableExpressions.apply(cacheableBatch.resultId(), RESULT_VARIABLE);
+        this.timeout = cacheableBatch.timeout();
+        this.cacheNull = cacheableBatch.cacheNull();
+        this.cacheNullTimeout = cacheableBatch.cacheNullTimeout();
+    }
+
+    /**
+     * 创建与集合参数类型兼容的集合
+     */
+    public Collection<Object> newIds(int size) {
+        return setParameter ? new LinkedHashSet<>(size * 2) : new ArrayList<>(size);
+    }
+}
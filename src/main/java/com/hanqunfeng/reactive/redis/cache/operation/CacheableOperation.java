@@ -0,0 +1,63 @@
+package com.hanqunfeng.reactive.redis.cache.operation;
+
+import com.hanqunfeng.reactive.redis.cache.aop.ReactiveRedisCacheable;
+import lombok.Getter;
+
+import java.util.function.Function;
+
+/**
+ * <h1>ReactiveRedisCacheable解析结果</h1>
+ * Created by hanqf on 2026/10/17 17:05.
+ */
+@Getter
+public class CacheableOperation {
+
+    private final CacheExpression cacheName;
+
+    private final CacheExpression key;
+
+    private final long timeout;
+
+    private final boolean cacheNull;
+
+    private final long cacheNullTimeout;
+
+    private final boolean distributedLock;
+
+    private final long lockTimeout;
+
+    private final long waitTimeout;
+
+    private final boolean nearCache;
+
+    /**
+     * 缓存过期后仍然可以返回旧值的时间，单位秒，timeout为0或负数时为0
+     */
+    private final long staleWhileRevalidate;
+
+    /**
+     * redis中缓存的过期时间，单位秒，开启staleWhileRevalidate时为timeout+staleWhileRevalidate
+     */
+    private final long storeTimeout;
+
+    /**
+     * 命中缓存时剩余过期时间小于该值(毫秒)时在后台刷新，0表示不刷新
+     */
+    private final long refreshThreshold;
+
+    CacheableOperation(ReactiveRedisCacheable cacheable, Function<String, CacheExpression> expressions) {
+        this.cacheName = expressions.apply(cacheable.cacheName());
+        this.key = expressions.apply(cacheable.key());
+        this.timeout = cacheable.timeout();
+        this.cacheNull = cacheable.cacheNull();
+        this.cacheNullTimeout = cacheable.cacheNullTimeout();
+        this.distributedLock = cacheable.distributedLock();
+        this.lockTimeout = cacheable.lockTimeout();
+        this.waitTimeout = cacheable.waitTimeout();
+        this.nearCache = cacheable.nearCache();
+        this.staleWhileRevalidate = timeout > 0 ? Math.max(cacheable.staleWhileRevalidate(), 0) : 0;
+        double refreshAhead = timeout > 0 ? Math.min(Math.max(cacheable.refreshAhead(), 0), 1) : 0;
+        this.storeTimeout = timeout + staleWhileRevalidate;
+        this.refreshThreshold = staleWhileRevalidate * 1000 + (long) (timeout * 1000 * refreshAhead);
+    }
+}
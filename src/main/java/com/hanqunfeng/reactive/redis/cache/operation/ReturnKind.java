@@ -0,0 +1,29 @@
+package com.hanqunfeng.reactive.redis.cache.operation;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * <h1>方法返回值类型</h1>
+ * 只有返回值声明为Mono或Flux的方法才会缓存，其它返回值类型直接执行方法
+ * Created by hanqf on 2026/10/17 17:05.
+ */
+public enum ReturnKind {
+    MONO,
+    FLUX,
+    OTHER;
+
+    public static ReturnKind of(Class<?> returnType) {
+        if (returnType == Mono.class) {
+            return MONO;
+        }
+        if (returnType == Flux.class) {
+            return FLUX;
+        }
+        return OTHER;
+    }
+
+    public boolean isReactive() {
+        return this != OTHER;
+    }
+}
@@ -0,0 +1,83 @@
+package com.hanqunfeng.reactive.redis.cache.refresh;
+
+import com.hanqunfeng.reactive.redis.cache.config.ReactiveRedisCacheProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * <h1>后台刷新缓存</h1>
+ * 命中即将过期(refreshAhead)或已经逻辑过期(staleWhileRevalidate)的缓存时，调用方直接返回缓存值，由这里在后台重新加载
+ * 同一个key同一时刻只有一个刷新任务，刷新任务在有界的线程池中执行，队列满时放弃本次刷新，等待下一次命中时再刷新
+ * 方法主体返回的Mono可能切换到其它线程执行，线程池只限制订阅，同时进行的刷新任务另外由信号量限制
+ * Created by hanqf on 2026/10/17 19:05.
+ */
+@Component
+@Slf4j
+public class ReactiveCacheRefresher implements InitializingBean, DisposableBean {
+
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    private Scheduler scheduler;
+
+    private Semaphore permits;
+
+    @Autowired
+    private ReactiveRedisCacheProperties properties;
+
+    @Override
+    public void afterPropertiesSet() {
+        ReactiveRedisCacheProperties.RefreshProperties refresh = properties.getRefresh();
+        permits = new Semaphore(refresh.getMaxConcurrent());
+        scheduler = Schedulers.newBoundedElastic(refresh.getThreadCap(), refresh.getQueuedTaskCap(), "reactive-redis-cache-refresh", 60, true);
+    }
+
+    /**
+     * 在后台执行刷新任务，相同key正在刷新或同时刷新的任务已满时直接忽略
+     *
+     * @param key  缓存key
+     * @param task 刷新任务，通常是执行方法主体并写入缓存
+     */
+    public void refresh(String key, Mono<?> task) {
+        if (!refreshing.add(key)) {
+            log.debug("The key[{}] is refreshing,ignored", key);
+            return;
+        }
+        if (!permits.tryAcquire()) {
+            refreshing.remove(key);
+            log.debug("Too many refreshing keys,the key[{}] ignored", key);
+            return;
+        }
+        log.debug("The key[{}] is about to expire,refresh in background", key);
+        Mono.defer(() -> task)
+                .subscribeOn(scheduler)
+                .doFinally(signalType -> {
+                    refreshing.remove(key);
+                    permits.release();
+                })
+                .subscribe(null, e -> log.warn("Refresh the key[{}] failed: {}", key, e.toString()));
+    }
+
+    /**
+     * 正在刷新的key的数量
+     */
+    public int refreshingCount() {
+        return refreshing.size();
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.dispose();
+        }
+    }
+}
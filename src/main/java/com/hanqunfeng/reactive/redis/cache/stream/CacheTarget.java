@@ -0,0 +1,56 @@
+package com.hanqunfeng.reactive.redis.cache.stream;
+
+import com.fasterxml.jackson.databind.JavaType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * <h1>缓存写入目标</h1>
+ * 注解解析后的缓存key及过期设置，redisKey为拼接了cacheName前缀的完整key
+ * Created by hanqf on 2026/10/17 15:20.
+ */
+@Data
+@AllArgsConstructor
+public class CacheTarget {
+
+    private String cacheName;
+
+    private String redisKey;
+
+    /**
+     * 注解中的key，不含cacheName前缀
+     */
+    private String key;
+
+    /**
+     * 缓存过期时间，单位秒，0或负数表示不过期
+     */
+    private long timeout;
+
+    /**
+     * 是否缓存空值，Flux判断是否为Empty
+     */
+    private boolean cacheNull;
+
+    /**
+     * 缓存空值过期时间，单位秒，0或负数时使用timeout
+     */
+    private long cacheNullTimeout;
+
+    /**
+     * 方法返回值声明的缓存值类型，Flux为List&lt;T&gt;
+     */
+    private JavaType valueType;
+
+    /**
+     * 指标中的方法名称
+     */
+    private String method;
+
+    /**
+     * 根据是否为空值获取过期时间
+     */
+    public long timeout(boolean empty) {
+        return empty && cacheNullTimeout > 0 ? cacheNullTimeout : timeout;
+    }
+}
@@ -0,0 +1,392 @@
+package com.hanqunfeng.reactive.redis.cache.stream;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.hanqunfeng.reactive.redis.cache.bloom.CacheBloomFilterManager;
+import com.hanqunfeng.reactive.redis.cache.cluster.RedisClusterSupport;
+import com.hanqunfeng.reactive.redis.cache.codec.CacheValueCodecResolver;
+import com.hanqunfeng.reactive.redis.cache.config.ReactiveRedisCacheProperties;
+import com.hanqunfeng.reactive.redis.cache.evict.CacheEvictStrategyResolver;
+import com.hanqunfeng.reactive.redis.cache.local.NearCacheManager;
+import com.hanqunfeng.reactive.redis.cache.ttl.CacheTtlPolicy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisElementReader;
+import org.springframework.data.redis.serializer.RedisElementWriter;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * <h1>Flux流式缓存</h1>
+ * Flux的每个元素单独序列化后保存在redis的list中，不需要collectList收集全部元素
+ * 写入：元素发射给下游的同时分批RPUSH到临时key，Flux完成时通过lua脚本RENAME为缓存key并设置过期时间，读取方不会看到写了一半的数据
+ * 读取：分页LRANGE，下游请求时才读取下一页，第一页为空表示未命中，Flux为empty时list中只有一个空值标记
+ * 版本：list的第一个元素为本次写入的版本号，提交时旧版本RENAME为保留key并保留retainTimeout秒，读取每一页时检查版本号，版本号变化时从保留key中继续读取
+ * Flux出错或被取消时删除临时key，不会写入缓存
+ * Created by hanqf on 2026/10/17 15:20.
+ */
+@Component
+@Slf4j
+public class FluxStreamCache {
+
+    /**
+     * Flux为empty时写入list的空值标记，与字符串缓存的空值标记相同
+     */
+    private static final byte[] NULL_VALUE = "\0NULL".getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * 写入过程中临时key的后缀，后面再拼接本次写入的token
+     */
+    private static final String PENDING_SUFFIX = ":__pending__:";
+
+    /**
+     * 替换后保留的旧版本key的后缀，后面再拼接旧版本的版本号
+     */
+    private static final String RETAINED_SUFFIX = ":__retained__:";
+
+    /**
+     * list第一个元素版本号的前缀，后面拼接写入的token
+     */
+    private static final String VERSION_PREFIX = "\0VERSION:";
+
+    private static final byte[] VERSION_PREFIX_BYTES = VERSION_PREFIX.getBytes(StandardCharsets.UTF_8);
+
+    private static final ByteBuffer NO_VERSION = ByteBuffer.allocate(0);
+
+    /**
+     * 追加一批元素并刷新临时key的过期时间
+     * KEYS[1]临时key，ARGV[1]过期时间(秒)，ARGV[2..]元素
+     */
+    private static final RedisScript<Long> APPEND_SCRIPT = RedisScript.of(
+            "redis.call('rpush', KEYS[1], unpack(ARGV, 2)) " +
+                    "return redis.call('expire', KEYS[1], ARGV[1])", Long.class);
+
+    /**
+     * 提交写入，临时key存在时在开头写入版本号后RENAME为缓存key，元素数量为0时写入空值标记，临时key已经不存在(过期或被清除)时放弃写入
+     * 缓存key中有版本号时先RENAME为保留key，正在读取的请求继续读取旧版本
+     * KEYS[1]临时key，KEYS[2]缓存key，ARGV[1]过期时间(秒)，ARGV[2]空值标记，ARGV[3]元素数量，
+     * ARGV[4]版本号，ARGV[5]版本号前缀，ARGV[6]保留key的前缀，ARGV[7]保留时间(秒)
+     */
+    private static final RedisScript<Long> COMMIT_SCRIPT = RedisScript.of(
+            retainFunction("KEYS[2]", "ARGV[5]", "ARGV[6]", "ARGV[7]") +
+                    "if redis.call('exists', KEYS[1]) == 1 then " +
+                    "retain() " +
+                    "redis.call('lpush', KEYS[1], ARGV[4]) " +
+                    "redis.call('rename', KEYS[1], KEYS[2]) " +
+                    "elseif ARGV[3] == '0' then " +
+                    "retain() " +
+                    "redis.call('del', KEYS[2]) " +
+                    "redis.call('rpush', KEYS[2], ARGV[2]) " +
+                    "else return 0 end " +
+                    "if tonumber(ARGV[1]) > 0 then redis.call('expire', KEYS[2], ARGV[1]) else redis.call('persist', KEYS[2]) end " +
+                    "return 1", Long.class);
+
+    /**
+     * 删除缓存，有版本号时RENAME为保留key，正在读取的请求继续读取旧版本
+     * KEYS[1]缓存key，ARGV[1]版本号前缀，ARGV[2]保留key的前缀，ARGV[3]保留时间(秒)
+     */
+    private static final RedisScript<Long> DELETE_SCRIPT = RedisScript.of(
+            retainFunction("KEYS[1]", "ARGV[1]", "ARGV[2]", "ARGV[3]") +
+                    "retain() " +
+                    "return redis.call('del', KEYS[1])", Long.class);
+
+    private static final RedisElementWriter<byte[]> BYTES_WRITER = RedisElementWriter.from(RedisSerializer.byteArray());
+
+    private static final RedisElementReader<Long> LONG_READER = RedisElementReader.from(new GenericToStringSerializer<>(Long.class));
+
+    @Autowired
+    private ReactiveRedisTemplate reactiveRedisTemplate;
+
+    @Autowired
+    private RedisClusterSupport clusterSupport;
+
+    @Autowired
+    private ReactiveRedisCacheProperties properties;
+
+    @Autowired
+    private CacheEvictStrategyResolver evictStrategyResolver;
+
+    @Autowired
+    private NearCacheManager nearCacheManager;
+
+    @Autowired
+    private CacheBloomFilterManager bloomFilterManager;
+
+    @Autowired
+    private CacheValueCodecResolver codecResolver;
+
+    @Autowired
+    private CacheTtlPolicy ttlPolicy;
+
+    /**
+     * 保留旧版本的lua函数，key是有版本号的list时RENAME为保留key并设置保留时间
+     */
+    private static String retainFunction(String key, String versionPrefix, String retainedPrefix, String retainTimeout) {
+        return "local function retain() " +
+                "if tonumber(" + retainTimeout + ") <= 0 or redis.call('type', " + key + ").ok ~= 'list' then return end " +
+                "local head = redis.call('lindex', " + key + ", 0) " +
+                "local n = string.len(" + versionPrefix + ") " +
+                "if head and string.sub(head, 1, n) == " + versionPrefix + " then " +
+                "local retained = " + retainedPrefix + " .. string.sub(head, n + 1) " +
+                "redis.call('rename', " + key + ", retained) " +
+                "redis.call('expire', retained, " + retainTimeout + ") end " +
+                "end ";
+    }
+
+    /**
+     * cacheName是否开启了Flux流式缓存
+     */
+    public boolean isEnabled(String cacheName) {
+        return properties.getFluxStream(cacheName).isEnabled();
+    }
+
+    /**
+     * 缓存key的类型与当前缓存方式不一致，如开启流式缓存前写入的字符串缓存，按未命中处理，重新写入时会覆盖
+     */
+    public static boolean isWrongType(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t.getMessage() != null && t.getMessage().contains("WRONGTYPE")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private ByteBuffer rawKey(String redis_key) {
+        return reactiveRedisTemplate.getSerializationContext().getKeySerializationPair().write(redis_key);
+    }
+
+    private Mono<List<ByteBuffer>> range(String redis_key, long start, int pageSize) {
+        ByteBuffer rawKey = rawKey(redis_key);
+        return reactiveRedisTemplate.createFlux(connection -> connection.listCommands().lRange(rawKey, start, start + pageSize - 1))
+                .collectList();
+    }
+
+    private Mono<ByteBuffer> head(String redis_key) {
+        ByteBuffer rawKey = rawKey(redis_key);
+        Mono<ByteBuffer> head = reactiveRedisTemplate.createMono(connection -> connection.listCommands().lIndex(rawKey, 0));
+        return head.defaultIfEmpty(NO_VERSION);
+    }
+
+    /**
+     * 读取版本号为version的一页，LRANGE之后紧接着LINDEX检查版本号，版本号相同说明LRANGE读取的是这个版本
+     * 版本号不同时从保留key中读取，保留key也不存在时返回异常
+     */
+    private Mono<List<ByteBuffer>> range(String redis_key, ByteBuffer version, long start, int pageSize) {
+        return Mono.zip(range(redis_key, start, pageSize), head(redis_key))
+                .flatMap(current -> {
+                    if (version.equals(current.getT2())) {
+                        return Mono.just(current.getT1());
+                    }
+                    String retainedKey = clusterSupport.sameSlotKey(redis_key, RETAINED_SUFFIX) + token(version);
+                    log.debug("The key[{}] has been replaced,read from [{}]", redis_key, retainedKey);
+                    return Mono.zip(range(retainedKey, start, pageSize), head(retainedKey))
+                            .flatMap(retained -> version.equals(retained.getT2()) ? Mono.just(retained.getT1())
+                                    : Mono.error(new IllegalStateException("The key[" + redis_key + "] has been replaced or evicted while reading")));
+                });
+    }
+
+    private static boolean isVersion(ByteBuffer element) {
+        if (element.remaining() <= VERSION_PREFIX_BYTES.length) {
+            return false;
+        }
+        return element.duplicate().limit(element.position() + VERSION_PREFIX_BYTES.length).equals(ByteBuffer.wrap(VERSION_PREFIX_BYTES));
+    }
+
+    private static String token(ByteBuffer version) {
+        ByteBuffer duplicate = version.duplicate();
+        duplicate.position(duplicate.position() + VERSION_PREFIX_BYTES.length);
+        return StandardCharsets.UTF_8.decode(duplicate).toString();
+    }
+
+    private byte[] encode(String cacheName, Object value, JavaType elementType) {
+        ByteBuffer byteBuffer = codecResolver.encode(cacheName, value, elementType);
+        byte[] bytes = new byte[byteBuffer.remaining()];
+        byteBuffer.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * 缓存值类型为List&lt;T&gt;，每个元素的类型为T
+     */
+    private static JavaType elementType(JavaType valueType) {
+        return valueType == null ? null : valueType.getContentType();
+    }
+
+    /**
+     * 分页读取缓存，未命中时执行miss
+     * 读取过程中缓存被替换时继续读取旧版本，旧版本超过retainTimeout或缓存被清除时返回异常，没有版本号的旧格式缓存不检查版本
+     *
+     * @param valueType 方法返回值声明的缓存值类型，即List&lt;T&gt;
+     */
+    public Flux<Object> read(String cacheName, String redis_key, JavaType valueType, Supplier<Flux<Object>> miss) {
+        JavaType elementType = elementType(valueType);
+        int pageSize = Math.max(1, properties.getFluxStream(cacheName).getPageSize());
+        return range(redis_key, 0, pageSize)
+                .onErrorResume(FluxStreamCache::isWrongType, e -> Mono.just(Collections.emptyList()))
+                .flatMapMany(first -> {
+                    if (first.isEmpty()) {
+                        return Flux.defer(miss);
+                    }
+                    log.debug("The key[{}] exists,method body not executed", redis_key);
+                    if (first.size() == 1 && first.get(0).equals(ByteBuffer.wrap(NULL_VALUE))) {
+                        return Flux.empty();
+                    }
+                    //第一个元素是版本号时跳过，后面的每一页都检查版本号
+                    ByteBuffer version = isVersion(first.get(0)) ? first.get(0) : null;
+                    AtomicLong offset = new AtomicLong(0);
+                    return Mono.just(first)
+                            .expand(page -> page.size() < pageSize ? Mono.empty()
+                                    : version == null ? range(redis_key, offset.addAndGet(pageSize), pageSize)
+                                    : range(redis_key, version, offset.addAndGet(pageSize), pageSize))
+                            .concatMapIterable(page -> page)
+                            .skip(version == null ? 0 : 1)
+                            .map(byteBuffer -> codecResolver.decode(byteBuffer, elementType));
+                });
+    }
+
+    /**
+     * 判断缓存key是否存在
+     */
+    public Mono<Boolean> exists(String redis_key) {
+        return reactiveRedisTemplate.hasKey(redis_key);
+    }
+
+    /**
+     * 删除cacheName下的缓存，流式缓存的旧版本保留retainTimeout秒，正在读取的请求可以读完
+     *
+     * @return 删除的数量
+     */
+    public Mono<Long> delete(String cacheName, List<String> redis_keys) {
+        byte[] retainTimeout = String.valueOf(properties.getFluxStream(cacheName).getRetainTimeout()).getBytes(StandardCharsets.UTF_8);
+        return Flux.fromIterable(redis_keys)
+                .flatMap(redis_key -> {
+                    List<byte[]> args = Arrays.asList(VERSION_PREFIX_BYTES,
+                            clusterSupport.sameSlotKey(redis_key, RETAINED_SUFFIX).getBytes(StandardCharsets.UTF_8), retainTimeout);
+                    Flux<Long> deleted = reactiveRedisTemplate.execute(DELETE_SCRIPT, Collections.singletonList(redis_key), args, BYTES_WRITER, LONG_READER);
+                    return deleted.next();
+                })
+                .reduce(0L, Long::sum);
+    }
+
+    /**
+     * 缓存已经收集好的list
+     */
+    public Mono<Void> write(List<Object> list, CacheTarget target) {
+        return write(Flux.fromIterable(list), Collections.singletonList(target), Mono.empty()).then();
+    }
+
+    /**
+     * 元素发射给下游的同时写入全部targets，source完成后先执行beforeCommit，再提交写入，全部完成后下游才会收到完成信号
+     * redis写入失败时只记录日志，不影响下游接收元素
+     *
+     * @param beforeCommit source成功完成后、提交写入前执行，如清除其它缓存
+     */
+    public Flux<Object> write(Flux<Object> source, List<CacheTarget> targets, Mono<Void> beforeCommit) {
+        String cacheName = targets.get(0).getCacheName();
+        JavaType elementType = elementType(targets.get(0).getValueType());
+        ReactiveRedisCacheProperties.FluxStreamProperties streamProperties = properties.getFluxStream(cacheName);
+        int chunkSize = Math.max(1, streamProperties.getChunkSize());
+        byte[] pendingTimeout = String.valueOf(Math.max(1, streamProperties.getPendingTimeout())).getBytes(StandardCharsets.UTF_8);
+        return Flux.defer(() -> {
+            String token = UUID.randomUUID().toString();
+            List<String> pendingKeys = targets.stream().map(t -> clusterSupport.sameSlotKey(t.getRedisKey(), PENDING_SUFFIX + token)).collect(Collectors.toList());
+            AtomicLong count = new AtomicLong();
+            AtomicBoolean sourceFailed = new AtomicBoolean();
+
+            return source.doOnError(e -> sourceFailed.set(true)).publish(shared -> {
+                Mono<Boolean> pushed = shared.buffer(chunkSize)
+                        .concatMap(chunk -> {
+                            count.addAndGet(chunk.size());
+                            List<byte[]> args = new ArrayList<>(chunk.size() + 1);
+                            args.add(pendingTimeout);
+                            chunk.forEach(element -> args.add(encode(cacheName, element, elementType)));
+                            return Flux.fromIterable(pendingKeys).concatMap(pendingKey -> append(pendingKey, args));
+                        })
+                        .then(Mono.just(true))
+                        .onErrorResume(e -> {
+                            if (sourceFailed.get()) {
+                                return cleanup(pendingKeys).then(Mono.empty());
+                            }
+                            log.error("写入Flux流式缓存失败！", e);
+                            return cleanup(pendingKeys).thenReturn(false);
+                        });
+                Mono<Object> writes = pushed
+                        .flatMap(success -> beforeCommit.then(success ? commit(targets, pendingKeys, token, count.get())
+                                .onErrorResume(e -> {
+                                    log.error("提交Flux流式缓存失败！", e);
+                                    return cleanup(pendingKeys).then(Mono.empty());
+                                }) : Mono.empty()))
+                        .doOnCancel(() -> cleanup(pendingKeys).subscribe())
+                        .then(Mono.empty());
+                return shared.mergeWith(writes);
+            });
+        });
+    }
+
+    private Mono<Long> append(String pendingKey, List<byte[]> args) {
+        return reactiveRedisTemplate.execute(APPEND_SCRIPT, Collections.singletonList(pendingKey), args, BYTES_WRITER, LONG_READER).next();
+    }
+
+    private Mono<Void> commit(List<CacheTarget> targets, List<String> pendingKeys, String token, long count) {
+        byte[] version = (VERSION_PREFIX + token).getBytes(StandardCharsets.UTF_8);
+        return Flux.range(0, targets.size())
+                .concatMap(i -> {
+                    CacheTarget target = targets.get(i);
+                    if (count == 0 && !target.isCacheNull()) {
+                        return Mono.empty();
+                    }
+                    long timeout = ttlPolicy.jitter(target.getCacheName(), target.timeout(count == 0));
+                    long retainTimeout = properties.getFluxStream(target.getCacheName()).getRetainTimeout();
+                    List<byte[]> args = Arrays.asList(String.valueOf(timeout).getBytes(StandardCharsets.UTF_8), NULL_VALUE,
+                            String.valueOf(count).getBytes(StandardCharsets.UTF_8), version, VERSION_PREFIX_BYTES,
+                            clusterSupport.sameSlotKey(target.getRedisKey(), RETAINED_SUFFIX).getBytes(StandardCharsets.UTF_8),
+                            String.valueOf(retainTimeout).getBytes(StandardCharsets.UTF_8));
+                    return reactiveRedisTemplate.execute(COMMIT_SCRIPT, Arrays.asList(pendingKeys.get(i), target.getRedisKey()), args, BYTES_WRITER, LONG_READER)
+                            .next()
+                            .flatMap(committed -> {
+                                if ((Long) committed == 0) {
+                                    log.debug("The pending key[{}] has gone,key[{}] not cached", pendingKeys.get(i), target.getRedisKey());
+                                    return Mono.empty();
+                                }
+                                log.debug("The key[{}] has been cached,size:{}", target.getRedisKey(), count);
+                                return afterWrite(target, timeout, count > 0);
+                            });
+                })
+                .then();
+    }
+
+    private Mono<Void> afterWrite(CacheTarget target, long timeout, boolean nonEmpty) {
+        String cacheName = target.getCacheName();
+        Mono<Void> afterWrite = StringUtils.hasText(cacheName) ? evictStrategyResolver.resolve(cacheName).afterWrite(cacheName, target.getRedisKey(), timeout) : Mono.empty();
+        Mono<Void> bloomFilter = nonEmpty ? bloomFilterManager.add(cacheName, target.getKey()) : Mono.empty();
+        //流式缓存不会写入本地缓存，只通知其它节点删除旧的本地缓存
+        return afterWrite.then(bloomFilter).then(nearCacheManager.onEvict(cacheName, target.getRedisKey()));
+    }
+
+    private Mono<Void> cleanup(List<String> pendingKeys) {
+        return clusterSupport.unlink(pendingKeys)
+                .onErrorResume(e -> {
+                    log.warn("清除Flux流式缓存的临时key失败！", e);
+                    return Mono.empty();
+                })
+                .then();
+    }
+}
@@ -0,0 +1,81 @@
+package com.hanqunfeng.reactive.redis.cache.ttl;
+
+import com.hanqunfeng.reactive.redis.cache.config.ReactiveRedisCacheProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <h1>缓存过期策略</h1>
+ * jitter：写入时过期时间随机减少，避免同时写入的缓存在同一时刻过期
+ * XFetch：命中时按方法主体的执行时间delta和剩余过期时间ttl，以-delta*beta*ln(random)>=ttl的概率提前重新计算
+ * 执行时间按方法(注解)记录指数移动平均值，只保存在当前节点
+ * Created by hanqf on 2026/10/17 19:40.
+ */
+@Component
+public class CacheTtlPolicy {
+
+    private final Map<Object, AtomicLong> computeTimes = new ConcurrentHashMap<>(64);
+
+    @Autowired
+    private ReactiveRedisCacheProperties properties;
+
+    /**
+     * 写入缓存时实际使用的过期时间，单位秒，0或负数表示不过期，不做处理
+     */
+    public long jitter(String cacheName, long timeout) {
+        if (timeout <= 0) {
+            return timeout;
+        }
+        ReactiveRedisCacheProperties.TtlProperties ttl = properties.getTtl(cacheName);
+        long range = (long) (timeout * Math.min(Math.max(ttl.getJitter(), 0), 1)) + Math.max(ttl.getJitterSeconds(), 0);
+        if (range <= 0) {
+            return timeout;
+        }
+        return Math.max(timeout - ThreadLocalRandom.current().nextLong(range + 1), 1);
+    }
+
+    /**
+     * cacheName是否开启了XFetch提前重新计算
+     */
+    public boolean isEarlyExpirationEnabled(String cacheName) {
+        return properties.getTtl(cacheName).getEarlyExpirationBeta() > 0;
+    }
+
+    /**
+     * 记录load的执行时间
+     *
+     * @param operation 记录执行时间的对象，通常是方法上的注解
+     */
+    public <T> Mono<T> timed(Object operation, Mono<T> load) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return load.doOnSuccess(v -> record(operation, (System.nanoTime() - start) / 1_000_000));
+        });
+    }
+
+    private void record(Object operation, long millis) {
+        AtomicLong computeTime = computeTimes.computeIfAbsent(operation, k -> new AtomicLong());
+        computeTime.updateAndGet(avg -> avg == 0 ? Math.max(millis, 1) : (avg * 7 + millis) / 8);
+    }
+
+    /**
+     * 是否提前重新计算
+     *
+     * @param remaining 剩余的过期时间，单位毫秒
+     */
+    public boolean shouldRecomputeEarly(String cacheName, Object operation, long remaining) {
+        AtomicLong computeTime = computeTimes.get(operation);
+        if (computeTime == null || computeTime.get() <= 0) {
+            return false;
+        }
+        double beta = properties.getTtl(cacheName).getEarlyExpirationBeta();
+        double random = ThreadLocalRandom.current().nextDouble();
+        return -computeTime.get() * beta * Math.log(random) >= remaining;
+    }
+}
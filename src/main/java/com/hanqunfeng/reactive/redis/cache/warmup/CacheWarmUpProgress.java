@@ -0,0 +1,38 @@
+package com.hanqunfeng.reactive.redis.cache.warmup;
+
+import lombok.Data;
+
+/**
+ * <h1>缓存预热进度</h1>
+ * Created by hanqf on 2026/10/18 02:10.
+ */
+@Data
+public class CacheWarmUpProgress {
+
+    private final String warmer;
+
+    /**
+     * 是否正在预热
+     */
+    private volatile boolean running;
+
+    /**
+     * 最近一次预热中成功的方法调用次数
+     */
+    private volatile long succeeded;
+
+    /**
+     * 最近一次预热中失败或超时的方法调用次数
+     */
+    private volatile long failed;
+
+    /**
+     * 最近一次预热开始的时间，毫秒时间戳
+     */
+    private volatile long startTime;
+
+    /**
+     * 最近一次预热结束的时间，毫秒时间戳，正在预热时为0
+     */
+    private volatile long endTime;
+}
@@ -0,0 +1,271 @@
+package com.hanqunfeng.reactive.redis.cache.warmup;
+
+import com.hanqunfeng.reactive.redis.cache.aop.ReactiveRedisCacheable;
+import com.hanqunfeng.reactive.redis.cache.aop.ReactiveRedisCaching;
+import com.hanqunfeng.reactive.redis.cache.config.ReactiveRedisCacheProperties;
+import com.hanqunfeng.reactive.redis.cache.metrics.CacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * <h1>缓存预热</h1>
+ * 预热的方法包括注册为bean的CacheWarmer和@ReactiveRedisCacheable(warmUp = true)的无参方法
+ * 应用启动完成后和按cron定时执行预热，也可以调用warmUp()手动预热，例如redis故障恢复后
+ * 预热通过代理对象调用方法，与正常请求使用相同的缓存切面生成key和序列化，已经存在的缓存直接命中，不会重复执行方法主体
+ * 多个CacheWarmer依次执行，每个CacheWarmer的方法调用按parallelism并发、按rate限速，单次调用失败只记录日志
+ * Created by hanqf on 2026/10/18 02:10.
+ */
+@Component
+@Slf4j
+public class CacheWarmUpRunner implements ApplicationListener<ApplicationReadyEvent>, DisposableBean {
+
+    private final Map<String, CacheWarmUpProgress> progress = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private volatile List<CacheWarmer> warmers = Collections.emptyList();
+
+    private Disposable schedule;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private ReactiveRedisCacheProperties properties;
+
+    @Autowired
+    private CacheMetrics metrics;
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        ReactiveRedisCacheProperties.WarmUpProperties warmUp = properties.getWarmUp();
+        if (event.getApplicationContext() != applicationContext || !warmUp.isEnabled()) {
+            return;
+        }
+        List<CacheWarmer> found = new ArrayList<>();
+        applicationContext.getBeanProvider(CacheWarmer.class).orderedStream().forEach(found::add);
+        found.addAll(findAnnotatedWarmers());
+        warmers = found;
+        if (found.isEmpty()) {
+            return;
+        }
+        log.info("cache warm up: {}", found.stream().map(CacheWarmer::getName).collect(Collectors.toList()));
+        if (warmUp.isOnStartup()) {
+            warmUp().subscribe();
+        }
+        if (StringUtils.hasText(warmUp.getCron())) {
+            schedule = schedule(CronExpression.parse(warmUp.getCron()));
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (schedule != null) {
+            schedule.dispose();
+        }
+    }
+
+    /**
+     * 执行全部预热，正在预热时直接返回
+     */
+    public Mono<Void> warmUp() {
+        return Mono.defer(() -> {
+            if (!running.compareAndSet(false, true)) {
+                log.warn("cache warm up is already running");
+                return Mono.<Void>empty();
+            }
+            return Flux.fromIterable(warmers)
+                    .concatMap(this::warmUp)
+                    .doFinally(signal -> running.set(false))
+                    .then();
+        });
+    }
+
+    /**
+     * 全部预热的最近一次进度
+     */
+    public List<CacheWarmUpProgress> getProgress() {
+        return new ArrayList<>(progress.values());
+    }
+
+    private Mono<Void> warmUp(CacheWarmer warmer) {
+        ReactiveRedisCacheProperties.WarmUpProperties warmUp = properties.getWarmUp();
+        CacheWarmUpProgress current = progress.computeIfAbsent(warmer.getName(), CacheWarmUpProgress::new);
+        List<Method> methods = findMethods(warmer);
+        if (methods.isEmpty()) {
+            log.warn("cache warm up [{}]: method {} not found", warmer.getName(), warmer.getMethodName());
+            return Mono.empty();
+        }
+        Flux<Object[]> arguments = Flux.defer(() -> Flux.<Object>from(warmer.getArguments().get())).map(CacheWarmUpRunner::toArgs);
+        if (warmUp.getRate() > 0) {
+            arguments = arguments.delayElements(Duration.ofNanos(1_000_000_000L / warmUp.getRate()));
+        }
+        Mono<Void> run = arguments
+                .flatMap(args -> invoke(warmer, methods, args, warmUp.getTimeout()), Math.max(1, warmUp.getParallelism()))
+                .doOnNext(success -> {
+                    metrics.warmUp(warmer.getName(), success);
+                    if (success) {
+                        current.setSucceeded(current.getSucceeded() + 1);
+                    } else {
+                        current.setFailed(current.getFailed() + 1);
+                    }
+                })
+                .onErrorResume(e -> {
+                    log.warn("cache warm up [{}] arguments error: {}", warmer.getName(), e.toString());
+                    return Mono.empty();
+                })
+                .then();
+        return metrics.warmUpRun(warmer.getName(), run)
+                .doOnSubscribe(s -> {
+                    current.setSucceeded(0);
+                    current.setFailed(0);
+                    current.setStartTime(System.currentTimeMillis());
+                    current.setEndTime(0);
+                    current.setRunning(true);
+                })
+                .doFinally(signal -> {
+                    current.setEndTime(System.currentTimeMillis());
+                    current.setRunning(false);
+                    log.info("cache warm up [{}] finished, succeeded: {}, failed: {}, {}ms", warmer.getName(),
+                            current.getSucceeded(), current.getFailed(), current.getEndTime() - current.getStartTime());
+                });
+    }
+
+    /**
+     * 调用方法并订阅返回的Mono或Flux，由缓存切面写入缓存
+     *
+     * @return 是否成功
+     */
+    private Mono<Boolean> invoke(CacheWarmer warmer, List<Method> methods, Object[] args, long timeout) {
+        return Mono.defer(() -> {
+                    Method method = methods.stream()
+                            .filter(m -> isApplicable(m, args))
+                            .findFirst()
+                            .orElseThrow(() -> new IllegalArgumentException("no method " + warmer.getMethodName() + " for arguments " + Arrays.toString(args)));
+                    Object result;
+                    try {
+                        result = method.invoke(warmer.getBean(), args);
+                    } catch (InvocationTargetException e) {
+                        return Mono.error(e.getTargetException());
+                    } catch (IllegalAccessException e) {
+                        return Mono.error(e);
+                    }
+                    return result instanceof Publisher ? Flux.from((Publisher<?>) result).then() : Mono.<Void>empty();
+                })
+                .timeout(Duration.ofMillis(timeout))
+                .thenReturn(true)
+                .onErrorResume(e -> {
+                    log.warn("cache warm up [{}] {} error: {}", warmer.getName(), Arrays.toString(args), e.toString());
+                    return Mono.just(false);
+                });
+    }
+
+    private Disposable schedule(CronExpression cron) {
+        return Mono.defer(() -> {
+                    LocalDateTime now = LocalDateTime.now();
+                    LocalDateTime next = cron.next(now);
+                    if (next == null) {
+                        return Mono.just(false);
+                    }
+                    return Mono.delay(Duration.between(now, next)).then(warmUp()).thenReturn(true);
+                })
+                .repeat()
+                .takeWhile(Boolean::booleanValue)
+                .subscribe();
+    }
+
+    /**
+     * 代理对象上名称为methodName的方法，按参数数量和类型匹配重载的方法
+     */
+    private static List<Method> findMethods(CacheWarmer warmer) {
+        Object bean = warmer.getBean();
+        return Arrays.stream(ReflectionUtils.getUniqueDeclaredMethods(ClassUtils.getUserClass(bean)))
+                .filter(m -> m.getName().equals(warmer.getMethodName()))
+                .map(m -> {
+                    Method invocable = AopUtils.selectInvocableMethod(m, bean.getClass());
+                    ReflectionUtils.makeAccessible(invocable);
+                    return invocable;
+                })
+                .collect(Collectors.toList());
+    }
+
+    private static boolean isApplicable(Method method, Object[] args) {
+        Class<?>[] types = method.getParameterTypes();
+        if (types.length != args.length) {
+            return false;
+        }
+        for (int i = 0; i < types.length; i++) {
+            if (!ClassUtils.isAssignableValue(types[i], args[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Object[] toArgs(Object argument) {
+        return argument instanceof Object[] ? (Object[]) argument : new Object[]{argument};
+    }
+
+    /**
+     * @ReactiveRedisCacheable(warmUp = true)的无参方法，有参数的方法只记录日志
+     */
+    private List<CacheWarmer> findAnnotatedWarmers() {
+        List<CacheWarmer> found = new ArrayList<>();
+        for (String beanName : applicationContext.getBeanDefinitionNames()) {
+            Class<?> type = applicationContext.getType(beanName);
+            if (type == null || !AnnotationUtils.isCandidateClass(type, ReactiveRedisCacheable.class)) {
+                continue;
+            }
+            Class<?> userClass = ClassUtils.getUserClass(type);
+            for (Method method : ReflectionUtils.getUniqueDeclaredMethods(userClass)) {
+                if (!isWarmUp(method)) {
+                    continue;
+                }
+                String name = userClass.getSimpleName() + "." + method.getName();
+                if (method.getParameterCount() > 0) {
+                    log.warn("cache warm up [{}]: warmUp only supports methods without parameters, use CacheWarmer instead", name);
+                    continue;
+                }
+                found.add(new CacheWarmer(name, applicationContext.getBean(beanName), method.getName(), () -> Mono.just(new Object[0])));
+            }
+        }
+        return found;
+    }
+
+    private static boolean isWarmUp(Method method) {
+        ReactiveRedisCacheable cacheable = method.getAnnotation(ReactiveRedisCacheable.class);
+        if (cacheable != null && cacheable.warmUp()) {
+            return true;
+        }
+        ReactiveRedisCaching caching = method.getAnnotation(ReactiveRedisCaching.class);
+        return caching != null && Arrays.stream(caching.cacheable()).anyMatch(ReactiveRedisCacheable::warmUp);
+    }
+}
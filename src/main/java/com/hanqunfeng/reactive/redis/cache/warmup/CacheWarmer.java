@@ -0,0 +1,49 @@
+package com.hanqunfeng.reactive.redis.cache.warmup;
+
+import lombok.Getter;
+import org.reactivestreams.Publisher;
+import org.springframework.util.ClassUtils;
+
+import java.util.function.Supplier;
+
+/**
+ * <h1>缓存预热</h1>
+ * 注册为spring bean后，预热时按arguments发射的每组参数调用bean的method方法，由缓存切面生成key并写入缓存
+ * bean需要是spring容器中的bean(代理对象)，直接使用目标对象时不会经过缓存切面
+ * arguments发射Object[]时作为全部参数，发射其它对象时作为唯一的参数，每次预热都会重新调用arguments.get()
+ * <pre>
+ * &#64;Bean
+ * public CacheWarmer userWarmer(UserService userService) {
+ *     return CacheWarmer.of(userService, "findUserById", () -&gt; userService.findHotUserIds());
+ * }
+ * </pre>
+ * Created by hanqf on 2026/10/18 02:10.
+ */
+@Getter
+public class CacheWarmer {
+
+    /**
+     * 预热的名称，用于日志、进度和指标
+     */
+    private final String name;
+
+    private final Object bean;
+
+    private final String methodName;
+
+    private final Supplier<? extends Publisher<?>> arguments;
+
+    public CacheWarmer(String name, Object bean, String methodName, Supplier<? extends Publisher<?>> arguments) {
+        this.name = name;
+        this.bean = bean;
+        this.methodName = methodName;
+        this.arguments = arguments;
+    }
+
+    /**
+     * 名称为类名.方法名
+     */
+    public static CacheWarmer of(Object bean, String methodName, Supplier<? extends Publisher<?>> arguments) {
+        return new CacheWarmer(ClassUtils.getUserClass(bean).getSimpleName() + "." + methodName, bean, methodName, arguments);
+    }
+}
@@ -0,0 +1,275 @@
+package com.hanqunfeng.reactive.redis.cache.write;
+
+import com.hanqunfeng.reactive.redis.cache.config.ReactiveRedisCacheProperties;
+import com.hanqunfeng.reactive.redis.cache.metrics.CacheMetrics;
+import com.hanqunfeng.reactive.redis.cache.stream.CacheTarget;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <h1>异步写入缓存</h1>
+ * 写入操作按key放入有界队列，相同key只保留最后一次写入，后台每隔flushInterval取出最多batchSize个并发写入，共享连接上以pipeline的方式发送
+ * 队列满时放弃写入并记录指标，下次未命中时会重新执行方法主体
+ * 等待写入的值可以被读取，清除缓存时同时删除等待写入的key，避免清除后又写入旧值
+ * 已经取出正在写入的key无法撤回，清除缓存时等待这一批写入完成后再删除
+ * Created by hanqf on 2026/10/17 21:40.
+ */
+@Component
+@Slf4j
+public class CacheWriteBehind implements InitializingBean, DisposableBean {
+
+    private final Map<String, PendingWrite> pending = new ConcurrentHashMap<>(1024);
+
+    private final Queue<String> queue = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger size = new AtomicInteger();
+
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    /**
+     * 正在写入的一批，同一时间最多只有一批
+     */
+    private volatile InFlight inFlight;
+
+    private Scheduler scheduler;
+
+    @Autowired
+    private ReactiveRedisCacheProperties properties;
+
+    @Autowired
+    private CacheMetrics metrics;
+
+    /**
+     * 关闭时需要在连接关闭之前写入剩余的缓存，依赖ReactiveRedisTemplate保证销毁的顺序
+     */
+    @Autowired
+    private ReactiveRedisTemplate reactiveRedisTemplate;
+
+    @Override
+    public void afterPropertiesSet() {
+        scheduler = Schedulers.newSingle("reactive-redis-cache-write-behind", true);
+    }
+
+    /**
+     * cacheName是否开启了异步写入
+     */
+    public boolean isEnabled(String cacheName) {
+        return properties.isWriteBehind(cacheName);
+    }
+
+    /**
+     * 写入操作放入队列，key已经在队列中时替换为新的写入
+     *
+     * @param target 缓存写入目标
+     * @param value  缓存的值，Flux为list，null为空值
+     * @param write  实际写入redis的操作
+     */
+    public void enqueue(CacheTarget target, Object value, Mono<Void> write) {
+        PendingWrite entry = new PendingWrite(target, value, write);
+        int capacity = properties.getWriteBehind().getQueueCapacity();
+        boolean[] added = {false};
+        boolean[] rejected = {false};
+        pending.compute(target.getRedisKey(), (key, old) -> {
+            if (old != null) {
+                return entry;
+            }
+            if (size.get() >= capacity) {
+                rejected[0] = true;
+                return null;
+            }
+            size.incrementAndGet();
+            added[0] = true;
+            return entry;
+        });
+        if (rejected[0]) {
+            log.warn("Write behind queue is full,the key[{}] not cached", target.getRedisKey());
+            metrics.writeDropped(target.getCacheName(), target.getMethod());
+            return;
+        }
+        if (added[0]) {
+            queue.offer(target.getRedisKey());
+        }
+        schedule(properties.getWriteBehind().getFlushInterval());
+    }
+
+    /**
+     * 获取等待写入的值
+     *
+     * @return 没有等待写入时返回null，Optional为空表示空值
+     */
+    public Optional<Object> getPending(String redisKey) {
+        PendingWrite entry = pending.get(redisKey);
+        return entry == null ? null : Optional.ofNullable(entry.value);
+    }
+
+    /**
+     * 删除等待写入的key
+     *
+     * @return key正在写入时，在这一批写入完成后结束，调用方在此之后再删除缓存
+     */
+    public Mono<Void> cancel(String redisKey) {
+        if (pending.remove(redisKey) != null) {
+            size.decrementAndGet();
+        }
+        //先删除等待写入的key再检查正在写入的批次，与poll的顺序相反，两者之间不会漏掉
+        InFlight current = inFlight;
+        return current != null && current.keys.contains(redisKey) ? current.done.asMono() : Mono.empty();
+    }
+
+    /**
+     * 删除cacheName下全部等待写入的key
+     *
+     * @return cacheName下有key正在写入时，在这一批写入完成后结束
+     */
+    public Mono<Void> cancelAll(String cacheName) {
+        pending.forEach((redisKey, entry) -> {
+            if (cacheName.equals(entry.target.getCacheName()) && pending.remove(redisKey, entry)) {
+                size.decrementAndGet();
+            }
+        });
+        InFlight current = inFlight;
+        return current != null && current.cacheNames.contains(cacheName) ? current.done.asMono() : Mono.empty();
+    }
+
+    /**
+     * 等待写入的key的数量
+     */
+    public int pendingCount() {
+        return size.get();
+    }
+
+    private void schedule(long delay) {
+        if (scheduled.compareAndSet(false, true)) {
+            scheduler.schedule(this::flush, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void flush() {
+        InFlight current = new InFlight();
+        List<PendingWrite> batch = poll(properties.getWriteBehind().getBatchSize(), current);
+        if (batch.isEmpty()) {
+            scheduled.set(false);
+            //检查和重置之间可能有新的写入
+            if (!queue.isEmpty()) {
+                schedule(0);
+            }
+            return;
+        }
+        write(batch)
+                .doFinally(signalType -> {
+                    complete(current);
+                    scheduled.set(false);
+                    if (!queue.isEmpty()) {
+                        schedule(0);
+                    }
+                })
+                .subscribe();
+    }
+
+    /**
+     * 取出一批写入，key先登记为正在写入再从等待写入中删除，cancel没有删除到key时一定能看到正在写入
+     */
+    private List<PendingWrite> poll(int max, InFlight current) {
+        List<PendingWrite> batch = new ArrayList<>(Math.min(max, size.get()));
+        inFlight = current;
+        String redisKey;
+        while (batch.size() < max && (redisKey = queue.poll()) != null) {
+            PendingWrite peek = pending.get(redisKey);
+            if (peek == null) {
+                continue;
+            }
+            current.cacheNames.add(peek.target.getCacheName());
+            current.keys.add(redisKey);
+            PendingWrite entry = pending.remove(redisKey);
+            if (entry != null) {
+                size.decrementAndGet();
+                batch.add(entry);
+            }
+        }
+        if (batch.isEmpty()) {
+            complete(current);
+        }
+        return batch;
+    }
+
+    /**
+     * 当前这一批写入完成，通知等待的清除操作
+     */
+    private void complete(InFlight current) {
+        if (inFlight == current) {
+            inFlight = null;
+        }
+        current.done.tryEmitEmpty();
+    }
+
+    /**
+     * 一批写入并发执行，单个写入失败只记录日志
+     */
+    private Mono<Void> write(List<PendingWrite> batch) {
+        return Flux.fromIterable(batch)
+                .flatMap(entry -> entry.write.onErrorResume(e -> {
+                    log.error("异步写入缓存失败！key[{}]", entry.target.getRedisKey(), e);
+                    return Mono.empty();
+                }), batch.size())
+                .then();
+    }
+
+    @Override
+    public void destroy() {
+        InFlight current = new InFlight();
+        List<PendingWrite> remaining = poll(Integer.MAX_VALUE, current);
+        if (!remaining.isEmpty()) {
+            log.debug("Write behind flush {} keys before shutdown", remaining.size());
+            write(remaining).doFinally(signalType -> complete(current)).block(Duration.ofSeconds(10));
+        }
+        if (scheduler != null) {
+            scheduler.dispose();
+        }
+    }
+
+    private static class InFlight {
+
+        private final Set<String> keys = ConcurrentHashMap.newKeySet();
+
+        private final Set<String> cacheNames = ConcurrentHashMap.newKeySet();
+
+        private final Sinks.Empty<Void> done = Sinks.empty();
+    }
+
+    private static class PendingWrite {
+
+        private final CacheTarget target;
+
+        private final Object value;
+
+        private final Mono<Void> write;
+
+        PendingWrite(CacheTarget target, Object value, Mono<Void> write) {
+            this.target = target;
+            this.value = value;
+            this.write = write;
+        }
+    }
+}